@@ -145,6 +145,17 @@ public class MavenArtifact implements Serializable, MavenCoordinate {
     return false;
   }
 
+  /**
+   * @return the resolved flag the artifact was created with, unlike {@link #isResolved()} does not check the file
+   */
+  public boolean isMarkedResolved() {
+    return myResolved;
+  }
+
+  public boolean isStubbed() {
+    return myStubbed;
+  }
+
   @Nonnull
   public File getFile() {
     return myFile;
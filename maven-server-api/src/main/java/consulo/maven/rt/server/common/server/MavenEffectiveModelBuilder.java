@@ -0,0 +1,158 @@
+package consulo.maven.rt.server.common.server;
+
+import consulo.maven.rt.server.common.model.*;
+
+import java.io.File;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builds the effective models of a {@link MavenServer#buildEffectiveModels} batch out of the single model operations of a server.
+ * <p>
+ * Requests are processed in order, so a parent has to come before the models inheriting from it.
+ * A parent is inherited from with its profiles applied and its body repaired, but not interpolated.
+ */
+public abstract class MavenEffectiveModelBuilder
+{
+	protected abstract MavenModel interpolateAndAlignModel(MavenModel model, File basedir) throws RemoteException;
+
+	protected abstract MavenModel assembleInheritance(MavenModel model, MavenModel parentModel) throws RemoteException;
+
+	protected abstract ProfileApplicationResult applyProfiles(MavenModel model,
+															  File basedir,
+															  MavenExplicitProfiles explicitProfiles,
+															  Collection<String> alwaysOnProfiles) throws RemoteException;
+
+	public List<ProfileApplicationResult> build(List<MavenEffectiveModelRequest> requests,
+												MavenExplicitProfiles explicitProfiles) throws RemoteException
+	{
+		List<MavenModel> models = new ArrayList<MavenModel>(requests.size());
+		List<ProfileApplicationResult> result = new ArrayList<ProfileApplicationResult>(requests.size());
+		for(MavenEffectiveModelRequest each : requests)
+		{
+			MavenModel model = each.getModel();
+			int parentIndex = each.getParentIndex();
+			if(parentIndex != MavenEffectiveModelRequest.NO_PARENT)
+			{
+				if(parentIndex >= models.size())
+				{
+					throw new IllegalArgumentException("Parent model must precede its inheritors: " + parentIndex);
+				}
+				MavenModel parentModel = models.get(parentIndex);
+				model = assembleInheritance(model, parentModel);
+				addInheritedProfiles(model, parentModel);
+			}
+
+			List<MavenProfile> profiles = new ArrayList<MavenProfile>(model.getProfiles());
+			for(MavenProfile profile : each.getExternalProfiles())
+			{
+				addProfileIfDoesNotExist(profile, profiles);
+			}
+			model.setProfiles(profiles);
+
+			ProfileApplicationResult applied = applyProfiles(model, each.getBasedir(), explicitProfiles, each.getAlwaysOnProfiles());
+			model = applied.getModel();
+			repairModelBody(model);
+			models.add(model);
+
+			if(each.isInterpolate())
+			{
+				model = interpolateAndAlignModel(model, each.getBasedir());
+			}
+			result.add(new ProfileApplicationResult(model, applied.getActivatedProfiles()));
+		}
+		return result;
+	}
+
+	/**
+	 * Profiles are not inherited, their ids and activations are copied so that the profiles activated in the parent are reported.
+	 */
+	private static void addInheritedProfiles(MavenModel model, MavenModel parentModel)
+	{
+		List<MavenProfile> profiles = new ArrayList<MavenProfile>(model.getProfiles());
+		for(MavenProfile each : parentModel.getProfiles())
+		{
+			MavenProfile copyProfile = new MavenProfile(each.getId(), each.getSource());
+			if(each.getActivation() != null)
+			{
+				copyProfile.setActivation(each.getActivation().clone());
+			}
+
+			addProfileIfDoesNotExist(copyProfile, profiles);
+		}
+		model.setProfiles(profiles);
+	}
+
+	public static boolean addProfileIfDoesNotExist(MavenProfile profile, List<MavenProfile> result)
+	{
+		for(MavenProfile each : result)
+		{
+			if(Objects.equals(each.getId(), profile.getId()))
+			{
+				return false;
+			}
+		}
+		result.add(profile);
+		return true;
+	}
+
+	/**
+	 * Fills in the defaults Maven uses for the build section.
+	 */
+	public static void repairModelBody(MavenModel model)
+	{
+		MavenBuild build = model.getBuild();
+
+		if(isEmptyOrSpaces(build.getFinalName()))
+		{
+			build.setFinalName("${project.artifactId}-${project.version}");
+		}
+
+		if(build.getSources().isEmpty())
+		{
+			build.addSource("src/main/java");
+		}
+		if(build.getTestSources().isEmpty())
+		{
+			build.addTestSource("src/test/java");
+		}
+
+		build.setResources(repairResources(build.getResources(), "src/main/resources"));
+		build.setTestResources(repairResources(build.getTestResources(), "src/test/resources"));
+
+		build.setDirectory(isEmptyOrSpaces(build.getDirectory()) ? "target" : build.getDirectory());
+		build.setOutputDirectory(isEmptyOrSpaces(build.getOutputDirectory()) ? "${project.build.directory}/classes" : build.getOutputDirectory());
+		build.setTestOutputDirectory(isEmptyOrSpaces(build.getTestOutputDirectory())
+				? "${project.build.directory}/test-classes"
+				: build.getTestOutputDirectory());
+	}
+
+	private static List<MavenResource> repairResources(List<MavenResource> resources, String defaultDir)
+	{
+		List<MavenResource> result = new ArrayList<MavenResource>();
+		if(resources.isEmpty())
+		{
+			result.add(new MavenResource(defaultDir, false, null, Collections.<String>emptyList(), Collections.<String>emptyList()));
+			return result;
+		}
+
+		for(MavenResource each : resources)
+		{
+			if(isEmptyOrSpaces(each.getDirectory()))
+			{
+				continue;
+			}
+			result.add(each);
+		}
+		return result;
+	}
+
+	private static boolean isEmptyOrSpaces(String s)
+	{
+		return s == null || s.trim().isEmpty();
+	}
+}
@@ -0,0 +1,75 @@
+package consulo.maven.rt.server.common.server;
+
+import consulo.maven.rt.server.common.model.MavenModel;
+import consulo.maven.rt.server.common.model.MavenProfile;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A raw POM model to turn into an effective one by {@link MavenServer#buildEffectiveModels}.
+ */
+public class MavenEffectiveModelRequest implements Serializable
+{
+	public static final int NO_PARENT = -1;
+
+	private final MavenModel myModel;
+	private final File myBasedir;
+	private final int myParentIndex;
+	private final ArrayList<String> myAlwaysOnProfiles;
+	private final ArrayList<MavenProfile> myExternalProfiles;
+	private final boolean myInterpolate;
+
+	/**
+	 * @param parentIndex      index of the parent request in the same batch, {@link #NO_PARENT} if the model has no parent
+	 * @param externalProfiles profiles from the settings files, added to the model unless it has profiles with the same ids
+	 * @param interpolate      whether the result is interpolated and aligned to the base directory
+	 */
+	public MavenEffectiveModelRequest(MavenModel model,
+									  File basedir,
+									  int parentIndex,
+									  Collection<String> alwaysOnProfiles,
+									  List<MavenProfile> externalProfiles,
+									  boolean interpolate)
+	{
+		myModel = model;
+		myBasedir = basedir;
+		myParentIndex = parentIndex;
+		myAlwaysOnProfiles = new ArrayList<String>(alwaysOnProfiles);
+		myExternalProfiles = new ArrayList<MavenProfile>(externalProfiles);
+		myInterpolate = interpolate;
+	}
+
+	public MavenModel getModel()
+	{
+		return myModel;
+	}
+
+	public File getBasedir()
+	{
+		return myBasedir;
+	}
+
+	public int getParentIndex()
+	{
+		return myParentIndex;
+	}
+
+	public List<String> getAlwaysOnProfiles()
+	{
+		return myAlwaysOnProfiles;
+	}
+
+	public List<MavenProfile> getExternalProfiles()
+	{
+		return myExternalProfiles;
+	}
+
+	public boolean isInterpolate()
+	{
+		return myInterpolate;
+	}
+}
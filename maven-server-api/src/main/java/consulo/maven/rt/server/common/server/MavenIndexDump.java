@@ -0,0 +1,213 @@
+package consulo.maven.rt.server.common.server;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded columnar dump of index coordinates, written by the server into a file
+ * which the IDE memory-maps instead of receiving {@link IndexedMavenId} chunks over RMI.
+ * {@link MavenServerIndexer#exportClassNames} reuses the format with class names in the third column.
+ * <p>
+ * Every distinct string is stored once, rows refer to it by id. Rows are written in blocks of {@link #BLOCK_SIZE}:
+ * <pre>
+ * header: magic, version
+ * block:  [-2], newStringCount, newStringCount * (u16 length, UTF-8 bytes),
+ *         rowCount, int[rowCount] groupIds, int[rowCount] artifactIds, int[rowCount] versions
+ * end:    -1
+ * </pre>
+ * Strings introduced by a block get the ids following the ones of previous blocks. Once the dictionary holds
+ * {@link #MAX_DICTIONARY_SIZE} strings the writer starts the next block with a reset marker and numbers strings from zero again,
+ * so neither side keeps more than that many strings however many distinct ones the dump has.
+ */
+public class MavenIndexDump
+{
+	public static final int BLOCK_SIZE = 1 << 16;
+	public static final int MAX_DICTIONARY_SIZE = 1 << 20;
+
+	private static final int MAGIC = 0x4D494458;
+	private static final int VERSION = 2;
+	private static final int END = -1;
+	private static final int RESET = -2;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	public interface Processor
+	{
+		void process(@Nonnull String groupId, @Nonnull String artifactId, @Nonnull String version);
+	}
+
+	public static class Writer implements Closeable
+	{
+		private final DataOutputStream myOut;
+		private final Map<String, Integer> myDictionary = new HashMap<String, Integer>();
+
+		private final List<String> myNewStrings = new ArrayList<String>();
+		private final int[] myGroupIds = new int[BLOCK_SIZE];
+		private final int[] myArtifactIds = new int[BLOCK_SIZE];
+		private final int[] myVersions = new int[BLOCK_SIZE];
+		private final byte[] myColumnBytes = new byte[4 * BLOCK_SIZE];
+		private int myRowCount;
+
+		public Writer(@Nonnull File file) throws IOException
+		{
+			myOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+			myOut.writeInt(MAGIC);
+			myOut.writeInt(VERSION);
+		}
+
+		public void add(@Nonnull String groupId, @Nonnull String artifactId, @Nonnull String version) throws IOException
+		{
+			if(myRowCount == 0 && myDictionary.size() >= MAX_DICTIONARY_SIZE)
+			{
+				// a block never refers to strings of blocks before the reset
+				myOut.writeInt(RESET);
+				myDictionary.clear();
+			}
+
+			myGroupIds[myRowCount] = idOf(groupId);
+			myArtifactIds[myRowCount] = idOf(artifactId);
+			myVersions[myRowCount] = idOf(version);
+
+			if(++myRowCount == BLOCK_SIZE)
+			{
+				flushBlock();
+			}
+		}
+
+		private int idOf(String s)
+		{
+			Integer id = myDictionary.get(s);
+			if(id == null)
+			{
+				id = myDictionary.size();
+				myDictionary.put(s, id);
+				myNewStrings.add(s);
+			}
+			return id;
+		}
+
+		private void flushBlock() throws IOException
+		{
+			myOut.writeInt(myNewStrings.size());
+			for(String each : myNewStrings)
+			{
+				byte[] bytes = each.getBytes(UTF_8);
+				if(bytes.length > 0xFFFF)
+				{
+					throw new IOException("String is too long: " + each);
+				}
+				myOut.writeShort(bytes.length);
+				myOut.write(bytes);
+			}
+			myNewStrings.clear();
+
+			myOut.writeInt(myRowCount);
+			writeColumn(myGroupIds);
+			writeColumn(myArtifactIds);
+			writeColumn(myVersions);
+			myRowCount = 0;
+		}
+
+		private void writeColumn(int[] column) throws IOException
+		{
+			for(int i = 0, offset = 0; i < myRowCount; i++, offset += 4)
+			{
+				int value = column[i];
+				myColumnBytes[offset] = (byte) (value >>> 24);
+				myColumnBytes[offset + 1] = (byte) (value >>> 16);
+				myColumnBytes[offset + 2] = (byte) (value >>> 8);
+				myColumnBytes[offset + 3] = (byte) value;
+			}
+			myOut.write(myColumnBytes, 0, 4 * myRowCount);
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				if(myRowCount > 0)
+				{
+					flushBlock();
+				}
+				myOut.writeInt(END);
+			}
+			finally
+			{
+				myOut.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the dump through a read-only mapping. Every distinct string is decoded once and shared by all rows referring to it.
+	 */
+	public static void read(@Nonnull File file, @Nonnull Processor processor) throws IOException
+	{
+		MappedByteBuffer buffer;
+		FileInputStream input = new FileInputStream(file);
+		try
+		{
+			FileChannel channel = input.getChannel();
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally
+		{
+			input.close();
+		}
+
+		try
+		{
+			if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+			{
+				throw new IOException("Unsupported index dump format: " + file);
+			}
+
+			List<String> dictionary = new ArrayList<String>();
+			byte[] bytes = new byte[256];
+			int newStringCount;
+			while((newStringCount = buffer.getInt()) != END)
+			{
+				if(newStringCount == RESET)
+				{
+					dictionary.clear();
+					newStringCount = buffer.getInt();
+				}
+				for(int i = 0; i < newStringCount; i++)
+				{
+					int length = buffer.getShort() & 0xFFFF;
+					if(length > bytes.length)
+					{
+						bytes = new byte[Math.max(length, bytes.length * 2)];
+					}
+					buffer.get(bytes, 0, length);
+					dictionary.add(new String(bytes, 0, length, UTF_8));
+				}
+
+				int rowCount = buffer.getInt();
+				int groupIds = buffer.position();
+				int artifactIds = groupIds + 4 * rowCount;
+				int versions = artifactIds + 4 * rowCount;
+				for(int i = 0; i < rowCount; i++)
+				{
+					processor.process(dictionary.get(buffer.getInt(groupIds + 4 * i)),
+							dictionary.get(buffer.getInt(artifactIds + 4 * i)),
+							dictionary.get(buffer.getInt(versions + 4 * i)));
+				}
+				buffer.position(versions + 4 * rowCount);
+			}
+		}
+		catch(BufferUnderflowException | IndexOutOfBoundsException e)
+		{
+			throw new IOException("Corrupted index dump: " + file, e);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package consulo.maven.rt.server.common.server;
+
+import consulo.maven.rt.server.common.model.MavenArtifactInfo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of {@link MavenServerIndexer#search} results in score order.
+ */
+public class MavenIndexSearchPage implements Serializable
+{
+	public static final int NO_MORE_PAGES = -1;
+
+	private final int mySearchId;
+	private final List<MavenArtifactInfo> myResults;
+
+	public MavenIndexSearchPage(int searchId, List<MavenArtifactInfo> results)
+	{
+		mySearchId = searchId;
+		myResults = results;
+	}
+
+	/**
+	 * @return id to pass to {@link MavenServerIndexer#nextSearchPage}, {@link #NO_MORE_PAGES} if this is the last page
+	 */
+	public int getSearchId()
+	{
+		return mySearchId;
+	}
+
+	public boolean isLast()
+	{
+		return mySearchId == NO_MORE_PAGES;
+	}
+
+	public List<MavenArtifactInfo> getResults()
+	{
+		return myResults;
+	}
+}
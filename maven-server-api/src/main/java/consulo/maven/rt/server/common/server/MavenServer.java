@@ -22,11 +22,17 @@ import java.io.File;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.Collection;
+import java.util.List;
 
 public interface MavenServer extends Remote
 {
 	void set(MavenServerLogger logger, MavenServerDownloadListener downloadListener) throws RemoteException;
 
+	/**
+	 * Does nothing, throws only if the server process does not answer.
+	 */
+	void ping() throws RemoteException;
+
 	MavenServerEmbedder createEmbedder(MavenServerSettings settings) throws RemoteException;
 
 	MavenServerIndexer createIndexer() throws RemoteException;
@@ -36,4 +42,14 @@ public interface MavenServer extends Remote
 	MavenModel assembleInheritance(MavenModel model, MavenModel parentModel) throws RemoteException;
 
 	ProfileApplicationResult applyProfiles(MavenModel model, File basedir, MavenExplicitProfiles explicitProfiles, Collection<String> alwaysOnProfiles) throws RemoteException;
+
+	/**
+	 * Does inheritance, profile application and interpolation of the whole batch in one call.
+	 *
+	 * @param requests parents go before the models inheriting from them
+	 * @return effective models in the order of the requests
+	 * @see MavenEffectiveModelBuilder
+	 */
+	List<ProfileApplicationResult> buildEffectiveModels(List<MavenEffectiveModelRequest> requests,
+														MavenExplicitProfiles explicitProfiles) throws RemoteException;
 }
@@ -53,6 +53,16 @@ public interface MavenServerEmbedder extends Remote
 			@Nonnull Collection<String> activeProfiles,
 			@Nonnull Collection<String> inactiveProfiles) throws RemoteException, MavenServerProcessCanceledException;
 
+	/**
+	 * Resolves the projects in one session, building their models together.
+	 *
+	 * @return the results in the order of the files
+	 */
+	@Nonnull
+	List<MavenServerExecutionResult> resolveProjects(@Nonnull List<File> files,
+			@Nonnull Collection<String> activeProfiles,
+			@Nonnull Collection<String> inactiveProfiles) throws RemoteException, MavenServerProcessCanceledException;
+
 	@Nullable
 	String evaluateEffectivePom(@Nonnull File file, @Nonnull List<String> activeProfiles, @Nonnull List<String> inactiveProfiles) throws RemoteException, MavenServerProcessCanceledException;
 
@@ -16,7 +16,6 @@
 package consulo.maven.rt.server.common.server;
 
 import consulo.maven.rt.server.common.model.MavenArchetype;
-import consulo.maven.rt.server.common.model.MavenArtifactInfo;
 import consulo.maven.rt.server.common.model.MavenId;
 import jakarta.annotation.Nullable;
 import org.apache.lucene.search.Query;
@@ -27,7 +26,6 @@ import java.io.File;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.Collection;
-import java.util.Set;
 
 public interface MavenServerIndexer extends Remote
 {
@@ -44,9 +42,47 @@ public interface MavenServerIndexer extends Remote
 
 	void processArtifacts(int indexId, MavenServerIndicesProcessor processor) throws RemoteException, MavenServerIndexerException;
 
+	/**
+	 * Writes coordinates of indexed artifacts into {@code target} in {@link MavenIndexDump} format.
+	 * Unlike {@link #processArtifacts} this needs a single remote call regardless of the index size.
+	 *
+	 * @param modifiedSince only the versions with an index record added, replaced or deleted after this time are written, as long as
+	 *                      they have records left; 0 to write all artifacts. The records are found by their modification time.
+	 */
+	void exportArtifacts(int indexId, @Nonnull File target, long modifiedSince) throws RemoteException, MavenServerIndexerException;
+
+	/**
+	 * Writes groupId, artifactId and version of every version whose last index record was deleted after {@code deletedSince},
+	 * the versions the index no longer has, in {@link MavenIndexDump} format.
+	 */
+	void exportDeletedArtifacts(int indexId, @Nonnull File target, long deletedSince) throws RemoteException, MavenServerIndexerException;
+
+	/**
+	 * Writes a {@link MavenIndexDump} row of groupId, artifact and fully qualified class name for every class of every indexed
+	 * artifact. The artifact is its artifactId, version, classifier and packaging joined with {@code '|'}, a missing
+	 * classifier or packaging is empty.
+	 *
+	 * @param modifiedSince only the classes of the versions {@link #exportArtifacts} writes for it are written, all classes of all
+	 *                      their records; 0 to write all of them
+	 */
+	void exportClassNames(int indexId, @Nonnull File target, long modifiedSince) throws RemoteException, MavenServerIndexerException;
+
 	MavenId addArtifact(int indexId, File artifactFile) throws RemoteException, MavenServerIndexerException;
 
-	Set<MavenArtifactInfo> search(int indexId, Query query, int maxResult) throws RemoteException, MavenServerIndexerException;
+	/**
+	 * Finds the top {@code maxResult} documents in score order and returns the first {@code pageSize} of them. Only the coordinate
+	 * fields, plus class names if requested, are loaded and only for the documents of the page. The rest is fetched with
+	 * {@link #nextSearchPage}; a search that is not read to the end should be released with {@link #cancelSearch}.
+	 */
+	MavenIndexSearchPage search(int indexId, Query query, int maxResult, int pageSize, boolean withClassNames)
+			throws RemoteException, MavenServerIndexerException;
+
+	/**
+	 * @throws MavenServerIndexerException if the search has been canceled or expired
+	 */
+	MavenIndexSearchPage nextSearchPage(int searchId) throws RemoteException, MavenServerIndexerException;
+
+	void cancelSearch(int searchId) throws RemoteException;
 
 	Collection<MavenArchetype> getArchetypes() throws RemoteException;
 
@@ -19,4 +19,8 @@ public class MavenServerIndexerException extends Exception {
   public MavenServerIndexerException(Throwable cause) {
     super(cause.getMessage(), cause);
   }
+
+  public MavenServerIndexerException(String message) {
+    super(message);
+  }
 }
@@ -48,6 +48,8 @@ public class MavenServerSettings implements Serializable, Cloneable
 
 	private String projectJdk;
 
+	private int myResolveParallelism = 1;
+
 	@Nullable
 	public String getProjectJdk()
 	{
@@ -156,6 +158,19 @@ public class MavenServerSettings implements Serializable, Cloneable
 		mySnapshotUpdatePolicy = snapshotUpdatePolicy;
 	}
 
+	/**
+	 * How many modules of one batch may have their dependencies resolved at the same time, 1 to resolve them one by one.
+	 */
+	public int getResolveParallelism()
+	{
+		return myResolveParallelism;
+	}
+
+	public void setResolveParallelism(int resolveParallelism)
+	{
+		myResolveParallelism = resolveParallelism;
+	}
+
 	@Override
 	public MavenServerSettings clone()
 	{
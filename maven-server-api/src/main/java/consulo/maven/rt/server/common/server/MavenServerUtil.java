@@ -17,12 +17,16 @@ package consulo.maven.rt.server.common.server;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 import consulo.maven.rt.server.common.util.MavenSystemInfo;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 public class MavenServerUtil
 {
@@ -70,15 +74,10 @@ public class MavenServerUtil
 	@Nonnull
 	public static File findMavenBasedir(@Nonnull File workingDir)
 	{
-		File baseDir = workingDir;
-		File dir = workingDir;
-		while((dir = dir.getParentFile()) != null)
+		File baseDir = findMavenConfigDir(workingDir);
+		if(baseDir == null)
 		{
-			if(new File(dir, ".mvn").exists())
-			{
-				baseDir = dir;
-				break;
-			}
+			baseDir = workingDir;
 		}
 		try
 		{
@@ -90,6 +89,46 @@ public class MavenServerUtil
 		}
 	}
 
+	/**
+	 * @return the closest ancestor of the file that has a {@code .mvn} directory, null if there is none
+	 */
+	@Nullable
+	public static File findMavenConfigDir(@Nonnull File file)
+	{
+		File dir = file;
+		while((dir = dir.getParentFile()) != null)
+		{
+			if(new File(dir, ".mvn").exists())
+			{
+				return dir;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Splits the files by their {@link #findMavenConfigDir}, the files of one group can be built with one request.
+	 *
+	 * @return the indices of the files in each group, in the order of the files
+	 */
+	@Nonnull
+	public static List<List<Integer>> groupByMavenConfigDir(@Nonnull List<File> files)
+	{
+		Map<File, List<Integer>> groups = new LinkedHashMap<File, List<Integer>>();
+		for(int i = 0; i < files.size(); i++)
+		{
+			File configDir = findMavenConfigDir(files.get(i));
+			List<Integer> group = groups.get(configDir);
+			if(group == null)
+			{
+				group = new ArrayList<Integer>();
+				groups.put(configDir, group);
+			}
+			group.add(i);
+		}
+		return new ArrayList<List<Integer>>(groups.values());
+	}
+
 	private static boolean isMagicalProperty(String key)
 	{
 		return key.startsWith("=");
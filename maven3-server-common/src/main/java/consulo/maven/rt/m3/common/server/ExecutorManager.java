@@ -15,8 +15,11 @@
  */
 package consulo.maven.rt.m3.common.server;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class ExecutorManager {
   private static final ExecutorService myExecutor = new ThreadPoolExecutor(3, Integer.MAX_VALUE, 30 * 60L, TimeUnit.SECONDS,
@@ -31,4 +34,57 @@ public class ExecutorManager {
   public static Future<?> execute(Runnable r) {
     return myExecutor.submit(r);
   }
+
+  /**
+   * Runs the tasks on the calling thread and at most {@code parallelism - 1} threads of the shared pool.
+   *
+   * @return the results in the order of the tasks
+   */
+  public static <T> List<T> invokeAll(final List<? extends Callable<T>> tasks, int parallelism)
+    throws InterruptedException, ExecutionException {
+    final AtomicReferenceArray<T> results = new AtomicReferenceArray<T>(tasks.size());
+    final AtomicInteger next = new AtomicInteger();
+    Callable<Void> worker = new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        for (int i = next.getAndIncrement(); i < tasks.size(); i = next.getAndIncrement()) {
+          results.set(i, tasks.get(i).call());
+        }
+        return null;
+      }
+    };
+
+    List<Future<Void>> helpers = new ArrayList<Future<Void>>();
+    for (int i = 1; i < Math.min(parallelism, tasks.size()); i++) {
+      helpers.add(myExecutor.submit(worker));
+    }
+    ExecutionException failure = null;
+    try {
+      worker.call();
+    }
+    catch (Exception e) {
+      // the helpers stop taking tasks
+      next.set(tasks.size());
+      failure = new ExecutionException(e);
+    }
+    for (Future<Void> each : helpers) {
+      try {
+        each.get();
+      }
+      catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+
+    List<T> result = new ArrayList<T>(tasks.size());
+    for (int i = 0; i < tasks.size(); i++) {
+      result.add(results.get(i));
+    }
+    return result;
+  }
 }
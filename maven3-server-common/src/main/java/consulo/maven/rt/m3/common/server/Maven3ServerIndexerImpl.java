@@ -20,9 +20,17 @@ import consulo.maven.rt.server.common.model.MavenArtifactInfo;
 import consulo.maven.rt.server.common.model.MavenId;
 import consulo.maven.rt.server.common.server.*;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreRangeQuery;
+import org.apache.lucene.search.HitCollector;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
 import org.apache.maven.archetype.catalog.Archetype;
 import org.apache.maven.archetype.catalog.ArchetypeCatalog;
@@ -48,6 +56,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.rmi.RemoteException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implements MavenServerIndexer
 {
@@ -56,7 +66,17 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 	private final IndexUpdater myUpdater;
 	private final ArtifactContextProducer myArtifactContextProducer;
 
-	private final Map<Integer, IndexingContext> myIndices = new HashMap<Integer, IndexingContext>();
+	// indices of different repositories are created and updated concurrently
+	private final Map<Integer, IndexingContext> myIndices = new ConcurrentHashMap<Integer, IndexingContext>();
+
+	// wildcard queries expand to a clause per matching term, wider ones are rejected instead of being scored
+	private static final int MAX_CLAUSE_COUNT = 1 << 16;
+	private static final long SEARCH_EXPIRATION_MS = 60 * 1000;
+	private static final FieldSelector LAST_MODIFIED_SELECTOR = new MapFieldSelector(new String[]{ArtifactInfo.LAST_MODIFIED});
+	private static final FieldSelector MODIFIED_RECORD_SELECTOR =
+			new MapFieldSelector(new String[]{SEARCH_TERM_COORDINATES, ArtifactInfo.DELETED});
+	private final Map<Integer, SearchCursor> mySearches = new ConcurrentHashMap<Integer, SearchCursor>();
+	private final AtomicInteger mySearchIds = new AtomicInteger();
 
 	public Maven3ServerIndexerImpl(Maven3ServerEmbedder embedder) throws RemoteException
 	{
@@ -65,6 +85,7 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 		myIndexer = myEmbedder.getComponent(NexusIndexer.class);
 		myUpdater = myEmbedder.getComponent(IndexUpdater.class);
 		myArtifactContextProducer = myEmbedder.getComponent(ArtifactContextProducer.class);
+		BooleanQuery.setMaxClauseCount(MAX_CLAUSE_COUNT);
 
 		MavenServerUtil.registerShutdownTask(new Runnable()
 		{
@@ -268,26 +289,15 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 				}
 
 				Document doc = r.document(i);
-				String uinfo = doc.get(SEARCH_TERM_COORDINATES);
-				if(uinfo == null)
-				{
-					continue;
-				}
-
-				String[] uInfoParts = uinfo.split("\\|");
-				if(uInfoParts.length < 3)
+				String[] coordinates = parseCoordinates(doc.get(SEARCH_TERM_COORDINATES));
+				if(coordinates == null)
 				{
 					continue;
 				}
 
-				String groupId = uInfoParts[0];
-				String artifactId = uInfoParts[1];
-				String version = uInfoParts[2];
-
-				if(groupId == null || artifactId == null || version == null)
-				{
-					continue;
-				}
+				String groupId = coordinates[0];
+				String artifactId = coordinates[1];
+				String version = coordinates[2];
 
 				String packaging = doc.get(ArtifactInfo.PACKAGING);
 				String description = doc.get(ArtifactInfo.DESCRIPTION);
@@ -312,6 +322,327 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 		}
 	}
 
+	@Override
+	public void exportArtifacts(int indexId, @Nonnull File target, long modifiedSince) throws RemoteException, MavenServerIndexerException
+	{
+		try
+		{
+			IndexingContext index = getIndex(indexId);
+			IndexReader r = index.getIndexReader();
+			int total = r.numDocs();
+
+			// only the coordinates field is loaded, other stored fields are skipped
+			FieldSelector selector = new MapFieldSelector(new String[]{SEARCH_TERM_COORDINATES});
+
+			MavenIndexDump.Writer writer = new MavenIndexDump.Writer(target);
+			try
+			{
+				if(modifiedSince > 0)
+				{
+					exportVersions(findModifiedVersions(index, modifiedSince), true, writer);
+				}
+				else
+				{
+					for(int i = 0; i < total; i++)
+					{
+						if(!r.isDeleted(i))
+						{
+							String[] coordinates = parseCoordinates(r.document(i, selector).get(SEARCH_TERM_COORDINATES));
+							if(coordinates != null)
+							{
+								writer.add(coordinates[0], coordinates[1], coordinates[2]);
+							}
+						}
+					}
+				}
+			}
+			finally
+			{
+				writer.close();
+			}
+		}
+		catch(Exception e)
+		{
+			throw new MavenServerIndexerException(wrapException(e));
+		}
+	}
+
+	@Override
+	public void exportDeletedArtifacts(int indexId, @Nonnull File target, long deletedSince) throws RemoteException,
+			MavenServerIndexerException
+	{
+		try
+		{
+			MavenIndexDump.Writer writer = new MavenIndexDump.Writer(target);
+			try
+			{
+				exportVersions(findModifiedVersions(getIndex(indexId), deletedSince), false, writer);
+			}
+			finally
+			{
+				writer.close();
+			}
+		}
+		catch(Exception e)
+		{
+			throw new MavenServerIndexerException(wrapException(e));
+		}
+	}
+
+	private static void exportVersions(Map<String, Boolean> versions, boolean withRecords, MavenIndexDump.Writer writer) throws IOException
+	{
+		for(Map.Entry<String, Boolean> each : versions.entrySet())
+		{
+			if(each.getValue() == withRecords)
+			{
+				String[] coordinates = parseCoordinates(each.getKey());
+				writer.add(coordinates[0], coordinates[1], coordinates[2]);
+			}
+		}
+	}
+
+	/**
+	 * Finds the versions with a record added, replaced or deleted after the cutoff. Incremental updates keep a marker record
+	 * for every record they delete, with the modification time of the deletion.
+	 *
+	 * @return {@code groupId|artifactId|version} of the versions, mapped to whether the index still has records of them
+	 */
+	private static Map<String, Boolean> findModifiedVersions(IndexingContext index, long modifiedSince) throws IOException
+	{
+		IndexReader r = index.getIndexReader();
+		IndexSearcher searcher = index.getIndexSearcher();
+		BitSet modified = findModifiedRecords(index, modifiedSince);
+
+		Map<String, Boolean> result = new LinkedHashMap<String, Boolean>();
+		for(int i = modified.nextSetBit(0); i >= 0; i = modified.nextSetBit(i + 1))
+		{
+			Document doc = r.document(i, MODIFIED_RECORD_SELECTOR);
+			String version = getVersionKey(doc.get(SEARCH_TERM_COORDINATES));
+			if(version != null)
+			{
+				result.put(version, Boolean.TRUE);
+				continue;
+			}
+			version = getVersionKey(doc.get(ArtifactInfo.DELETED));
+			if(version != null && !result.containsKey(version))
+			{
+				// other records of the version may be left, or it may have been added again
+				result.put(version, hasRecords(searcher, version));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Queries the records by their modification time. Nexus versions that store the time without indexing it leave nothing to
+	 * query, the stored time of every record is read then.
+	 */
+	private static BitSet findModifiedRecords(IndexingContext index, long modifiedSince) throws IOException
+	{
+		final BitSet result = new BitSet();
+		IndexReader r = index.getIndexReader();
+		if(r.getFieldNames(IndexReader.FieldOption.INDEXED).contains(ArtifactInfo.LAST_MODIFIED))
+		{
+			// the times are decimal milliseconds of the same length, so the terms sort as the numbers do
+			Query query = new ConstantScoreRangeQuery(ArtifactInfo.LAST_MODIFIED, Long.toString(modifiedSince), null, false, false);
+			index.getIndexSearcher().search(query, new HitCollector()
+			{
+				@Override
+				public void collect(int doc, float score)
+				{
+					result.set(doc);
+				}
+			});
+			return result;
+		}
+
+		for(int i = 0; i < r.maxDoc(); i++)
+		{
+			if(!r.isDeleted(i) && getLastModified(r.document(i, LAST_MODIFIED_SELECTOR)) > modifiedSince)
+			{
+				result.set(i);
+			}
+		}
+		return result;
+	}
+
+	private static boolean hasRecords(IndexSearcher searcher, String version) throws IOException
+	{
+		return searcher.search(getRecordsQuery(version), null, 1).totalHits > 0;
+	}
+
+	private static Query getRecordsQuery(String version)
+	{
+		return new PrefixQuery(new Term(SEARCH_TERM_COORDINATES, version + '|'));
+	}
+
+	/**
+	 * @return {@code groupId|artifactId|version} of the record
+	 */
+	@Nullable
+	private static String getVersionKey(@Nullable String uinfo)
+	{
+		String[] coordinates = parseCoordinates(uinfo);
+		return coordinates == null ? null : coordinates[0] + '|' + coordinates[1] + '|' + coordinates[2];
+	}
+
+	@Override
+	public void exportClassNames(int indexId, @Nonnull File target, long modifiedSince) throws RemoteException, MavenServerIndexerException
+	{
+		try
+		{
+			IndexingContext index = getIndex(indexId);
+			IndexReader r = index.getIndexReader();
+			int total = r.numDocs();
+
+			FieldSelector selector = new MapFieldSelector(new String[]{ArtifactInfo.UINFO, ArtifactInfo.INFO, ArtifactInfo.NAMES});
+
+			MavenIndexDump.Writer writer = new MavenIndexDump.Writer(target);
+			try
+			{
+				if(modifiedSince > 0)
+				{
+					final BitSet records = new BitSet();
+					for(Map.Entry<String, Boolean> each : findModifiedVersions(index, modifiedSince).entrySet())
+					{
+						if(each.getValue())
+						{
+							// all records of the version, the unchanged ones too, so that its classes can be replaced as a whole
+							index.getIndexSearcher().search(getRecordsQuery(each.getKey()), new HitCollector()
+							{
+								@Override
+								public void collect(int doc, float score)
+								{
+									records.set(doc);
+								}
+							});
+						}
+					}
+					for(int i = records.nextSetBit(0); i >= 0; i = records.nextSetBit(i + 1))
+					{
+						exportClassNames(index, r.document(i, selector), writer);
+					}
+				}
+				else
+				{
+					for(int i = 0; i < total; i++)
+					{
+						if(!r.isDeleted(i))
+						{
+							exportClassNames(index, r.document(i, selector), writer);
+						}
+					}
+				}
+			}
+			finally
+			{
+				writer.close();
+			}
+		}
+		catch(Exception e)
+		{
+			throw new MavenServerIndexerException(wrapException(e));
+		}
+	}
+
+	private static void exportClassNames(IndexingContext index, Document doc, MavenIndexDump.Writer writer) throws IOException
+	{
+		String classNames = doc.get(ArtifactInfo.NAMES);
+		if(classNames == null)
+		{
+			return;
+		}
+		// the same artifact info the search reports
+		ArtifactInfo a = IndexUtils.constructArtifactInfo(doc, index);
+		if(a == null || a.groupId == null || a.artifactId == null || a.version == null)
+		{
+			return;
+		}
+		String artifact = a.artifactId + '|' + a.version + '|' + nullToEmpty(a.classifier) + '|' + nullToEmpty(a.packaging);
+
+		// one '/'-separated class name per line, with a leading '/'
+		int start = 0;
+		while(start < classNames.length())
+		{
+			int end = classNames.indexOf('\n', start);
+			if(end < 0)
+			{
+				end = classNames.length();
+			}
+			String className = classNames.substring(classNames.charAt(start) == '/' ? start + 1 : start, end).trim();
+			if(className.length() > 0)
+			{
+				writer.add(a.groupId, artifact, className.replace('/', '.'));
+			}
+			start = end + 1;
+		}
+	}
+
+	private static String nullToEmpty(@Nullable String s)
+	{
+		return s == null ? "" : s;
+	}
+
+	/**
+	 * @return modification time of the index record, {@link Long#MAX_VALUE} if unknown so that the record is never skipped
+	 */
+	private static long getLastModified(Document doc)
+	{
+		String value = doc.get(ArtifactInfo.LAST_MODIFIED);
+		if(value == null)
+		{
+			return Long.MAX_VALUE;
+		}
+		try
+		{
+			return Long.parseLong(value);
+		}
+		catch(NumberFormatException e)
+		{
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Splits {@code groupId|artifactId|version|...} without a regex.
+	 *
+	 * @return groupId, artifactId and version or null if some of them is missing
+	 */
+	@Nullable
+	private static String[] parseCoordinates(@Nullable String uinfo)
+	{
+		if(uinfo == null)
+		{
+			return null;
+		}
+
+		int groupEnd = uinfo.indexOf('|');
+		if(groupEnd <= 0)
+		{
+			return null;
+		}
+		int artifactEnd = uinfo.indexOf('|', groupEnd + 1);
+		if(artifactEnd < 0 || artifactEnd == groupEnd + 1)
+		{
+			return null;
+		}
+		int versionEnd = uinfo.indexOf('|', artifactEnd + 1);
+		if(versionEnd < 0)
+		{
+			versionEnd = uinfo.length();
+		}
+		if(versionEnd == artifactEnd + 1)
+		{
+			return null;
+		}
+
+		return new String[]{
+				uinfo.substring(0, groupEnd),
+				uinfo.substring(groupEnd + 1, artifactEnd),
+				uinfo.substring(artifactEnd + 1, versionEnd)
+		};
+	}
+
 	@Override
 	public MavenId addArtifact(int indexId, File artifactFile) throws RemoteException, MavenServerIndexerException
 	{
@@ -348,7 +679,8 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 
 
 	@Override
-	public Set<MavenArtifactInfo> search(int indexId, Query query, int maxResult) throws RemoteException, MavenServerIndexerException
+	public MavenIndexSearchPage search(int indexId, Query query, int maxResult, int pageSize, boolean withClassNames)
+			throws RemoteException, MavenServerIndexerException
 	{
 		try
 		{
@@ -357,7 +689,6 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 			TopDocs docs = null;
 			try
 			{
-				BooleanQuery.setMaxClauseCount(Integer.MAX_VALUE);
 				docs = index.getIndexSearcher().search(query, null, maxResult);
 			}
 			catch(BooleanQuery.TooManyClauses ignore)
@@ -367,25 +698,33 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 
 			if(docs == null || docs.scoreDocs.length == 0)
 			{
-				return Collections.emptySet();
+				return new MavenIndexSearchPage(MavenIndexSearchPage.NO_MORE_PAGES, Collections.<MavenArtifactInfo>emptyList());
 			}
 
-			Set<MavenArtifactInfo> result = new HashSet<MavenArtifactInfo>();
+			String[] fields = withClassNames
+					? new String[]{ArtifactInfo.UINFO, ArtifactInfo.INFO, ArtifactInfo.NAMES}
+					: new String[]{ArtifactInfo.UINFO, ArtifactInfo.INFO};
+			FieldSelector selector = new MapFieldSelector(fields);
+			return nextPage(new SearchCursor(index, index.getIndexReader(), docs.scoreDocs, selector, Math.max(1, pageSize)));
+		}
+		catch(Exception e)
+		{
+			throw new MavenServerIndexerException(wrapException(e));
+		}
+	}
 
-			for(int i = 0; i < docs.scoreDocs.length; i++)
-			{
-				int docIndex = docs.scoreDocs[i].doc;
-				Document doc = index.getIndexReader().document(docIndex);
-				ArtifactInfo a = IndexUtils.constructArtifactInfo(doc, index);
-				if(a == null)
-				{
-					continue;
-				}
+	@Override
+	public MavenIndexSearchPage nextSearchPage(int searchId) throws RemoteException, MavenServerIndexerException
+	{
+		SearchCursor cursor = mySearches.remove(searchId);
+		if(cursor == null)
+		{
+			throw new MavenServerIndexerException("Search not found, it has been canceled or has expired: " + searchId);
+		}
 
-				a.repository = getRepositoryPathOrUrl(index);
-				result.add(MavenModelConverter.convertArtifactInfo(a));
-			}
-			return result;
+		try
+		{
+			return nextPage(cursor);
 		}
 		catch(Exception e)
 		{
@@ -393,6 +732,79 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 		}
 	}
 
+	@Override
+	public void cancelSearch(int searchId) throws RemoteException
+	{
+		mySearches.remove(searchId);
+	}
+
+	private MavenIndexSearchPage nextPage(SearchCursor cursor) throws IOException
+	{
+		int end = Math.min(cursor.position + cursor.pageSize, cursor.docs.length);
+
+		List<MavenArtifactInfo> result = new ArrayList<MavenArtifactInfo>(end - cursor.position);
+		for(; cursor.position < end; cursor.position++)
+		{
+			Document doc = cursor.reader.document(cursor.docs[cursor.position].doc, cursor.selector);
+			ArtifactInfo a = IndexUtils.constructArtifactInfo(doc, cursor.index);
+			if(a == null)
+			{
+				continue;
+			}
+
+			a.repository = getRepositoryPathOrUrl(cursor.index);
+			result.add(MavenModelConverter.convertArtifactInfo(a));
+		}
+
+		if(cursor.position == cursor.docs.length)
+		{
+			return new MavenIndexSearchPage(MavenIndexSearchPage.NO_MORE_PAGES, result);
+		}
+
+		expireSearches();
+		int searchId = mySearchIds.incrementAndGet();
+		cursor.lastAccess = System.currentTimeMillis();
+		mySearches.put(searchId, cursor);
+		return new MavenIndexSearchPage(searchId, result);
+	}
+
+	/**
+	 * Drops the cursors of searches the IDE has abandoned without canceling them.
+	 */
+	private void expireSearches()
+	{
+		long expired = System.currentTimeMillis() - SEARCH_EXPIRATION_MS;
+		Iterator<SearchCursor> it = mySearches.values().iterator();
+		while(it.hasNext())
+		{
+			if(it.next().lastAccess < expired)
+			{
+				it.remove();
+			}
+		}
+	}
+
+	private static class SearchCursor
+	{
+		private final IndexingContext index;
+		// doc ids are only valid for the reader the search ran against, an index update fails the remaining pages
+		private final IndexReader reader;
+		private final ScoreDoc[] docs;
+		private final FieldSelector selector;
+		private final int pageSize;
+		private int position;
+		private volatile long lastAccess;
+
+		private SearchCursor(IndexingContext index, IndexReader reader, ScoreDoc[] docs, FieldSelector selector, int pageSize)
+		{
+			this.index = index;
+			this.reader = reader;
+			this.docs = docs;
+			this.selector = selector;
+			this.pageSize = pageSize;
+		}
+	}
+
 	@Override
 	public Collection<MavenArchetype> getArchetypes() throws RemoteException
 	{
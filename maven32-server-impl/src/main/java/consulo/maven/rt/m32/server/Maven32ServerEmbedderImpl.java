@@ -70,6 +70,7 @@ import org.codehaus.plexus.context.DefaultContext;
 import org.codehaus.plexus.logging.BaseLoggerManager;
 import org.codehaus.plexus.logging.Logger;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.InitializationException;
+import org.eclipse.aether.DefaultRepositoryCache;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.graph.Dependency;
@@ -89,7 +90,7 @@ import java.lang.reflect.Method;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.Callable;
 
 /**
  * Overridden maven components:
@@ -126,8 +127,11 @@ public class Maven32ServerEmbedderImpl extends Maven3ServerEmbedder {
 
     private boolean myAlwaysUpdateSnapshots;
 
+    private final int myResolveParallelism;
+
     public Maven32ServerEmbedderImpl(MavenServerSettings settings) throws RemoteException {
         super(settings);
+        myResolveParallelism = Math.max(1, settings.getResolveParallelism());
 
         File mavenHome = settings.getMavenHome();
         if (mavenHome != null) {
@@ -583,6 +587,33 @@ public class Maven32ServerEmbedderImpl extends Maven3ServerEmbedder {
         return createExecutionResult(file, result, listener.getRootNode());
     }
 
+    @Nonnull
+    @Override
+    public List<MavenServerExecutionResult> resolveProjects(@Nonnull List<File> files,
+                                                            @Nonnull Collection<String> activeProfiles,
+                                                            @Nonnull Collection<String> inactiveProfiles)
+        throws RemoteException, MavenServerProcessCanceledException {
+        if (files.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<DependencyTreeResolutionListener> treeListeners = new ArrayList<DependencyTreeResolutionListener>(files.size());
+        List<List<ResolutionListener>> listeners = new ArrayList<List<ResolutionListener>>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            DependencyTreeResolutionListener listener = new DependencyTreeResolutionListener(myConsoleWrapper);
+            treeListeners.add(listener);
+            listeners.add(Arrays.<ResolutionListener>asList(listener));
+        }
+
+        List<MavenExecutionResult> results =
+            doResolveProjects(files, new ArrayList<String>(activeProfiles), new ArrayList<String>(inactiveProfiles), listeners);
+        List<MavenServerExecutionResult> result = new ArrayList<MavenServerExecutionResult>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            result.add(createExecutionResult(files.get(i), results.get(i), treeListeners.get(i).getRootNode()));
+        }
+        return result;
+    }
+
     @Nullable
     @Override
     public String evaluateEffectivePom(@Nonnull File file, @Nonnull List<String> activeProfiles, @Nonnull List<String> inactiveProfiles) throws RemoteException, MavenServerProcessCanceledException {
@@ -628,98 +659,207 @@ public class Maven32ServerEmbedderImpl extends Maven3ServerEmbedder {
                                                  @Nonnull final List<String> activeProfiles,
                                                  @Nonnull final List<String> inactiveProfiles,
                                                  final List<ResolutionListener> listeners) throws RemoteException {
-        final MavenExecutionRequest request = createRequest(file, activeProfiles, inactiveProfiles, Collections.<String>emptyList());
+        return doResolveProjects(Collections.singletonList(file), activeProfiles, inactiveProfiles,
+            Collections.singletonList(listeners)).get(0);
+    }
+
+    /**
+     * Builds the projects with one {@link ProjectBuilder} call, so that they share the model cache of the request,
+     * and resolves their dependencies in the same session. If one of the projects cannot be built, they are built
+     * one by one so that only its result reports the problem. Projects under different {@code .mvn} directories are
+     * resolved as separate batches.
+     *
+     * @param listeners the resolution listeners of each project
+     * @return the results in the order of the files
+     */
+    @Nonnull
+    public List<MavenExecutionResult> doResolveProjects(@Nonnull final List<File> files,
+                                                        @Nonnull final List<String> activeProfiles,
+                                                        @Nonnull final List<String> inactiveProfiles,
+                                                        @Nonnull final List<List<ResolutionListener>> listeners) throws RemoteException {
+        // the request is set up for the .mvn directory of its first file, projects under another one need their own request
+        List<List<Integer>> groups = MavenServerUtil.groupByMavenConfigDir(files);
+        if (groups.size() > 1) {
+            MavenExecutionResult[] results = new MavenExecutionResult[files.size()];
+            for (List<Integer> group : groups) {
+                List<File> groupFiles = new ArrayList<File>(group.size());
+                List<List<ResolutionListener>> groupListeners = new ArrayList<List<ResolutionListener>>(group.size());
+                for (int each : group) {
+                    groupFiles.add(files.get(each));
+                    groupListeners.add(listeners.get(each));
+                }
+                List<MavenExecutionResult> groupResults = doResolveProjects(groupFiles, activeProfiles, inactiveProfiles, groupListeners);
+                for (int i = 0; i < group.size(); i++) {
+                    results[group.get(i)] = groupResults.get(i);
+                }
+            }
+            return Arrays.asList(results);
+        }
+
+        final MavenExecutionRequest request = createRequest(files.get(0), activeProfiles, inactiveProfiles, Collections.<String>emptyList());
 
         request.setUpdateSnapshots(myAlwaysUpdateSnapshots);
 
-        final AtomicReference<MavenExecutionResult> ref = new AtomicReference<MavenExecutionResult>();
+        final List<MavenExecutionResult> results = new ArrayList<MavenExecutionResult>(files.size());
 
         executeWithMavenSession(request, new Runnable() {
             @Override
             public void run() {
-                try {
-                    // copied from DefaultMavenProjectBuilder.buildWithDependencies
-                    ProjectBuilder builder = getComponent(ProjectBuilder.class);
-
-                    CustomMaven3ModelInterpolator2 modelInterpolator = (CustomMaven3ModelInterpolator2) getComponent(ModelInterpolator.class);
-
-                    String savedLocalRepository = modelInterpolator.getLocalRepository();
-                    modelInterpolator.setLocalRepository(request.getLocalRepositoryPath().getAbsolutePath());
-                    List<ProjectBuildingResult> results;
-
+                List<ProjectBuildingResult> buildingResults = null;
+                if (files.size() > 1) {
                     try {
-                        // Don't use build(File projectFile, ProjectBuildingRequest request) , because it don't use cache !!!!!!!! (see http://devnet.jetbrains.com/message/5500218)
-                        results = builder.build(Collections.singletonList(new File(file.getPath())), false, request.getProjectBuildingRequest());
+                        buildingResults = buildProjects(files, request);
                     }
-                    finally {
-                        modelInterpolator.setLocalRepository(savedLocalRepository);
+                    catch (Exception e) {
+                        // built one by one below, so that each result reports its own problems
+                        Maven3ServerGlobals.getLogger().warn(new RuntimeException(
+                            "Cannot build " + files.size() + " projects at once, the first is " + files.get(0), e));
                     }
+                    if (buildingResults != null && buildingResults.size() != files.size()) {
+                        buildingResults = null;
+                    }
+                }
 
-                    ProjectBuildingResult buildingResult = results.get(0);
-
-                    MavenProject project = buildingResult.getProject();
-
-                    RepositorySystemSession repositorySession = getComponent(LegacySupport.class).getRepositorySession();
-                    if (repositorySession instanceof DefaultRepositorySystemSession) {
-                        ((DefaultRepositorySystemSession) repositorySession).setTransferListener(new TransferListenerAdapter(myCurrentIndicator));
+                final RepositorySystemSession repositorySession = getComponent(LegacySupport.class).getRepositorySession();
+                if (repositorySession instanceof DefaultRepositorySystemSession) {
+                    ((DefaultRepositorySystemSession) repositorySession).setTransferListener(new TransferListenerAdapter(myCurrentIndicator));
 
-                        if (myWorkspaceMap != null) {
-                            ((DefaultRepositorySystemSession) repositorySession).setWorkspaceReader(new Maven32WorkspaceReader(myWorkspaceMap));
-                        }
+                    if (myWorkspaceMap != null) {
+                        ((DefaultRepositorySystemSession) repositorySession).setWorkspaceReader(new Maven32WorkspaceReader(myWorkspaceMap));
                     }
-
-                    List<Exception> exceptions = new ArrayList<Exception>();
-                    loadExtensions(project, exceptions);
-
-                    //Artifact projectArtifact = project.getArtifact();
-                    //Map managedVersions = project.getManagedVersionMap();
-                    //ArtifactMetadataSource metadataSource = getComponent(ArtifactMetadataSource.class);
-                    project.setDependencyArtifacts(project.createArtifacts(getComponent(ArtifactFactory.class), null, null));
-                    //
-
-                    if (USE_MVN2_COMPATIBLE_DEPENDENCY_RESOLVING) {
-                        ArtifactResolutionRequest resolutionRequest = new ArtifactResolutionRequest();
-                        resolutionRequest.setArtifactDependencies(project.getDependencyArtifacts());
-                        resolutionRequest.setArtifact(project.getArtifact());
-                        resolutionRequest.setManagedVersionMap(project.getManagedVersionMap());
-                        resolutionRequest.setLocalRepository(myLocalRepository);
-                        resolutionRequest.setRemoteRepositories(project.getRemoteArtifactRepositories());
-                        resolutionRequest.setListeners(listeners);
-
-                        resolutionRequest.setResolveRoot(false);
-                        resolutionRequest.setResolveTransitively(true);
-
-                        ArtifactResolver resolver = getComponent(ArtifactResolver.class);
-                        ArtifactResolutionResult result = resolver.resolve(resolutionRequest);
-
-                        project.setArtifacts(result.getArtifacts());
-                        // end copied from DefaultMavenProjectBuilder.buildWithDependencies
-                        ref.set(new MavenExecutionResult(project, exceptions));
+                    // modules resolved at the same time share the descriptors they read through the cache
+                    if (repositorySession.getCache() == null) {
+                        ((DefaultRepositorySystemSession) repositorySession).setCache(new DefaultRepositoryCache());
                     }
-                    else {
-                        final DependencyResolutionResult dependencyResolutionResult = resolveDependencies(project, repositorySession);
-                        final List<Dependency> dependencies = dependencyResolutionResult.getDependencies();
-
-                        Set<Artifact> artifacts = new LinkedHashSet<Artifact>(dependencies.size());
-                        for (Dependency dependency : dependencies) {
-                            final Artifact artifact = RepositoryUtils.toArtifact(dependency.getArtifact());
-                            artifact.setScope(dependency.getScope());
-                            artifact.setOptional(dependency.isOptional());
-                            artifacts.add(artifact);
-                            resolveAsModule(artifact);
-                        }
+                }
 
-                        project.setArtifacts(artifacts);
-                        ref.set(new MavenExecutionResult(project, dependencyResolutionResult, exceptions));
+                // extensions are loaded one project at a time, they change the session
+                List<Callable<MavenExecutionResult>> tasks = new ArrayList<Callable<MavenExecutionResult>>(files.size());
+                for (int i = 0; i < files.size(); i++) {
+                    final List<ResolutionListener> projectListeners = listeners.get(i);
+                    try {
+                        ProjectBuildingResult buildingResult = buildingResults != null
+                            ? buildingResults.get(i)
+                            : buildProjects(Collections.singletonList(files.get(i)), request).get(0);
+                        final MavenProject project = buildingResult.getProject();
+                        final List<Exception> exceptions = loadProject(project);
+                        tasks.add(new Callable<MavenExecutionResult>() {
+                            @Override
+                            public MavenExecutionResult call() {
+                                try {
+                                    return resolveProject(project, exceptions, repositorySession, projectListeners);
+                                }
+                                catch (Exception e) {
+                                    return handleException(e);
+                                }
+                            }
+                        });
+                    }
+                    catch (final Exception e) {
+                        tasks.add(new Callable<MavenExecutionResult>() {
+                            @Override
+                            public MavenExecutionResult call() {
+                                return handleException(e);
+                            }
+                        });
                     }
                 }
+
+                // the maven 2 compatible resolver is not known to be thread safe
+                int parallelism = USE_MVN2_COMPATIBLE_DEPENDENCY_RESOLVING ? 1 : myResolveParallelism;
+                try {
+                    results.addAll(ExecutorManager.invokeAll(tasks, parallelism));
+                }
                 catch (Exception e) {
-                    ref.set(handleException(e));
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 0; i < files.size(); i++) {
+                        results.add(handleException(e));
+                    }
                 }
             }
         });
 
-        return ref.get();
+        return results;
+    }
+
+    // copied from DefaultMavenProjectBuilder.buildWithDependencies
+    private List<ProjectBuildingResult> buildProjects(List<File> files, MavenExecutionRequest request) throws ProjectBuildingException {
+        ProjectBuilder builder = getComponent(ProjectBuilder.class);
+
+        CustomMaven3ModelInterpolator2 modelInterpolator = (CustomMaven3ModelInterpolator2) getComponent(ModelInterpolator.class);
+
+        String savedLocalRepository = modelInterpolator.getLocalRepository();
+        modelInterpolator.setLocalRepository(request.getLocalRepositoryPath().getAbsolutePath());
+
+        List<File> pomFiles = new ArrayList<File>(files.size());
+        for (File each : files) {
+            pomFiles.add(new File(each.getPath()));
+        }
+        try {
+            // Don't use build(File projectFile, ProjectBuildingRequest request) , because it don't use cache !!!!!!!! (see http://devnet.jetbrains.com/message/5500218)
+            return builder.build(pomFiles, false, request.getProjectBuildingRequest());
+        }
+        finally {
+            modelInterpolator.setLocalRepository(savedLocalRepository);
+        }
+    }
+
+    private List<Exception> loadProject(MavenProject project) throws Exception {
+        List<Exception> exceptions = new ArrayList<Exception>();
+        loadExtensions(project, exceptions);
+
+        //Artifact projectArtifact = project.getArtifact();
+        //Map managedVersions = project.getManagedVersionMap();
+        //ArtifactMetadataSource metadataSource = getComponent(ArtifactMetadataSource.class);
+        project.setDependencyArtifacts(project.createArtifacts(getComponent(ArtifactFactory.class), null, null));
+        //
+        return exceptions;
+    }
+
+    /**
+     * May run for several projects at the same time, see {@link MavenServerSettings#getResolveParallelism()}.
+     */
+    private MavenExecutionResult resolveProject(MavenProject project,
+                                                List<Exception> exceptions,
+                                                RepositorySystemSession repositorySession,
+                                                List<ResolutionListener> listeners) throws Exception {
+        if (USE_MVN2_COMPATIBLE_DEPENDENCY_RESOLVING) {
+            ArtifactResolutionRequest resolutionRequest = new ArtifactResolutionRequest();
+            resolutionRequest.setArtifactDependencies(project.getDependencyArtifacts());
+            resolutionRequest.setArtifact(project.getArtifact());
+            resolutionRequest.setManagedVersionMap(project.getManagedVersionMap());
+            resolutionRequest.setLocalRepository(myLocalRepository);
+            resolutionRequest.setRemoteRepositories(project.getRemoteArtifactRepositories());
+            resolutionRequest.setListeners(listeners);
+
+            resolutionRequest.setResolveRoot(false);
+            resolutionRequest.setResolveTransitively(true);
+
+            ArtifactResolver resolver = getComponent(ArtifactResolver.class);
+            ArtifactResolutionResult result = resolver.resolve(resolutionRequest);
+
+            project.setArtifacts(result.getArtifacts());
+            // end copied from DefaultMavenProjectBuilder.buildWithDependencies
+            return new MavenExecutionResult(project, exceptions);
+        }
+        else {
+            final DependencyResolutionResult dependencyResolutionResult = resolveDependencies(project, repositorySession);
+            final List<Dependency> dependencies = dependencyResolutionResult.getDependencies();
+
+            Set<Artifact> artifacts = new LinkedHashSet<Artifact>(dependencies.size());
+            for (Dependency dependency : dependencies) {
+                final Artifact artifact = RepositoryUtils.toArtifact(dependency.getArtifact());
+                artifact.setScope(dependency.getScope());
+                artifact.setOptional(dependency.isOptional());
+                artifacts.add(artifact);
+                resolveAsModule(artifact);
+            }
+
+            project.setArtifacts(artifacts);
+            return new MavenExecutionResult(project, dependencyResolutionResult, exceptions);
+        }
     }
 
     private boolean resolveAsModule(Artifact a) {
@@ -26,6 +26,7 @@ import java.io.File;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.Collection;
+import java.util.List;
 
 public class Maven32ServerImpl extends MavenRemoteObject implements MavenServer
 {
@@ -38,6 +39,9 @@ public class Maven32ServerImpl extends MavenRemoteObject implements MavenServer
     }
   }
 
+  public void ping() {
+  }
+
   public MavenServerEmbedder createEmbedder(MavenServerSettings settings) throws RemoteException {
     try {
       Maven32ServerEmbedderImpl result = new Maven32ServerEmbedderImpl(settings);
@@ -95,6 +99,34 @@ public class Maven32ServerImpl extends MavenRemoteObject implements MavenServer
     }
   }
 
+  public List<ProfileApplicationResult> buildEffectiveModels(List<MavenEffectiveModelRequest> requests,
+                                                             MavenExplicitProfiles explicitProfiles) {
+    try {
+      return new MavenEffectiveModelBuilder() {
+        @Override
+        protected MavenModel interpolateAndAlignModel(MavenModel model, File basedir) throws RemoteException {
+          return Maven32ServerEmbedderImpl.interpolateAndAlignModel(model, basedir);
+        }
+
+        @Override
+        protected MavenModel assembleInheritance(MavenModel model, MavenModel parentModel) throws RemoteException {
+          return Maven32ServerEmbedderImpl.assembleInheritance(model, parentModel);
+        }
+
+        @Override
+        protected ProfileApplicationResult applyProfiles(MavenModel model,
+                                                         File basedir,
+                                                         MavenExplicitProfiles explicitProfiles,
+                                                         Collection<String> alwaysOnProfiles) throws RemoteException {
+          return Maven32ServerEmbedderImpl.applyProfiles(model, basedir, explicitProfiles, alwaysOnProfiles);
+        }
+      }.build(requests, explicitProfiles);
+    }
+    catch (Exception e) {
+      throw rethrowException(e);
+    }
+  }
+
   @Override
   public synchronized void unreferenced() {
     System.exit(0);
@@ -245,26 +245,34 @@ public class Maven40ServerEmbedderImpl extends MavenRemoteObject implements Mave
                                                     Collection<String> activeProfiles,
                                                     Collection<String> inactiveProfiles)
     throws RemoteException, MavenServerProcessCanceledException {
+    return resolveProjects(Collections.singletonList(file), activeProfiles, inactiveProfiles).get(0);
+  }
+
+  @Override
+  public List<MavenServerExecutionResult> resolveProjects(List<File> files,
+                                                          Collection<String> activeProfiles,
+                                                          Collection<String> inactiveProfiles)
+    throws RemoteException, MavenServerProcessCanceledException {
+    if (files.isEmpty()) {
+      return Collections.emptyList();
+    }
     MavenWorkspaceMap workspaceMap = myWorkspaceMap != null ? myWorkspaceMap : new MavenWorkspaceMap();
     Maven40ProjectResolver projectResolver = new Maven40ProjectResolver(
       this,
       myAlwaysUpdateSnapshots,
       myImporterSpy,
-      Collections.singletonList(file),
+      files,
       new ArrayList<>(activeProfiles),
       new ArrayList<>(inactiveProfiles),
       workspaceMap,
       getLocalRepositoryFile(),
-      new Properties()
+      new Properties(),
+      mySettings.getResolveParallelism()
     );
 
     try {
       customizeComponents(workspaceMap);
-      ArrayList<MavenServerExecutionResult> results = projectResolver.resolveProjects();
-      if (results.isEmpty()) {
-        return new MavenServerExecutionResult(null, Collections.emptyList(), Collections.emptySet());
-      }
-      return results.get(0);
+      return projectResolver.resolveProjects();
     }
     finally {
       resetComponents();
@@ -27,6 +27,10 @@ public class Maven40ServerImpl extends MavenRemoteObject implements MavenServer
     // no globals for Maven 4
   }
 
+  @Override
+  public void ping() {
+  }
+
   @Override
   public MavenServerEmbedder createEmbedder(MavenServerSettings settings) throws RemoteException {
     try {
@@ -168,6 +172,30 @@ public class Maven40ServerImpl extends MavenRemoteObject implements MavenServer
     }
   }
 
+  @Override
+  public List<ProfileApplicationResult> buildEffectiveModels(List<MavenEffectiveModelRequest> requests,
+                                                             MavenExplicitProfiles explicitProfiles) throws RemoteException {
+    return new MavenEffectiveModelBuilder() {
+      @Override
+      protected MavenModel interpolateAndAlignModel(MavenModel model, File basedir) throws RemoteException {
+        return Maven40ServerImpl.this.interpolateAndAlignModel(model, basedir);
+      }
+
+      @Override
+      protected MavenModel assembleInheritance(MavenModel model, MavenModel parentModel) throws RemoteException {
+        return Maven40ServerImpl.this.assembleInheritance(model, parentModel);
+      }
+
+      @Override
+      protected ProfileApplicationResult applyProfiles(MavenModel model,
+                                                       File basedir,
+                                                       MavenExplicitProfiles explicitProfiles,
+                                                       Collection<String> alwaysOnProfiles) throws RemoteException {
+        return Maven40ServerImpl.this.applyProfiles(model, basedir, explicitProfiles, alwaysOnProfiles);
+      }
+    }.build(requests, explicitProfiles);
+  }
+
   private static Collection<String> collectProfilesIds(List<Profile> profiles) {
     Set<String> result = new HashSet<>();
     for (Profile each : profiles) {
@@ -3,6 +3,8 @@ package consulo.maven.rt.m40.server;
 import consulo.maven.rt.server.common.model.MavenArchetype;
 import consulo.maven.rt.server.common.model.MavenArtifactInfo;
 import consulo.maven.rt.server.common.model.MavenId;
+import consulo.maven.rt.server.common.server.MavenIndexDump;
+import consulo.maven.rt.server.common.server.MavenIndexSearchPage;
 import consulo.maven.rt.server.common.server.MavenRemoteObject;
 import consulo.maven.rt.server.common.server.MavenServerIndexer;
 import consulo.maven.rt.server.common.server.MavenServerIndexerException;
@@ -13,10 +15,10 @@ import org.apache.lucene.search.Query;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
 import java.rmi.RemoteException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Set;
 
 /**
  * No-op indexer for Maven 4. The Nexus-based local repository indexer is not available in Maven 4.
@@ -48,6 +50,26 @@ class Maven40ServerIndexer extends MavenRemoteObject implements MavenServerIndex
     throws RemoteException, MavenServerIndexerException {
   }
 
+  @Override
+  public void exportArtifacts(int indexId, File target, long modifiedSince) throws RemoteException, MavenServerIndexerException {
+    try {
+      new MavenIndexDump.Writer(target).close();
+    }
+    catch (IOException e) {
+      throw new MavenServerIndexerException(e);
+    }
+  }
+
+  @Override
+  public void exportDeletedArtifacts(int indexId, File target, long deletedSince) throws RemoteException, MavenServerIndexerException {
+    exportArtifacts(indexId, target, 0);
+  }
+
+  @Override
+  public void exportClassNames(int indexId, File target, long modifiedSince) throws RemoteException, MavenServerIndexerException {
+    exportArtifacts(indexId, target, 0);
+  }
+
   @Override
   public @Nullable MavenId addArtifact(int indexId, File artifactFile)
     throws RemoteException, MavenServerIndexerException {
@@ -55,9 +77,18 @@ class Maven40ServerIndexer extends MavenRemoteObject implements MavenServerIndex
   }
 
   @Override
-  public Set<MavenArtifactInfo> search(int indexId, Query query, int maxResult)
+  public MavenIndexSearchPage search(int indexId, Query query, int maxResult, int pageSize, boolean withClassNames)
     throws RemoteException, MavenServerIndexerException {
-    return Collections.emptySet();
+    return new MavenIndexSearchPage(MavenIndexSearchPage.NO_MORE_PAGES, Collections.<MavenArtifactInfo>emptyList());
+  }
+
+  @Override
+  public MavenIndexSearchPage nextSearchPage(int searchId) throws RemoteException, MavenServerIndexerException {
+    throw new MavenServerIndexerException("Search not found: " + searchId);
+  }
+
+  @Override
+  public void cancelSearch(int searchId) throws RemoteException {
   }
 
   @Override
@@ -23,10 +23,25 @@ import org.eclipse.aether.repository.WorkspaceReader;
 import org.eclipse.aether.util.graph.transformer.ConflictResolver;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
 public class Maven40ProjectResolver {
+  private static final ExecutorService ourResolveExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+    private final AtomicInteger myCount = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "Maven Resolver " + myCount.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
   private final Maven40ServerEmbedderImpl myEmbedder;
   private final boolean myUpdateSnapshots;
   private final Maven40ImporterSpy myImporterSpy;
@@ -36,6 +51,7 @@ public class Maven40ProjectResolver {
   private final MavenWorkspaceMap myWorkspaceMap;
   private final File myLocalRepositoryFile;
   private final Properties myUserProperties;
+  private final int myResolveParallelism;
 
   public Maven40ProjectResolver(Maven40ServerEmbedderImpl embedder,
                                  boolean updateSnapshots,
@@ -45,7 +61,8 @@ public class Maven40ProjectResolver {
                                  List<String> inactiveProfiles,
                                  MavenWorkspaceMap workspaceMap,
                                  File localRepositoryFile,
-                                 Properties userProperties) {
+                                 Properties userProperties,
+                                 int resolveParallelism) {
     myEmbedder = embedder;
     myUpdateSnapshots = updateSnapshots;
     myImporterSpy = importerSpy;
@@ -55,6 +72,7 @@ public class Maven40ProjectResolver {
     myWorkspaceMap = workspaceMap;
     myLocalRepositoryFile = localRepositoryFile;
     myUserProperties = userProperties;
+    myResolveParallelism = Math.max(1, resolveParallelism);
   }
 
   public ArrayList<MavenServerExecutionResult> resolveProjects() {
@@ -102,25 +120,89 @@ public class Maven40ProjectResolver {
 
       fillSessionCache(session, session.getRepositorySession(), buildingResults);
 
+      // the reactor may contain modules that were not asked for, only the requested files are resolved
+      Map<File, ProjectBuildingResult> resultsByFile = new HashMap<>();
       for (ProjectBuildingResult buildingResult : buildingResults) {
+        if (buildingResult.getPomFile() != null) {
+          resultsByFile.put(normalize(buildingResult.getPomFile()), buildingResult);
+        }
+      }
+
+      List<Supplier<MavenServerExecutionResult>> tasks = new ArrayList<>(files.size());
+      for (File file : files) {
+        ProjectBuildingResult buildingResult = resultsByFile.get(normalize(file));
+        if (buildingResult == null) {
+          tasks.add(() -> createExecutionResult(file, Collections.emptyList()));
+          continue;
+        }
         MavenProject project = buildingResult.getProject();
-        File pomFile = buildingResult.getPomFile();
         List<ModelProblem> modelProblems = buildingResult.getProblems();
 
-        if (project == null || pomFile == null) {
-          executionResults.add(createExecutionResult(pomFile, modelProblems));
+        if (project == null) {
+          tasks.add(() -> createExecutionResult(file, modelProblems));
           continue;
         }
 
-        executionResults.add(resolveBuildingResult(session.getRepositorySession(), project, modelProblems, exceptions));
+        tasks.add(() -> resolveBuildingResult(session.getRepositorySession(), project, modelProblems, exceptions));
       }
+      executionResults.addAll(runAll(tasks));
     }
     catch (Exception e) {
-      executionResults.add(createExecutionResult(e));
+      executionResults.clear();
+      for (File ignored : files) {
+        executionResults.add(createExecutionResult(e));
+      }
     }
     return executionResults;
   }
 
+  /**
+   * Runs the tasks on the calling thread and at most {@code myResolveParallelism - 1} threads of the shared pool,
+   * so the dependency graphs of independent modules are collected at the same time.
+   */
+  private List<MavenServerExecutionResult> runAll(List<Supplier<MavenServerExecutionResult>> tasks) {
+    AtomicReferenceArray<MavenServerExecutionResult> results = new AtomicReferenceArray<>(tasks.size());
+    AtomicInteger next = new AtomicInteger();
+    Runnable worker = () -> {
+      for (int i = next.getAndIncrement(); i < tasks.size(); i = next.getAndIncrement()) {
+        results.set(i, tasks.get(i).get());
+      }
+    };
+
+    List<Future<?>> helpers = new ArrayList<>();
+    for (int i = 1; i < Math.min(myResolveParallelism, tasks.size()); i++) {
+      helpers.add(ourResolveExecutor.submit(worker));
+    }
+    worker.run();
+    for (Future<?> each : helpers) {
+      try {
+        each.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+      catch (ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      }
+    }
+
+    List<MavenServerExecutionResult> result = new ArrayList<>(tasks.size());
+    for (int i = 0; i < tasks.size(); i++) {
+      result.add(results.get(i));
+    }
+    return result;
+  }
+
+  private static File normalize(File file) {
+    try {
+      return file.getCanonicalFile();
+    }
+    catch (IOException e) {
+      return file.getAbsoluteFile();
+    }
+  }
+
   private MavenServerExecutionResult resolveBuildingResult(RepositorySystemSession repositorySession,
                                                             MavenProject project,
                                                             List<ModelProblem> modelProblems,
@@ -32,6 +32,7 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import org.jetbrains.idea.maven.localize.MavenProjectLocalize;
 import org.jetbrains.idea.maven.localize.MavenSyncLocalize;
+import org.jetbrains.idea.maven.project.MavenEmbeddersManager;
 import org.jetbrains.idea.maven.project.MavenGeneralSettings;
 import org.jetbrains.idea.maven.project.MavenProjectsManager;
 import org.jetbrains.idea.maven.project.MavenWorkspaceSettingsComponent;
@@ -131,6 +132,8 @@ public class MavenSyncConsole implements MavenEventHandler, MavenBuildIssueHandl
     private boolean syncTransactionStarted = false;
     private boolean hasErrors = false;
     private boolean hasUnresolved = false;
+    private long myStartTime;
+    private boolean myFirstResolveReported = false;
     private final Set<LocalizeValue> shownIssues = new HashSet<>();
     private final List<Runnable> myPostponed = new ArrayList<>();
     private SequencedSet<Pair<Object, LocalizeValue>> myStartedSet = new LinkedHashSet<>();
@@ -173,6 +176,8 @@ public class MavenSyncConsole implements MavenEventHandler, MavenBuildIssueHandl
         hasUnresolved = false;
         shownIssues.clear();
         myTaskId = createTaskId();
+        myStartTime = System.currentTimeMillis();
+        myFirstResolveReported = false;
 
         DefaultBuildDescriptor descriptor = new DefaultBuildDescriptor(
             myTaskId,
@@ -381,6 +386,21 @@ public class MavenSyncConsole implements MavenEventHandler, MavenBuildIssueHandl
         completeTask(myTaskId, MavenSyncLocalize.mavenSyncWrapper(), myFactory.createSuccessResult());
     }
 
+    /**
+     * Reports the time to the first resolved project once per sync,
+     * it includes starting the Maven server if it was not running.
+     * The log gets it too, to compare syncs with and without {@link MavenEmbeddersManager#isPrespawn()}.
+     */
+    public synchronized void notifyProjectResolved() {
+        if (!started || finished || myFirstResolveReported) {
+            return;
+        }
+        myFirstResolveReported = true;
+        long time = System.currentTimeMillis() - myStartTime;
+        addText(MavenSyncLocalize.mavenSyncFirstResolve(time).get());
+        MavenLog.LOG.info("First project resolved " + time + " ms after the sync started, prespawn: " + MavenEmbeddersManager.isPrespawn());
+    }
+
     public synchronized void notifyReadingProblems(@Nonnull VirtualFile file) {
         doIfImportInProcess(() -> {
             debugLog("reading problems in " + file);
@@ -50,6 +50,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MavenArtifactSearchPanel extends JPanel {
     private final Project myProject;
@@ -61,6 +62,10 @@ public class MavenArtifactSearchPanel extends JPanel {
     private Tree myResultList;
 
     private final Alarm myAlarm;
+    /**
+     * Incremented on every keystroke, a running search stops once it sees a newer value.
+     */
+    private final AtomicInteger mySearchGeneration = new AtomicInteger();
 
     private final Map<Pair<String, String>, String> myManagedDependenciesMap;
 
@@ -179,12 +184,13 @@ public class MavenArtifactSearchPanel extends JPanel {
 
         // evaluate text value in the swing thread
         final String text = mySearchField.getText();
+        final int generation = mySearchGeneration.incrementAndGet();
 
         myAlarm.cancelAllRequests();
         myAlarm.addRequest(
             () -> {
                 try {
-                    doSearch(text);
+                    doSearch(text, generation);
                 }
                 catch (Throwable e) {
                     MavenLog.LOG.warn(e);
@@ -225,9 +231,13 @@ public class MavenArtifactSearchPanel extends JPanel {
         }
     }
 
-    private void doSearch(String searchText) {
+    private void doSearch(String searchText, int generation) {
         MavenSearcher searcher = myClassMode ? new MavenClassSearcher() : new MavenArtifactSearcher();
-        List<MavenArtifactSearchResult> result = searcher.search(myProject, searchText, 200);
+        List<MavenArtifactSearchResult> result =
+            searcher.search(myProject, searchText, 200, () -> mySearchGeneration.get() != generation);
+        if (mySearchGeneration.get() != generation) {
+            return;
+        }
 
         resortUsingDependencyVersionMap(result);
 
@@ -0,0 +1,125 @@
+package org.jetbrains.idea.maven.indices;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped Bloom filter over the keys of a {@link MavenIndex}, checked before the index data itself so that
+ * a lookup of an unknown coordinate costs a few bit probes.
+ * <p>
+ * Sized for {@link #BITS_PER_KEY} bits per expected key with {@link #HASH_COUNT} probes, about 1% false positives.
+ * The mapping is writable, keys added later are persisted together with the rest of the data dir on {@link #force()}.
+ * Concurrent {@link #add} calls must be serialized by the caller, {@link #mightContain} may run concurrently with them.
+ * <p>
+ * File layout (big-endian): {@code magic, version, hashCount, byteCount, byte[byteCount] bits}.
+ */
+final class MavenBloomFilter {
+    static final int BITS_PER_KEY = 10;
+    static final int HASH_COUNT = 7;
+
+    private static final int MAGIC = 0x4D424C46;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 * 4;
+
+    private final MappedByteBuffer myBuffer;
+    private final int myHashCount;
+    private final long myBitCount;
+
+    private MavenBloomFilter(MappedByteBuffer buffer) throws IOException {
+        myBuffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported Bloom filter format");
+        }
+        myHashCount = buffer.getInt(8);
+        int byteCount = buffer.getInt(12);
+        if (myHashCount <= 0 || byteCount <= 0 || HEADER_SIZE + (long)byteCount != buffer.capacity()) {
+            throw new IOException("Corrupted Bloom filter");
+        }
+        myBitCount = 8L * byteCount;
+    }
+
+    /**
+     * Creates an empty filter able to hold {@code expectedKeys} keys at the target false positive rate.
+     */
+    @Nonnull
+    static MavenBloomFilter create(@Nonnull File file, long expectedKeys) throws IOException {
+        long byteCount = Math.max(8, (Math.max(1, expectedKeys) * BITS_PER_KEY + 7) / 8);
+        if (HEADER_SIZE + byteCount > Integer.MAX_VALUE) {
+            throw new IOException("Bloom filter is too large: " + expectedKeys + " keys");
+        }
+
+        try (FileChannel channel = FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        )) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + byteCount);
+            buffer.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, HASH_COUNT).putInt(12, (int)byteCount);
+            return new MavenBloomFilter(buffer);
+        }
+    }
+
+    @Nonnull
+    static MavenBloomFilter open(@Nonnull File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return new MavenBloomFilter(channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return false if the key was definitely never added
+     */
+    boolean mightContain(@Nonnull String key) {
+        long hash = hash(key);
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32);
+        for (int i = 1; i <= myHashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % myBitCount;
+            if ((myBuffer.get(HEADER_SIZE + (int)(bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void add(@Nonnull String key) {
+        long hash = hash(key);
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32);
+        for (int i = 1; i <= myHashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % myBitCount;
+            int index = HEADER_SIZE + (int)(bit >>> 3);
+            myBuffer.put(index, (byte)(myBuffer.get(index) | (1 << (bit & 7))));
+        }
+    }
+
+    void force() {
+        myBuffer.force();
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars followed by the MurmurHash3 finalizer, the halves are used for double hashing.
+     */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e4b2fL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.jetbrains.idea.maven.indices;
 
+import consulo.project.Project;
 import consulo.util.lang.Pair;
 import consulo.util.lang.StringUtil;
 import org.apache.lucene.index.Term;
@@ -24,7 +25,9 @@ import org.apache.lucene.search.WildcardQuery;
 import consulo.maven.rt.server.common.model.MavenArtifactInfo;
 import consulo.maven.rt.server.common.server.MavenServerIndexer;
 
+import jakarta.annotation.Nullable;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -61,8 +64,82 @@ public class MavenClassSearcher extends MavenSearcher<MavenClassSearchResult> {
         return new Pair<>(pattern, new WildcardQuery(new Term(TERM, queryPattern)));
     }
 
+    /**
+     * Looks classes up in the class names tables of the indices in-process and asks the Maven server only for indices
+     * built before those tables existed.
+     */
+    @Override
+    protected Collection<MavenClassSearchResult> doSearch(Project project, String pattern, int maxResult, BooleanSupplier canceled) {
+        Pair<String, Query> patternAndQuery = preparePatternAndQuery(pattern);
+        Pattern p = compilePattern(patternAndQuery.first);
+        if (p == null) {
+            return Collections.emptyList();
+        }
+        String simpleNamePrefix = getSimpleNamePrefix(patternAndQuery.first);
+
+        Map<String, MavenClassSearchResult> result = new HashMap<>();
+        List<MavenIndex> withoutClassNames = new ArrayList<>();
+        for (MavenIndex index : MavenProjectIndicesManager.getInstance(project).getIndices()) {
+            if (canceled.getAsBoolean() || result.size() > maxResult) {
+                break;
+            }
+
+            boolean processed = index.processClassNames(
+                simpleNamePrefix,
+                (className, artifact) -> {
+                    if (canceled.getAsBoolean()) {
+                        return false;
+                    }
+                    if (p.matcher("/" + className.replace('.', '/')).matches()) {
+                        addClass(result, className, artifact);
+                    }
+                    return result.size() <= maxResult;
+                }
+            );
+            if (!processed) {
+                withoutClassNames.add(index);
+            }
+        }
+
+        for (MavenIndex each : withoutClassNames) {
+            int remained = maxResult - result.size();
+            if (remained <= 0 || canceled.getAsBoolean()) {
+                break;
+            }
+            collect(result, each.search(patternAndQuery.second, remained, needsClassNames(), canceled), p, maxResult);
+        }
+
+        return result.values();
+    }
+
+    @Override
+    protected boolean needsClassNames() {
+        return true;
+    }
+
+    /**
+     * @return lowercase beginning of the simple class name all matches of the pattern start with
+     */
+    private static String getSimpleNamePrefix(String pattern) {
+        String className = pattern.substring(pattern.lastIndexOf('.') + 1);
+        int wildcard = className.indexOf('*');
+        return (wildcard < 0 ? className : className.substring(0, wildcard)).trim();
+    }
+
     @Override
     protected Collection<MavenClassSearchResult> processResults(Set<MavenArtifactInfo> infos, String pattern, int maxResult) {
+        Pattern p = compilePattern(pattern);
+        if (p == null) {
+            return Collections.emptyList();
+        }
+
+        Map<String, MavenClassSearchResult> result = new HashMap<>();
+        collect(result, infos, p, maxResult);
+        return result.values();
+    }
+
+    @Nullable
+    private static Pattern compilePattern(String pattern) {
         if (pattern.length() == 0 || pattern.equals("*")) {
             pattern = "^/(.*)$";
         }
@@ -81,15 +158,15 @@ public class MavenClassSearcher extends MavenSearcher<MavenClassSearchResult> {
             pattern = ".*?/" + pattern;
             pattern = "^(" + pattern + ")$";
         }
-        Pattern p;
         try {
-            p = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+            return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
         }
         catch (PatternSyntaxException e) {
-            return Collections.emptyList();
+            return null;
         }
+    }
 
-        Map<String, MavenClassSearchResult> result = new HashMap<>();
+    private void collect(Map<String, MavenClassSearchResult> result, Collection<MavenArtifactInfo> infos, Pattern p, int maxResult) {
         for (MavenArtifactInfo each : infos) {
             if (each.getClassNames() == null) {
                 continue;
@@ -103,32 +180,34 @@ public class MavenClassSearcher extends MavenSearcher<MavenClassSearchResult> {
                     classFQName = classFQName.substring(1);
                 }
 
-                String key = makeKey(classFQName, each);
-
-                MavenClassSearchResult classResult = result.get(key);
-                if (classResult == null) {
-                    classResult = new MavenClassSearchResult();
-                    int pos = classFQName.lastIndexOf(".");
-                    if (pos == -1) {
-                        classResult.packageName = "default package";
-                        classResult.className = classFQName;
-                    }
-                    else {
-                        classResult.packageName = classFQName.substring(0, pos);
-                        classResult.className = classFQName.substring(pos + 1);
-                    }
-                    result.put(key, classResult);
-                }
-
-                classResult.versions.add(each);
+                addClass(result, classFQName, each);
 
                 if (result.size() > maxResult) {
                     break;
                 }
             }
         }
+    }
 
-        return result.values();
+    private void addClass(Map<String, MavenClassSearchResult> result, String classFQName, MavenArtifactInfo info) {
+        String key = makeKey(classFQName, info);
+
+        MavenClassSearchResult classResult = result.get(key);
+        if (classResult == null) {
+            classResult = new MavenClassSearchResult();
+            int pos = classFQName.lastIndexOf(".");
+            if (pos == -1) {
+                classResult.packageName = "default package";
+                classResult.className = classFQName;
+            }
+            else {
+                classResult.packageName = classFQName.substring(0, pos);
+                classResult.className = classFQName.substring(pos + 1);
+            }
+            result.put(key, classResult);
+        }
+
+        classResult.versions.add(info);
     }
 
     @Override
@@ -15,13 +15,13 @@
  */
 package org.jetbrains.idea.maven.indices;
 
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.index.io.EnumeratorStringDescriptor;
 import consulo.index.io.PersistentEnumeratorBase;
 import consulo.index.io.PersistentHashMap;
 import consulo.index.io.data.DataExternalizer;
 import consulo.maven.rt.server.common.model.MavenArtifactInfo;
 import consulo.maven.rt.server.common.model.MavenId;
-import consulo.maven.rt.server.common.server.IndexedMavenId;
 import consulo.maven.rt.server.common.server.MavenServerIndexerException;
 import consulo.util.io.FilePermissionCopier;
 import consulo.util.io.FileUtil;
@@ -31,7 +31,6 @@ import org.apache.lucene.search.Query;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.idea.maven.project.MavenGeneralSettings;
 import org.jetbrains.idea.maven.server.MavenIndexerWrapper;
-import org.jetbrains.idea.maven.server.MavenIndicesProcessor;
 import org.jetbrains.idea.maven.utils.MavenLog;
 import org.jetbrains.idea.maven.utils.MavenProcessCanceledException;
 import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
@@ -41,7 +40,14 @@ import jakarta.annotation.Nullable;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
 
 public class MavenIndex {
     private static final String CURRENT_VERSION = "4";
@@ -60,6 +66,24 @@ public class MavenIndex {
 
     private static final String ARTIFACT_IDS_MAP_FILE = "artifactIds-map.dat";
     private static final String VERSIONS_MAP_FILE = "versions-map.dat";
+    private static final String REPLACED_ARTIFACT_IDS_MAP_FILE = "artifactIds-replaced-map.dat";
+    private static final String REPLACED_VERSIONS_MAP_FILE = "versions-replaced-map.dat";
+    private static final String ARTIFACT_IDS_TABLE_FILE = "artifactIds-table.dat";
+    private static final String VERSIONS_TABLE_FILE = "versions-table.dat";
+    private static final String LOOKUP_FILTER_FILE = "lookup-filter.dat";
+    private static final String CLASS_NAMES_TABLE_FILE = "classNames-v2-table.dat";
+    private static final String CLASS_NAMES_DELTA_TABLE_PREFIX = "classNames-delta-";
+    private static final String MERGE_DIR_NAME = "merge";
+    private static final String DUMP_FILE_NAME = "artifacts.dump";
+    private static final String CLASS_NAMES_DUMP_FILE_NAME = "classNames.dump";
+    private static final char CLASS_NAME_SEPARATOR = MavenIndexDataBuilder.CLASS_NAME_SEPARATOR;
+    private static final Pattern CLASS_NAME_SPLITTER = Pattern.compile(Pattern.quote(String.valueOf(CLASS_NAME_SEPARATOR)));
+
+    /**
+     * Index records carry the publisher's time, records modified slightly before the last update are merged again
+     * so that clock skew cannot lose them; merging an artifact twice is harmless.
+     */
+    private static final long INCREMENTAL_UPDATE_OVERLAP_MS = TimeUnit.DAYS.toMillis(1);
 
     public enum Kind {
         LOCAL,
@@ -79,11 +103,19 @@ public class MavenIndex {
     private Long myUpdateTimestamp;
 
     private String myDataDirName;
-    private IndexData myData;
+    /**
+     * Current data generation. Readers acquire it without taking the index monitor. Incremental updates merge into it in place,
+     * rebuilds publish a new generation under the monitor and retire the old one, which is closed when its last reader releases it.
+     */
+    private volatile IndexData myData;
+    /**
+     * Names of the data dirs of generations that are not closed yet, their tables may still be mapped.
+     */
+    private final Set<String> myOpenDataDirs = ConcurrentHashMap.newKeySet();
 
     private String myFailureMessage;
 
-    private boolean isBroken;
+    private volatile boolean isBroken;
     private final IndexListener myListener;
 
     public MavenIndex(
@@ -216,35 +248,53 @@ public class MavenIndex {
         }
     }
 
-    private void cleanupBrokenData() {
-        close(true);
-
+    /**
+     * Moves on to a new data dir that keeps only the context of the broken one. The broken dir is deleted once
+     * the readers of its generation are done with it.
+     */
+    private synchronized void cleanupBrokenData() {
         //noinspection TestOnlyProblems
         final File currentDataDir = getCurrentDataDir();
         final File currentDataContextDir = getCurrentDataContextDir();
-        final File[] files = currentDataDir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (!FileUtil.filesEqual(file, currentDataContextDir)) {
-                    FileUtil.delete(file);
-                }
+        final File newDataDir = createNewDataDir();
+        if (currentDataContextDir.isDirectory()) {
+            try {
+                FileUtil.copyDir(currentDataContextDir, getDataContextDir(newDataDir), FilePermissionCopier.BY_NIO2);
+            }
+            catch (IOException e) {
+                MavenLog.LOG.warn(e);
             }
         }
-        else {
+        myDataDirName = newDataDir.getName();
+
+        close(true);
+        if (!myOpenDataDirs.contains(currentDataDir.getName())) {
             FileUtil.delete(currentDataDir);
         }
     }
 
-    public synchronized void close(boolean releaseIndexContext) {
-        try {
-            if (myData != null) {
-                myData.close(releaseIndexContext);
+    /**
+     * Deletes the data dirs that are neither current nor used by an open generation, including the ones a generation
+     * failed to delete while its tables were still mapped.
+     */
+    private synchronized void deleteUnusedDataDirs() {
+        File[] files = myDir.listFiles();
+        if (files != null) {
+            for (File each : files) {
+                String name = each.getName();
+                if (name.startsWith(DATA_DIR_PREFIX) && !name.equals(myDataDirName) && !myOpenDataDirs.contains(name)) {
+                    FileUtil.delete(each);
+                }
             }
         }
-        catch (MavenIndexException e) {
-            MavenLog.LOG.warn(e);
-        }
+    }
+
+    public synchronized void close(boolean releaseIndexContext) {
+        IndexData data = myData;
         myData = null;
+        if (data != null) {
+            data.retire(releaseIndexContext);
+        }
     }
 
     private synchronized void save() {
@@ -321,6 +371,13 @@ public class MavenIndex {
     public void updateOrRepair(boolean fullUpdate, MavenGeneralSettings settings, MavenProgressIndicator progress)
         throws MavenProcessCanceledException {
         try {
+            if (fullUpdate && myNotNexusIndexer == null && updateIncrementally(settings, progress)) {
+                isBroken = false;
+                myFailureMessage = null;
+                save();
+                return;
+            }
+
             final File newDataDir = createNewDataDir();
             final File newDataContextDir = getDataContextDir(newDataDir);
             final File currentDataContextDir = getCurrentDataContextDir();
@@ -366,6 +423,119 @@ public class MavenIndex {
         save();
     }
 
+    /**
+     * Updates the context of the current data in place and merges what the update added, replaced or deleted into the current
+     * data, see {@link IndexData#applyDelta}. Readers keep using the data meanwhile. Only once the merged changes have grown
+     * too large for the persistent maps, or cannot be merged, the tables are rebuilt into a new data dir, from the updated
+     * context without updating it again.
+     *
+     * @return false if the index cannot be updated incrementally and needs a full update
+     */
+    private boolean updateIncrementally(MavenGeneralSettings settings, MavenProgressIndicator progress)
+        throws MavenServerIndexerException, MavenIndexException, MavenProcessCanceledException {
+        Long lastUpdate;
+        synchronized (this) {
+            lastUpdate = myUpdateTimestamp;
+        }
+        if (lastUpdate == null || myKind != Kind.REMOTE || isBroken) {
+            return false;
+        }
+
+        IndexData data = acquireData();
+        if (data == null) {
+            return false;
+        }
+        try {
+            if (data.groupWithArtifactToVersionTable == null || !hasValidContext(getDataContextDir(data.dataDir))) {
+                return false;
+            }
+
+            long updateStarted = System.currentTimeMillis();
+            updateContext(data.indexId, settings, progress);
+
+            if (!mergeDelta(data, lastUpdate - INCREMENTAL_UPDATE_OVERLAP_MS)) {
+                File newDataDir = createNewDataDir();
+                try {
+                    FileUtil.copyDir(getDataContextDir(data.dataDir), getDataContextDir(newDataDir), FilePermissionCopier.BY_NIO2);
+                }
+                catch (IOException e) {
+                    throw new MavenIndexException(e);
+                }
+                updateData(progress, newDataDir, false);
+            }
+
+            synchronized (this) {
+                myUpdateTimestamp = updateStarted;
+            }
+            return true;
+        }
+        finally {
+            data.release();
+        }
+    }
+
+    /**
+     * Reads the changes of the updated context of the data since the time and merges them into it.
+     *
+     * @return false if the tables have to be rebuilt instead
+     */
+    private boolean mergeDelta(IndexData data, long modifiedSince) {
+        try {
+            Delta delta = new Delta(new HashMap<>(), new HashMap<>(), new HashMap<>(), new TreeMap<>(MavenStringTable.ORDER));
+            myNexusIndexer.exportArtifacts(
+                data.indexId,
+                new File(data.dataDir, DUMP_FILE_NAME),
+                modifiedSince,
+                (groupId, artifactId, version) -> {
+                    delta.artifactIds().computeIfAbsent(groupId, k -> new HashSet<>()).add(artifactId);
+                    delta.versions().computeIfAbsent(groupId + ":" + artifactId, k -> new HashSet<>()).add(version);
+                }
+            );
+            myNexusIndexer.exportDeletedArtifacts(
+                data.indexId,
+                new File(data.dataDir, DUMP_FILE_NAME),
+                modifiedSince,
+                (groupId, artifactId, version) -> delta.deletedVersions()
+                    .computeIfAbsent(groupId + ":" + artifactId, k -> new HashSet<>())
+                    .add(version)
+            );
+
+            // the persistent maps are meant for small deltas, once they have grown too large they are folded into new tables
+            long mapped = (long)data.groupWithArtifactToVersionMap.getAllDataObjects(null).size()
+                + data.groupWithArtifactToReplacedVersionMap.getAllDataObjects(null).size()
+                + delta.versions().size()
+                + delta.deletedVersions().size();
+            if (mapped > data.groupWithArtifactToVersionTable.getKeyCount() / 4) {
+                return false;
+            }
+
+            myNexusIndexer.exportClassNames(
+                data.indexId,
+                new File(data.dataDir, CLASS_NAMES_DUMP_FILE_NAME),
+                modifiedSince,
+                (groupId, artifact, className) -> {
+                    // the same entry the class names table has
+                    String value = className + CLASS_NAME_SEPARATOR + groupId + CLASS_NAME_SEPARATOR + artifact;
+                    delta.classNames()
+                        .computeIfAbsent(MavenIndexDataBuilder.getClassNameKey(className), k -> new TreeSet<>(MavenStringTable.ORDER))
+                        .add(value);
+                }
+            );
+
+            // written before taking the monitor, MavenIndicesManager never runs two updates of an index at once
+            MavenStringTable classNamesDelta = data.writeClassNamesDelta(delta);
+            synchronized (this) {
+                data.applyDelta(delta, classNamesDelta);
+                data.flush();
+            }
+            return true;
+        }
+        catch (IOException | MavenServerIndexerException e) {
+            MavenLog.LOG.warn("Cannot merge the changes of " + myRepositoryPathOrUrl + ", rebuilding the index", e);
+            return false;
+        }
+    }
+
     private boolean hasValidContext(@Nonnull File contextDir) {
         return contextDir.isDirectory() && myNexusIndexer.indexExists(contextDir);
     }
@@ -408,85 +578,54 @@ public class MavenIndex {
             throw new RuntimeException(e);
         }
 
-        synchronized (this) {
-            IndexData oldData = myData;
+        publish(newData, fullUpdate ? System.currentTimeMillis() : null);
+    }
 
-            myData = newData;
-            myDataDirName = newDataDir.getName();
+    private synchronized void publish(IndexData newData, @Nullable Long updateTimestamp) {
+        IndexData oldData = myData;
 
-            if (fullUpdate) {
-                myUpdateTimestamp = System.currentTimeMillis();
-            }
+        myData = newData;
+        myDataDirName = newData.dataDir.getName();
 
-            oldData.close(true);
+        if (updateTimestamp != null) {
+            myUpdateTimestamp = updateTimestamp;
+        }
 
-            File[] files = myDir.listFiles();
-            if (files != null) {
-                for (File each : files) {
-                    if (each.getName().startsWith(DATA_DIR_PREFIX) && !each.getName().equals(myDataDirName)) {
-                        FileUtil.delete(each);
-                    }
-                }
-            }
+        if (oldData != null) {
+            // its dir is deleted when the last reader releases it
+            oldData.retire(true);
         }
+        deleteUnusedDataDirs();
     }
 
     private void doUpdateIndexData(IndexData data, MavenProgressIndicator progress) throws IOException, MavenServerIndexerException {
-        final Map<String, Set<String>> groupToArtifactMap = new HashMap<>();
-        final Map<String, Set<String>> groupWithArtifactToVersionMap = new HashMap<>();
-
-        final StringBuilder builder = new StringBuilder();
-
         progress.pushState();
         progress.setIndeterminate(true);
 
-        try {
-            MavenIndicesProcessor processor = artifacts -> {
-                for (IndexedMavenId each : artifacts) {
-                    String groupId = each.groupId;
-                    String artifactId = each.artifactId;
-                    String version = each.version;
-
-                    builder.setLength(0);
-
-                    builder.append(groupId).append(":").append(artifactId);
-                    String ga = builder.toString();
-
-                    getOrCreate(groupToArtifactMap, groupId).add(artifactId);
-                    getOrCreate(groupWithArtifactToVersionMap, ga).add(version);
-                }
-            };
-
+        try (MavenIndexDataBuilder builder = new MavenIndexDataBuilder(
+            new File(data.dataDir, MERGE_DIR_NAME),
+            AppExecutorUtil.getAppExecutorService()
+        )) {
             if (myNotNexusIndexer != null) {
-                myNotNexusIndexer.processArtifacts(progress, processor);
+                myNotNexusIndexer.processArtifacts(progress, builder);
             }
             else {
-                myNexusIndexer.processArtifacts(data.indexId, processor);
+                myNexusIndexer.exportArtifacts(data.indexId, new File(data.dataDir, DUMP_FILE_NAME), 0, builder);
+                myNexusIndexer.exportClassNames(
+                    data.indexId,
+                    new File(data.dataDir, CLASS_NAMES_DUMP_FILE_NAME),
+                    0,
+                    builder::processClassName
+                );
             }
 
-            persist(groupToArtifactMap, data.groupToArtifactMap);
-            persist(groupWithArtifactToVersionMap, data.groupWithArtifactToVersionMap);
+            data.buildTables(builder);
         }
         finally {
             progress.popState();
         }
     }
 
-    private static <T> Set<T> getOrCreate(Map<String, Set<T>> map, String key) {
-        Set<T> result = map.get(key);
-        if (result == null) {
-            result = new HashSet<>();
-            map.put(key, result);
-        }
-        return result;
-    }
-
-    private static <T> void persist(Map<String, T> map, PersistentHashMap<String, T> persistentMap) throws IOException {
-        for (Map.Entry<String, T> each : map.entrySet()) {
-            persistentMap.put(each.getKey(), each.getValue());
-        }
-    }
-
     @TestOnly
     public File getDir() {
         return myDir;
@@ -513,23 +652,20 @@ public class MavenIndex {
 
     public synchronized void addArtifact(final File artifactFile) {
         doIndexTask(
-            () -> {
-                MavenId id = myData.addArtifact(artifactFile);
+            data -> {
+                MavenId id = data.addArtifact(artifactFile);
 
                 String groupId = id.getGroupId();
                 String artifactId = id.getArtifactId();
                 String version = id.getVersion();
 
-                myData.hasGroupCache.put(groupId, true);
-
                 String groupWithArtifact = groupId + ":" + artifactId;
 
-                myData.hasArtifactCache.put(groupWithArtifact, true);
-                myData.hasVersionCache.put(groupWithArtifact + ':' + version, true);
-
-                addToCache(myData.groupToArtifactMap, groupId, artifactId);
-                addToCache(myData.groupWithArtifactToVersionMap, groupWithArtifact, version);
-                myData.flush();
+                data.addArtifacts(
+                    Map.of(groupId, Set.of(artifactId)),
+                    Map.of(groupWithArtifact, Set.of(version))
+                );
+                data.flush();
 
                 return null;
             },
@@ -537,129 +673,249 @@ public class MavenIndex {
         );
     }
 
-    private static void addToCache(PersistentHashMap<String, Set<String>> cache, String key, String value) throws IOException {
-        Set<String> values = cache.get(key);
-        if (values == null) {
-            values = new HashSet<>();
-        }
-        values.add(value);
-        cache.put(key, values);
-    }
-
-    public synchronized Collection<String> getGroupIds() {
-        return doIndexTask(() -> myData.groupToArtifactMap.getAllDataObjects(null), Collections.<String>emptySet());
+    public Collection<String> getGroupIds() {
+        return doIndexTask(IndexData::getGroupIds, Collections.<String>emptySet());
     }
 
-    public synchronized Set<String> getArtifactIds(final String groupId) {
+    public Set<String> getArtifactIds(final String groupId) {
         return doIndexTask(
-            () -> {
-                Set<String> result = myData.groupToArtifactMap.get(groupId);
-                return result == null ? Collections.<String>emptySet() : result;
-            },
+            data -> data.getValues(data.groupToArtifactMap, data.groupToReplacedArtifactMap, data.groupToArtifactTable, groupId),
             Collections.<String>emptySet()
         );
     }
 
     @TestOnly
-    public synchronized void printInfo() {
+    public void printInfo() {
         doIndexTask(
-            () -> {
-                System.out.println("BaseFile: " + myData.groupToArtifactMap.getBaseFile());
-                System.out.println("All data objects: " + myData.groupToArtifactMap.getAllDataObjects(null));
+            data -> {
+                System.out.println("BaseFile: " + data.groupToArtifactMap.getBaseFile());
+                System.out.println("All data objects: " + data.groupToArtifactMap.getAllDataObjects(null));
                 return Collections.<String>emptySet();
             },
             Collections.<String>emptySet()
         );
     }
 
-    public synchronized Set<String> getVersions(final String groupId, final String artifactId) {
+    public Set<String> getVersions(final String groupId, final String artifactId) {
         return doIndexTask(
-            () -> {
-                Set<String> result = myData.groupWithArtifactToVersionMap.get(groupId + ":" + artifactId);
-                return result == null ? Collections.<String>emptySet() : result;
-            },
+            data -> data.getValues(
+                data.groupWithArtifactToVersionMap,
+                data.groupWithArtifactToReplacedVersionMap,
+                data.groupWithArtifactToVersionTable,
+                groupId + ":" + artifactId
+            ),
             Collections.<String>emptySet()
         );
     }
 
-    public synchronized boolean hasGroupId(String groupId) {
-        return !isBroken && hasValue(myData.groupToArtifactMap, myData.hasGroupCache, groupId);
+    public boolean hasGroupId(final String groupId) {
+        return !isBroken && doIndexTask(
+            data -> data.mightContain(groupId) && getCached(
+                data.hasGroupCache,
+                groupId,
+                () -> data.hasKey(data.groupToArtifactMap, data.groupToReplacedArtifactMap, data.groupToArtifactTable, groupId)
+            ),
+            false
+        );
     }
 
-    public synchronized boolean hasArtifactId(String groupId, String artifactId) {
-        return !isBroken && hasValue(myData.groupWithArtifactToVersionMap, myData.hasArtifactCache, groupId + ":" + artifactId);
+    public boolean hasArtifactId(String groupId, String artifactId) {
+        final String groupWithArtifact = groupId + ":" + artifactId;
+        return !isBroken && doIndexTask(
+            data -> data.mightContain(groupWithArtifact) && getCached(
+                data.hasArtifactCache,
+                groupWithArtifact,
+                () -> data.hasKey(
+                    data.groupWithArtifactToVersionMap,
+                    data.groupWithArtifactToReplacedVersionMap,
+                    data.groupWithArtifactToVersionTable,
+                    groupWithArtifact
+                )
+            ),
+            false
+        );
     }
 
-    public synchronized boolean hasVersion(String groupId, String artifactId, final String version) {
-        if (isBroken) {
-            return false;
-        }
-
-        final String groupWithArtifactWithVersion = groupId + ":" + artifactId + ':' + version;
+    public boolean hasVersion(String groupId, String artifactId, final String version) {
+        final String groupWithArtifact = groupId + ":" + artifactId;
+        final String groupWithArtifactWithVersion = groupWithArtifact + ':' + version;
+        return !isBroken && doIndexTask(
+            data -> data.mightContain(groupWithArtifactWithVersion) && getCached(
+                data.hasVersionCache,
+                groupWithArtifactWithVersion,
+                () -> data.hasValue(
+                    data.groupWithArtifactToVersionMap,
+                    data.groupWithArtifactToReplacedVersionMap,
+                    data.groupWithArtifactToVersionTable,
+                    groupWithArtifact,
+                    version
+                )
+            ),
+            false
+        );
+    }
 
-        Boolean res = myData.hasVersionCache.get(groupWithArtifactWithVersion);
+    private static boolean getCached(MavenIndexLookupCache cache, String key, Lookup lookup) throws IOException {
+        Boolean res = cache.get(key);
         if (res == null) {
-            res = doIndexTask(
-                () -> {
-                    String groupWithVersion = groupWithArtifactWithVersion.substring(
-                        0,
-                        groupWithArtifactWithVersion.length() - version.length() - 1
-                    );
-                    Set<String> set = myData.groupWithArtifactToVersionMap.get(groupWithVersion);
-                    return set != null && set.contains(version);
-                },
-                false
-            );
-
-            myData.hasVersionCache.put(groupWithArtifactWithVersion, res);
+            // never replace a value put by addArtifact() while the lookup was running
+            res = cache.putIfAbsent(key, lookup.compute());
         }
-
         return res;
     }
 
-    private boolean hasValue(final PersistentHashMap<String, ?> map, Map<String, Boolean> cache, final String value) {
-        Boolean res = cache.get(value);
-        if (res == null) {
-            res = doIndexTask(() -> map.tryEnumerate(value) != 0, false);
+    /**
+     * @return statistics of the existence lookup caches of the current data, null if the index is closed
+     */
+    @Nullable
+    public LookupCacheStatistics getLookupCacheStatistics() {
+        IndexData data = acquireData();
+        if (data == null) {
+            return null;
+        }
+        try {
+            int size = 0;
+            long hits = 0;
+            long misses = 0;
+            long evictions = 0;
+            for (MavenIndexLookupCache each : List.of(data.hasGroupCache, data.hasArtifactCache, data.hasVersionCache)) {
+                size += each.size();
+                hits += each.getHitCount();
+                misses += each.getMissCount();
+                evictions += each.getEvictionCount();
+            }
+            return new LookupCacheStatistics(size, hits, misses, evictions);
+        }
+        finally {
+            data.release();
+        }
+    }
+
+    /**
+     * Reports classes whose lowercase simple name starts with the prefix, looked up in the class names tables of the index
+     * without a call to the Maven server: the one of the last rebuild, without the versions replaced since, and the one of
+     * the versions incremental updates have changed since.
+     *
+     * @return false if the index has no class names table, the caller has to fall back to {@link #search}
+     */
+    public boolean processClassNames(@Nonnull String simpleNamePrefix, @Nonnull ClassNameProcessor processor) {
+        return doIndexTask(
+            data -> {
+                MavenStringTable table = data.classNamesTable;
+                if (table == null) {
+                    return false;
+                }
+                Set<String> replaced = data.replacedVersions;
+                MavenStringTable delta = data.classNamesDeltaTable;
+                if (table.processPrefix(simpleNamePrefix, (key, values) -> processClassNames(values, replaced, processor))
+                    && delta != null) {
+                    delta.processPrefix(simpleNamePrefix, (key, values) -> processClassNames(values, Set.of(), processor));
+                }
+                return true;
+            },
+            false
+        );
+    }
 
-            cache.put(value, res);
+    /**
+     * @param replaced {@code groupId:artifactId:version} of the versions whose classes are to be skipped
+     */
+    private boolean processClassNames(Set<String> values, Set<String> replaced, ClassNameProcessor processor) {
+        for (String each : values) {
+            String[] parts = CLASS_NAME_SPLITTER.split(each, -1);
+            if (parts.length != 6 || !replaced.isEmpty() && replaced.contains(getClassVersion(parts))) {
+                continue;
+            }
+            MavenArtifactInfo artifact = new MavenArtifactInfo(
+                parts[1],
+                parts[2],
+                parts[3],
+                StringUtil.nullize(parts[5]),
+                StringUtil.nullize(parts[4]),
+                null,
+                getRepositoryPathOrUrl()
+            );
+            if (!processor.process(parts[0], artifact)) {
+                return false;
+            }
         }
+        return true;
+    }
 
-        return res;
+    /**
+     * @param parts class name table value split at {@link #CLASS_NAME_SEPARATOR}
+     * @return {@code groupId:artifactId:version} of the artifact containing the class
+     */
+    private static String getClassVersion(String[] parts) {
+        return parts[1] + ':' + parts[2] + ':' + parts[3];
+    }
+
+    public Set<MavenArtifactInfo> search(final Query query, final int maxResult) {
+        return search(query, maxResult, true, () -> false);
     }
 
-    public synchronized Set<MavenArtifactInfo> search(final Query query, final int maxResult) {
+    /**
+     * @param withClassNames whether {@link MavenArtifactInfo#getClassNames()} has to be filled in
+     * @param canceled       polled between result pages, a canceled search returns what it has found so far
+     */
+    public Set<MavenArtifactInfo> search(Query query, int maxResult, boolean withClassNames, @Nonnull BooleanSupplier canceled) {
         if (myNotNexusIndexer != null) {
             return Collections.emptySet();
         }
 
-        return doIndexTask(() -> myData.search(query, maxResult), Collections.<MavenArtifactInfo>emptySet());
+        return doIndexTask(data -> data.search(query, maxResult, withClassNames, canceled), Collections.<MavenArtifactInfo>emptySet());
     }
 
     private <T> T doIndexTask(IndexTask<T> task, T defaultValue) {
-        assert Thread.holdsLock(this);
-
         if (!isBroken) {
+            IndexData data = acquireData();
+            if (data == null) {
+                // index is closed
+                return defaultValue;
+            }
+
             try {
-                return task.doTask();
+                return task.doTask(data);
             }
             catch (Exception e1) {
                 MavenLog.LOG.warn(e1);
-
-                cleanupBrokenData();
-                try {
-                    open();
-                }
-                catch (MavenIndexException e2) {
-                    MavenLog.LOG.warn(e2);
-                }
             }
+            finally {
+                data.release();
+            }
+            repair(data);
         }
         markAsBroken();
         return defaultValue;
     }
 
-    private void markAsBroken() {
+    @Nullable
+    private IndexData acquireData() {
+        while (true) {
+            IndexData data = myData;
+            if (data == null || data.tryAcquire()) {
+                return data;
+            }
+            // the generation has just been retired, a new one is already published
+        }
+    }
+
+    private synchronized void repair(IndexData failedData) {
+        if (myData != failedData) {
+            // replaced concurrently
+            return;
+        }
+
+        cleanupBrokenData();
+        try {
+            open();
+        }
+        catch (MavenIndexException e) {
+            MavenLog.LOG.warn(e);
+        }
+    }
+
+    private synchronized void markAsBroken() {
         if (!isBroken) {
             myListener.indexIsBroken(this);
         }
@@ -667,23 +923,88 @@ public class MavenIndex {
     }
 
     private interface IndexTask<T> {
-        T doTask() throws Exception;
+        T doTask(IndexData data) throws Exception;
     }
 
+    private interface Lookup {
+        boolean compute() throws IOException;
+    }
+
+    /**
+     * Index data built by {@link #doUpdateIndexData} lives in immutable memory-mapped {@link MavenStringTable}s,
+     * the persistent maps only keep the changes made afterwards by {@link #addArtifact} and incremental updates:
+     * <ul>
+     * <li>the added values, which count in any case;</li>
+     * <li>the replaced values, whose table entries are outdated and count only if the added values have them too. Deleted
+     * versions, artifacts left without versions and versions whose records an update has replaced end up here.</li>
+     * </ul>
+     * The classes of the versions incremental updates have changed are in {@link #classNamesDeltaTable} instead.
+     * Data dirs written before the tables were introduced have no table files and keep everything in the maps.
+     * <p>
+     * {@link #lookupFilter} holds every group id, {@code groupId:artifactId} and {@code groupId:artifactId:version} of both,
+     * a miss there answers the existence lookups without touching the tables, the maps or the lookup caches.
+     */
     private class IndexData {
         final PersistentHashMap<String, Set<String>> groupToArtifactMap;
         final PersistentHashMap<String, Set<String>> groupWithArtifactToVersionMap;
-
-        final Map<String, Boolean> hasGroupCache = new HashMap<>();
-        final Map<String, Boolean> hasArtifactCache = new HashMap<>();
-        final Map<String, Boolean> hasVersionCache = new HashMap<>();
-
+        final PersistentHashMap<String, Set<String>> groupToReplacedArtifactMap;
+        final PersistentHashMap<String, Set<String>> groupWithArtifactToReplacedVersionMap;
+
+        @Nullable
+        MavenStringTable groupToArtifactTable;
+        @Nullable
+        MavenStringTable groupWithArtifactToVersionTable;
+        @Nullable
+        MavenBloomFilter lookupFilter;
+        @Nullable
+        MavenStringTable classNamesTable;
+        @Nullable
+        volatile MavenStringTable classNamesDeltaTable;
+        private int classNamesDeltaNumber;
+        /**
+         * {@code groupId:artifactId:version} of all replaced versions, whose entries in {@link #classNamesTable} are outdated.
+         */
+        volatile Set<String> replacedVersions = Set.of();
+
+        final MavenIndexLookupCache hasGroupCache = new MavenIndexLookupCache();
+        final MavenIndexLookupCache hasArtifactCache = new MavenIndexLookupCache();
+        final MavenIndexLookupCache hasVersionCache = new MavenIndexLookupCache();
+
+        private final File dataDir;
         private final int indexId;
 
+        /**
+         * One reference is held by the index while this is the current generation, plus one per running reader.
+         */
+        private final AtomicInteger myRefCount = new AtomicInteger(1);
+        private volatile boolean myReleaseIndexContext;
+        private volatile boolean myRetired;
+
         public IndexData(File dir) throws MavenIndexException {
+            dataDir = dir;
+            myOpenDataDirs.add(dir.getName());
             try {
                 groupToArtifactMap = createPersistentMap(new File(dir, ARTIFACT_IDS_MAP_FILE));
                 groupWithArtifactToVersionMap = createPersistentMap(new File(dir, VERSIONS_MAP_FILE));
+                groupToReplacedArtifactMap = createPersistentMap(new File(dir, REPLACED_ARTIFACT_IDS_MAP_FILE));
+                groupWithArtifactToReplacedVersionMap = createPersistentMap(new File(dir, REPLACED_VERSIONS_MAP_FILE));
+
+                File artifactIdsTableFile = new File(dir, ARTIFACT_IDS_TABLE_FILE);
+                File versionsTableFile = new File(dir, VERSIONS_TABLE_FILE);
+                if (artifactIdsTableFile.exists() && versionsTableFile.exists()) {
+                    groupToArtifactTable = MavenStringTable.open(artifactIdsTableFile);
+                    groupWithArtifactToVersionTable = MavenStringTable.open(versionsTableFile);
+
+                    File lookupFilterFile = new File(dir, LOOKUP_FILTER_FILE);
+                    if (lookupFilterFile.exists()) {
+                        lookupFilter = MavenBloomFilter.open(lookupFilterFile);
+                    }
+                    File classNamesTableFile = new File(dir, CLASS_NAMES_TABLE_FILE);
+                    if (classNamesTableFile.exists()) {
+                        classNamesTable = MavenStringTable.open(classNamesTableFile);
+                    }
+                    openClassNamesDelta();
+                }
 
                 indexId = createContext(getDataContextDir(dir), dir.getName());
             }
@@ -693,10 +1014,93 @@ public class MavenIndex {
             }
         }
 
+        /**
+         * Opens the latest class names delta table and the replaced versions, deleting the tables replaced by later ones.
+         */
+        private void openClassNamesDelta() throws IOException {
+            File[] files = dataDir.listFiles((dir, name) -> name.startsWith(CLASS_NAMES_DELTA_TABLE_PREFIX));
+            if (files != null) {
+                for (File each : files) {
+                    classNamesDeltaNumber = Math.max(classNamesDeltaNumber, getClassNamesDeltaNumber(each));
+                }
+                for (File each : files) {
+                    if (getClassNamesDeltaNumber(each) != classNamesDeltaNumber) {
+                        FileUtil.delete(each);
+                    }
+                }
+            }
+            if (classNamesDeltaNumber > 0) {
+                classNamesDeltaTable = MavenStringTable.open(getClassNamesDeltaFile(classNamesDeltaNumber));
+            }
+
+            Set<String> replaced = new HashSet<>();
+            for (String each : groupWithArtifactToReplacedVersionMap.getAllDataObjects(null)) {
+                Set<String> versions = groupWithArtifactToReplacedVersionMap.get(each);
+                if (versions != null) {
+                    for (String version : versions) {
+                        replaced.add(each + ':' + version);
+                    }
+                }
+            }
+            replacedVersions = replaced;
+        }
+
+        private File getClassNamesDeltaFile(int number) {
+            return new File(dataDir, CLASS_NAMES_DELTA_TABLE_PREFIX + number + ".dat");
+        }
+
+        /**
+         * @return 0 for the temporary file of a table being written
+         */
+        private static int getClassNamesDeltaNumber(File file) {
+            String name = file.getName();
+            if (!name.endsWith(".dat")) {
+                return 0;
+            }
+            try {
+                return Integer.parseInt(name.substring(CLASS_NAMES_DELTA_TABLE_PREFIX.length(), name.length() - ".dat".length()));
+            }
+            catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
         private PersistentHashMap<String, Set<String>> createPersistentMap(final File f) throws IOException {
             return new PersistentHashMap<>(f, new EnumeratorStringDescriptor(), new SetDescriptor());
         }
 
+        public boolean tryAcquire() {
+            while (true) {
+                int count = myRefCount.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (myRefCount.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        public void release() {
+            if (myRefCount.decrementAndGet() == 0) {
+                try {
+                    close(myReleaseIndexContext);
+                }
+                catch (MavenIndexException e) {
+                    MavenLog.LOG.warn(e);
+                }
+            }
+        }
+
+        /**
+         * Drops the reference of the index, the data is closed right away or by the last reader.
+         */
+        public void retire(boolean releaseIndexContext) {
+            myReleaseIndexContext = releaseIndexContext;
+            myRetired = true;
+            release();
+        }
+
         public void close(boolean releaseIndexContext) throws MavenIndexException {
             MavenIndexException[] exceptions = new MavenIndexException[1];
 
@@ -714,12 +1118,32 @@ public class MavenIndex {
 
             safeClose(groupToArtifactMap, exceptions);
             safeClose(groupWithArtifactToVersionMap, exceptions);
+            safeClose(groupToReplacedArtifactMap, exceptions);
+            safeClose(groupWithArtifactToReplacedVersionMap, exceptions);
+
+            // the mappings go away with the last view handed out, until then a dir with mapped files may fail to delete
+            groupToArtifactTable = null;
+            groupWithArtifactToVersionTable = null;
+            lookupFilter = null;
+            classNamesTable = null;
+            classNamesDeltaTable = null;
+            deleteIfObsolete();
 
             if (exceptions[0] != null) {
                 throw exceptions[0];
             }
         }
 
+        private void deleteIfObsolete() {
+            synchronized (MavenIndex.this) {
+                myOpenDataDirs.remove(dataDir.getName());
+                // data that never became current is cleaned up by whoever created it
+                if (myRetired && !dataDir.getName().equals(myDataDirName)) {
+                    FileUtil.delete(dataDir);
+                }
+            }
+        }
+
         private void safeClose(@Nullable Closeable enumerator, MavenIndexException[] exceptions) {
             try {
                 if (enumerator != null) {
@@ -737,14 +1161,296 @@ public class MavenIndex {
         public void flush() throws IOException {
             groupToArtifactMap.force();
             groupWithArtifactToVersionMap.force();
+            groupToReplacedArtifactMap.force();
+            groupWithArtifactToReplacedVersionMap.force();
+            if (lookupFilter != null) {
+                lookupFilter.force();
+            }
+        }
+
+        public void buildTables(MavenIndexDataBuilder builder) throws IOException {
+            File artifactIdsTableFile = new File(dataDir, ARTIFACT_IDS_TABLE_FILE);
+            File versionsTableFile = new File(dataDir, VERSIONS_TABLE_FILE);
+            File classNamesTableFile = new File(dataDir, CLASS_NAMES_TABLE_FILE);
+
+            builder.build(artifactIdsTableFile, versionsTableFile, classNamesTableFile);
+
+            groupToArtifactTable = MavenStringTable.open(artifactIdsTableFile);
+            groupWithArtifactToVersionTable = MavenStringTable.open(versionsTableFile);
+            classNamesTable = MavenStringTable.open(classNamesTableFile);
+            lookupFilter = buildLookupFilter(groupToArtifactTable, groupWithArtifactToVersionTable);
+        }
+
+        private MavenBloomFilter buildLookupFilter(MavenStringTable artifactIdsTable, MavenStringTable versionsTable) throws IOException {
+            long keyCount = (long)artifactIdsTable.getKeyCount() + versionsTable.getKeyCount();
+            for (String each : versionsTable.keys()) {
+                keyCount += versionsTable.get(each).size();
+            }
+            // leave room for artifacts added later
+            long capacity = keyCount + Math.max(1024, keyCount / 8);
+            MavenBloomFilter filter = MavenBloomFilter.create(new File(dataDir, LOOKUP_FILTER_FILE), capacity);
+
+            for (String each : artifactIdsTable.keys()) {
+                filter.add(each);
+            }
+            for (String each : versionsTable.keys()) {
+                filter.add(each);
+                for (String version : versionsTable.get(each)) {
+                    filter.add(each + ':' + version);
+                }
+            }
+            return filter;
+        }
+
+        /**
+         * @return false if the key is definitely not in this index
+         */
+        public boolean mightContain(String key) {
+            return lookupFilter == null || lookupFilter.mightContain(key);
+        }
+
+        public Collection<String> getGroupIds() throws IOException {
+            Collection<String> added = groupToArtifactMap.getAllDataObjects(null);
+            Collection<String> result =
+                groupToArtifactTable == null ? added : MavenUnionSet.of(List.of(groupToArtifactTable.keys(), added));
+
+            // only groups with a replaced artifact can be left without artifacts
+            Set<String> empty = new HashSet<>();
+            for (String each : groupToReplacedArtifactMap.getAllDataObjects(null)) {
+                if (getValues(groupToArtifactMap, groupToReplacedArtifactMap, groupToArtifactTable, each).isEmpty()) {
+                    empty.add(each);
+                }
+            }
+            if (empty.isEmpty()) {
+                return result;
+            }
+            List<String> filtered = new ArrayList<>(result.size());
+            for (String each : result) {
+                if (!empty.contains(each)) {
+                    filtered.add(each);
+                }
+            }
+            return filtered;
+        }
+
+        public boolean hasKey(
+            PersistentHashMap<String, Set<String>> map,
+            PersistentHashMap<String, Set<String>> replacedMap,
+            @Nullable MavenStringTable table,
+            String key
+        ) throws IOException {
+            if (replacedMap.tryEnumerate(key) != 0) {
+                return !getValues(map, replacedMap, table, key).isEmpty();
+            }
+            return table != null && table.containsKey(key) || map.tryEnumerate(key) != 0;
+        }
+
+        public boolean hasValue(
+            PersistentHashMap<String, Set<String>> map,
+            PersistentHashMap<String, Set<String>> replacedMap,
+            @Nullable MavenStringTable table,
+            String key,
+            String value
+        ) throws IOException {
+            if (table != null && table.contains(key, value) && !contains(replacedMap, key, value)) {
+                return true;
+            }
+            return contains(map, key, value);
+        }
+
+        public Set<String> getValues(
+            PersistentHashMap<String, Set<String>> map,
+            PersistentHashMap<String, Set<String>> replacedMap,
+            @Nullable MavenStringTable table,
+            String key
+        ) throws IOException {
+            Set<String> stored = table == null ? Collections.<String>emptySet() : table.get(key);
+            if (!stored.isEmpty() && replacedMap.tryEnumerate(key) != 0) {
+                Set<String> replaced = replacedMap.get(key);
+                if (replaced != null) {
+                    stored = new HashSet<>(stored);
+                    stored.removeAll(replaced);
+                }
+            }
+            Set<String> added = map.get(key);
+            return added == null ? stored : MavenUnionSet.of(List.of(stored, added));
+        }
+
+        private static boolean contains(PersistentHashMap<String, Set<String>> map, String key, String value) throws IOException {
+            if (map.tryEnumerate(key) == 0) {
+                return false;
+            }
+            Set<String> set = map.get(key);
+            return set != null && set.contains(value);
+        }
+
+        /**
+         * Merges artifacts into the persistent maps, the lookup filter and the lookup caches. Callers hold the index monitor.
+         *
+         * @param artifactIds {@code groupId -> artifactIds}
+         * @param versions    {@code groupId:artifactId -> versions}
+         */
+        public void addArtifacts(Map<String, Set<String>> artifactIds, Map<String, Set<String>> versions) throws IOException {
+            for (Map.Entry<String, Set<String>> each : artifactIds.entrySet()) {
+                addValues(groupToArtifactMap, each.getKey(), each.getValue());
+            }
+            for (Map.Entry<String, Set<String>> each : versions.entrySet()) {
+                addValues(groupWithArtifactToVersionMap, each.getKey(), each.getValue());
+            }
+
+            for (Map.Entry<String, Set<String>> each : artifactIds.entrySet()) {
+                addKey(hasGroupCache, each.getKey());
+            }
+            for (Map.Entry<String, Set<String>> each : versions.entrySet()) {
+                addKey(hasArtifactCache, each.getKey());
+                for (String version : each.getValue()) {
+                    addKey(hasVersionCache, each.getKey() + ':' + version);
+                }
+            }
+        }
+
+        private static void addValues(PersistentHashMap<String, Set<String>> map, String key, Set<String> values) throws IOException {
+            Set<String> stored = map.get(key);
+            if (stored == null) {
+                stored = new HashSet<>();
+            }
+            if (stored.addAll(values)) {
+                map.put(key, stored);
+            }
+        }
+
+        /**
+         * Merges the changes of an incremental update: the versions it added or replaced are added, the ones it replaced or
+         * deleted are replaced, so that the deleted ones no longer count and the classes of all of them are taken from the new
+         * class names delta table. Artifacts left without versions are replaced as well. Callers hold the index monitor.
+         *
+         * @param classNamesDelta the table {@link #writeClassNamesDelta} has written for the delta
+         */
+        public void applyDelta(Delta delta, MavenStringTable classNamesDelta) throws IOException {
+            Map<String, Set<String>> replaced = new HashMap<>(delta.deletedVersions());
+            for (Map.Entry<String, Set<String>> each : delta.versions().entrySet()) {
+                for (String version : each.getValue()) {
+                    if (groupWithArtifactToVersionTable != null && groupWithArtifactToVersionTable.contains(each.getKey(), version)) {
+                        replaced.computeIfAbsent(each.getKey(), k -> new HashSet<>()).add(version);
+                    }
+                }
+            }
+            for (Map.Entry<String, Set<String>> each : replaced.entrySet()) {
+                addValues(groupWithArtifactToReplacedVersionMap, each.getKey(), each.getValue());
+            }
+
+            addArtifacts(delta.artifactIds(), delta.versions());
+
+            for (Map.Entry<String, Set<String>> each : delta.deletedVersions().entrySet()) {
+                String groupWithArtifact = each.getKey();
+                removeValues(groupWithArtifactToVersionMap, groupWithArtifact, each.getValue());
+                for (String version : each.getValue()) {
+                    hasVersionCache.put(groupWithArtifact + ':' + version, false);
+                }
+                if (!getValues(groupWithArtifactToVersionMap, groupWithArtifactToReplacedVersionMap, groupWithArtifactToVersionTable,
+                    groupWithArtifact).isEmpty()) {
+                    continue;
+                }
+
+                int separator = groupWithArtifact.indexOf(':');
+                String groupId = groupWithArtifact.substring(0, separator);
+                Set<String> artifactId = Set.of(groupWithArtifact.substring(separator + 1));
+                addValues(groupToReplacedArtifactMap, groupId, artifactId);
+                removeValues(groupToArtifactMap, groupId, artifactId);
+                hasArtifactCache.put(groupWithArtifact, false);
+                if (getValues(groupToArtifactMap, groupToReplacedArtifactMap, groupToArtifactTable, groupId).isEmpty()) {
+                    hasGroupCache.put(groupId, false);
+                }
+            }
+
+            Set<String> allReplaced = new HashSet<>(replacedVersions);
+            for (Map.Entry<String, Set<String>> each : replaced.entrySet()) {
+                for (String version : each.getValue()) {
+                    allReplaced.add(each.getKey() + ':' + version);
+                }
+            }
+            // the old classes of the versions disappear before the new ones appear rather than being reported twice
+            replacedVersions = allReplaced;
+            MavenStringTable oldClassNamesDelta = classNamesDeltaTable;
+            classNamesDeltaTable = classNamesDelta;
+            if (oldClassNamesDelta != null) {
+                // fails while the old table is still mapped on some platforms, the next open deletes it then
+                FileUtil.delete(getClassNamesDeltaFile(classNamesDeltaNumber - 1));
+            }
+        }
+
+        /**
+         * Writes a new class names delta table: the entries of the current one, except the ones of the versions the delta
+         * has changed, merged with the classes of these versions.
+         */
+        public MavenStringTable writeClassNamesDelta(Delta delta) throws IOException {
+            Set<String> changed = new HashSet<>();
+            for (Map<String, Set<String>> versions : List.of(delta.versions(), delta.deletedVersions())) {
+                for (Map.Entry<String, Set<String>> each : versions.entrySet()) {
+                    for (String version : each.getValue()) {
+                        changed.add(each.getKey() + ':' + version);
+                    }
+                }
+            }
+
+            MavenStringTable current = classNamesDeltaTable;
+            File file = getClassNamesDeltaFile(classNamesDeltaNumber + 1);
+            File tempFile = new File(dataDir, file.getName() + ".tmp");
+            try (MavenStringTable.Writer writer = new MavenStringTable.Writer(tempFile)) {
+                Iterator<String> currentKeys = current == null ? Collections.emptyIterator() : current.keys().iterator();
+                Iterator<Map.Entry<String, NavigableSet<String>>> added = delta.classNames().entrySet().iterator();
+                String currentKey = currentKeys.hasNext() ? currentKeys.next() : null;
+                Map.Entry<String, NavigableSet<String>> addedEntry = added.hasNext() ? added.next() : null;
+                while (currentKey != null || addedEntry != null) {
+                    int cmp = currentKey == null ? 1 : addedEntry == null ? -1 : MavenStringTable.compare(currentKey, addedEntry.getKey());
+                    String key = cmp <= 0 ? currentKey : addedEntry.getKey();
+                    NavigableSet<String> values = new TreeSet<>(MavenStringTable.ORDER);
+                    if (cmp <= 0) {
+                        for (String each : current.get(currentKey)) {
+                            if (!changed.contains(getClassVersion(CLASS_NAME_SPLITTER.split(each, -1)))) {
+                                values.add(each);
+                            }
+                        }
+                        currentKey = currentKeys.hasNext() ? currentKeys.next() : null;
+                    }
+                    if (cmp >= 0) {
+                        values.addAll(addedEntry.getValue());
+                        addedEntry = added.hasNext() ? added.next() : null;
+                    }
+                    for (String each : values) {
+                        writer.add(key, each);
+                    }
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            classNamesDeltaNumber++;
+            return MavenStringTable.open(file);
+        }
+
+        private static void removeValues(PersistentHashMap<String, Set<String>> map, String key, Set<String> values)
+            throws IOException {
+            Set<String> stored = map.get(key);
+            // an emptied set is kept, a removed key would still be enumerated
+            if (stored != null && stored.removeAll(values)) {
+                map.put(key, stored);
+            }
+        }
+
+        private void addKey(MavenIndexLookupCache cache, String key) {
+            if (lookupFilter != null) {
+                lookupFilter.add(key);
+            }
+            // overwrites negative results readers may have cached concurrently, see getCached()
+            cache.put(key, true);
         }
 
         public MavenId addArtifact(File artifactFile) throws MavenServerIndexerException {
             return myNexusIndexer.addArtifact(indexId, artifactFile);
         }
 
-        public Set<MavenArtifactInfo> search(Query query, int maxResult) throws MavenServerIndexerException {
-            return myNexusIndexer.search(indexId, query, maxResult);
+        public Set<MavenArtifactInfo> search(Query query, int maxResult, boolean withClassNames, BooleanSupplier canceled)
+            throws MavenServerIndexerException {
+            return myNexusIndexer.search(indexId, query, maxResult, withClassNames, canceled);
         }
     }
 
@@ -768,6 +1474,34 @@ public class MavenIndex {
         }
     }
 
+    public interface ClassNameProcessor {
+        /**
+         * @param className fully qualified class name
+         * @param artifact   the artifact version that contains the class
+         * @return false to stop
+         */
+        boolean process(@Nonnull String className, @Nonnull MavenArtifactInfo artifact);
+    }
+
+    /**
+     * Changes of an incremental update.
+     *
+     * @param artifactIds     {@code groupId -> artifactIds} with versions added or replaced
+     * @param versions        {@code groupId:artifactId -> versions} added or replaced
+     * @param deletedVersions {@code groupId:artifactId -> versions} deleted
+     * @param classNames      the class names table entries of the added or replaced versions, in {@link MavenStringTable#ORDER}
+     */
+    private record Delta(
+        Map<String, Set<String>> artifactIds,
+        Map<String, Set<String>> versions,
+        Map<String, Set<String>> deletedVersions,
+        NavigableMap<String, NavigableSet<String>> classNames
+    ) {
+    }
+
+    public record LookupCacheStatistics(int size, long hits, long misses, long evictions) {
+    }
+
     public interface IndexListener {
         void indexIsBroken(MavenIndex index);
     }
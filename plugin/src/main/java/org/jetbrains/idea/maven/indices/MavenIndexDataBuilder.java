@@ -0,0 +1,326 @@
+package org.jetbrains.idea.maven.indices;
+
+import consulo.maven.rt.server.common.server.IndexedMavenId;
+import consulo.maven.rt.server.common.server.MavenIndexDump;
+import consulo.util.io.FileUtil;
+import jakarta.annotation.Nonnull;
+import org.jetbrains.idea.maven.server.MavenIndicesProcessor;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Builds {@link MavenStringTable}s from an artifact stream with an external merge sort.
+ * <p>
+ * Incoming artifacts are buffered up to {@link #BUFFER_SIZE} entries, then the buffer is sorted and spilled to a run file on
+ * the executor while the next one is filled. At most {@link #PARALLELISM} spills are in flight, so the heap holds at most
+ * {@code (PARALLELISM + 1) * BUFFER_SIZE} artifacts regardless of the index size. {@link #build} k-way merges the runs
+ * straight into the tables.
+ * <p>
+ * Class names reported by {@link #processClassName} share the buffer and go to a third table, from the lowercase simple name
+ * to {@code className|groupId|artifactId|version|classifier|packaging} values.
+ */
+final class MavenIndexDataBuilder implements MavenIndicesProcessor, MavenIndexDump.Processor, Closeable {
+    static final int BUFFER_SIZE = Integer.getInteger("idea.maven.indices.buffer.size", 500_000);
+    static final int PARALLELISM = Integer.getInteger(
+        "idea.maven.indices.spill.threads",
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2))
+    );
+
+    private static final String ARTIFACT_IDS_RUN_PREFIX = "artifactIds-";
+    private static final String VERSIONS_RUN_PREFIX = "versions-";
+    private static final String CLASS_NAMES_RUN_PREFIX = "classNames-";
+
+    static final char CLASS_NAME_SEPARATOR = '|';
+
+    private final File myTempDir;
+    private final Executor myExecutor;
+    private final int myBufferSize;
+    private final int myParallelism;
+
+    private final Deque<CompletableFuture<Void>> mySpills = new ArrayDeque<>();
+    private final List<File> myArtifactIdsRuns = new ArrayList<>();
+    private final List<File> myVersionsRuns = new ArrayList<>();
+    private final List<File> myClassNamesRuns = new ArrayList<>();
+
+    private String[] myGroupIds;
+    private String[] myArtifactIds;
+    private String[] myVersions;
+    private int mySize;
+    /**
+     * Whether the buffer holds class names, in which case the third column is the class name instead of the version.
+     */
+    private boolean myClassNamesBuffered;
+
+    MavenIndexDataBuilder(@Nonnull File tempDir, @Nonnull Executor executor) {
+        this(tempDir, executor, BUFFER_SIZE, PARALLELISM);
+    }
+
+    MavenIndexDataBuilder(@Nonnull File tempDir, @Nonnull Executor executor, int bufferSize, int parallelism) {
+        myTempDir = tempDir;
+        myExecutor = executor;
+        myBufferSize = Math.max(1, bufferSize);
+        myParallelism = Math.max(1, parallelism);
+
+        myTempDir.mkdirs();
+        allocateBuffer();
+    }
+
+    @Override
+    public void processArtifacts(Collection<IndexedMavenId> artifacts) {
+        for (IndexedMavenId each : artifacts) {
+            process(each.groupId, each.artifactId, each.version);
+        }
+    }
+
+    @Override
+    public void process(@Nonnull String groupId, @Nonnull String artifactId, @Nonnull String version) {
+        add(false, groupId, artifactId, version);
+    }
+
+    /**
+     * @param artifact  {@code artifactId|version|classifier|packaging} as exported by the server
+     * @param className fully qualified class name
+     */
+    public void processClassName(@Nonnull String groupId, @Nonnull String artifact, @Nonnull String className) {
+        add(true, groupId, artifact, className);
+    }
+
+    private void add(boolean className, String groupId, String artifactId, String third) {
+        if (className != myClassNamesBuffered) {
+            if (mySize > 0) {
+                spill();
+            }
+            myClassNamesBuffered = className;
+        }
+
+        myGroupIds[mySize] = groupId;
+        myArtifactIds[mySize] = artifactId;
+        myVersions[mySize] = third;
+
+        if (++mySize == myBufferSize) {
+            spill();
+        }
+    }
+
+    /**
+     * Merges everything received so far into the {@code groupId -> artifactIds}, {@code groupId:artifactId -> versions}
+     * and class names tables.
+     */
+    void build(@Nonnull File artifactIdsTable, @Nonnull File versionsTable, @Nonnull File classNamesTable) throws IOException {
+        if (mySize > 0) {
+            spill();
+        }
+        try {
+            CompletableFuture.allOf(mySpills.toArray(new CompletableFuture[0])).join();
+            mySpills.clear();
+
+            CompletableFuture<Void> artifactIds = CompletableFuture.runAsync(() -> merge(myArtifactIdsRuns, artifactIdsTable), myExecutor);
+            CompletableFuture<Void> classNames = CompletableFuture.runAsync(() -> merge(myClassNamesRuns, classNamesTable), myExecutor);
+            merge(myVersionsRuns, versionsTable);
+            artifactIds.join();
+            classNames.join();
+        }
+        catch (CompletionException | UncheckedIOException e) {
+            throw unwrap(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            CompletableFuture.allOf(mySpills.toArray(new CompletableFuture[0])).join();
+        }
+        catch (CompletionException ignore) {
+        }
+        FileUtil.delete(myTempDir);
+    }
+
+    private void allocateBuffer() {
+        myGroupIds = new String[myBufferSize];
+        myArtifactIds = new String[myBufferSize];
+        myVersions = new String[myBufferSize];
+        mySize = 0;
+    }
+
+    private void spill() {
+        while (mySpills.size() >= myParallelism) {
+            try {
+                mySpills.removeFirst().join();
+            }
+            catch (CompletionException e) {
+                throw new UncheckedIOException(unwrap(e));
+            }
+        }
+
+        String[] groupIds = myGroupIds;
+        String[] artifactIds = myArtifactIds;
+        String[] versions = myVersions;
+        int size = mySize;
+
+        if (myClassNamesBuffered) {
+            File classNamesRun = new File(myTempDir, CLASS_NAMES_RUN_PREFIX + myClassNamesRuns.size());
+            myClassNamesRuns.add(classNamesRun);
+
+            mySpills.addLast(CompletableFuture.runAsync(
+                () -> {
+                    Entry[] entries = new Entry[size];
+                    for (int i = 0; i < size; i++) {
+                        String className = versions[i];
+                        entries[i] = new Entry(
+                            getClassNameKey(className),
+                            className + CLASS_NAME_SEPARATOR + groupIds[i] + CLASS_NAME_SEPARATOR + artifactIds[i]
+                        );
+                    }
+                    writeRun(entries, classNamesRun);
+                },
+                myExecutor
+            ));
+
+            allocateBuffer();
+            return;
+        }
+
+        File artifactIdsRun = new File(myTempDir, ARTIFACT_IDS_RUN_PREFIX + myArtifactIdsRuns.size());
+        File versionsRun = new File(myTempDir, VERSIONS_RUN_PREFIX + myVersionsRuns.size());
+        myArtifactIdsRuns.add(artifactIdsRun);
+        myVersionsRuns.add(versionsRun);
+
+        mySpills.addLast(CompletableFuture.runAsync(
+            () -> {
+                Entry[] entries = new Entry[size];
+                for (int i = 0; i < size; i++) {
+                    entries[i] = new Entry(groupIds[i], artifactIds[i]);
+                }
+                writeRun(entries, artifactIdsRun);
+
+                for (int i = 0; i < size; i++) {
+                    entries[i] = new Entry(groupIds[i] + ":" + artifactIds[i], versions[i]);
+                }
+                writeRun(entries, versionsRun);
+            },
+            myExecutor
+        ));
+
+        allocateBuffer();
+    }
+
+    /**
+     * @return lowercase simple name of the class, the key of the class names table
+     */
+    @Nonnull
+    static String getClassNameKey(@Nonnull String className) {
+        return className.substring(className.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static void writeRun(Entry[] entries, File file) {
+        Arrays.sort(entries);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            Entry previous = null;
+            for (Entry each : entries) {
+                if (previous != null && previous.compareTo(each) == 0) {
+                    continue;
+                }
+                out.writeBoolean(true);
+                out.writeUTF(each.key());
+                out.writeUTF(each.value());
+                previous = each;
+            }
+            out.writeBoolean(false);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void merge(List<File> runs, File table) {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()));
+        try (MavenStringTable.Writer writer = new MavenStringTable.Writer(table)) {
+            for (File each : runs) {
+                RunReader reader = new RunReader(each);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+                else {
+                    reader.close();
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                writer.add(reader.myCurrent.key(), reader.myCurrent.value());
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+                else {
+                    reader.close();
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            for (RunReader each : queue) {
+                each.close();
+            }
+        }
+    }
+
+    private static IOException unwrap(RuntimeException e) {
+        Throwable cause = e;
+        while (cause instanceof CompletionException || cause instanceof UncheckedIOException) {
+            if (cause.getCause() == null) {
+                break;
+            }
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw e;
+    }
+
+    private record Entry(String key, String value) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry o) {
+            int cmp = MavenStringTable.compare(key, o.key);
+            return cmp != 0 ? cmp : MavenStringTable.compare(value, o.value);
+        }
+    }
+
+    private static final class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream myInput;
+        private Entry myCurrent;
+
+        private RunReader(File file) throws IOException {
+            myInput = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        }
+
+        private boolean advance() throws IOException {
+            myCurrent = myInput.readBoolean() ? new Entry(myInput.readUTF(), myInput.readUTF()) : null;
+            return myCurrent != null;
+        }
+
+        @Override
+        public int compareTo(RunReader o) {
+            return myCurrent.compareTo(o.myCurrent);
+        }
+
+        @Override
+        public void close() {
+            try {
+                myInput.close();
+            }
+            catch (IOException ignore) {
+            }
+        }
+    }
+}
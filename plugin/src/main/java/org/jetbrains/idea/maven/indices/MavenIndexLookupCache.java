@@ -0,0 +1,151 @@
+package org.jetbrains.idea.maven.indices;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of {@link MavenIndex} existence lookups.
+ * <p>
+ * Entries are spread over segments, each an access-ordered {@link LinkedHashMap} guarded by its own monitor,
+ * so concurrent readers rarely contend. Every segment evicts its least recently used entry once it exceeds its share of
+ * the budget. Negative results expire after {@link #NEGATIVE_TTL_MS}, positive ones stay until evicted.
+ */
+final class MavenIndexLookupCache {
+    static final int DEFAULT_SIZE = Integer.getInteger("idea.maven.indices.lookup.cache.size", 10_000);
+    static final long NEGATIVE_TTL_MS = Long.getLong("idea.maven.indices.lookup.cache.negative.ttl", TimeUnit.MINUTES.toMillis(5));
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] mySegments = new Segment[SEGMENTS];
+    private final long myNegativeTtl;
+    private final LongSupplier myClock;
+
+    private final LongAdder myHits = new LongAdder();
+    private final LongAdder myMisses = new LongAdder();
+    private final LongAdder myEvictions = new LongAdder();
+
+    MavenIndexLookupCache() {
+        this(DEFAULT_SIZE, NEGATIVE_TTL_MS, System::currentTimeMillis);
+    }
+
+    MavenIndexLookupCache(int maxSize, long negativeTtl, @Nonnull LongSupplier clock) {
+        myNegativeTtl = negativeTtl;
+        myClock = clock;
+
+        int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            mySegments[i] = new Segment(segmentSize);
+        }
+    }
+
+    @Nullable
+    Boolean get(@Nonnull String key) {
+        Segment segment = segmentFor(key);
+        Boolean result;
+        synchronized (segment) {
+            result = decode(segment, key, segment.get(key));
+        }
+        (result == null ? myMisses : myHits).increment();
+        return result;
+    }
+
+    /**
+     * Stores the result unconditionally, used when the index itself has changed.
+     */
+    void put(@Nonnull String key, boolean value) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, encode(value));
+        }
+    }
+
+    /**
+     * Stores a lookup result unless a live entry appeared while the lookup was running.
+     *
+     * @return the cached value
+     */
+    boolean putIfAbsent(@Nonnull String key, boolean value) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Boolean existing = decode(segment, key, segment.get(key));
+            if (existing != null) {
+                return existing;
+            }
+            segment.put(key, encode(value));
+            return value;
+        }
+    }
+
+    int size() {
+        int result = 0;
+        for (Segment each : mySegments) {
+            synchronized (each) {
+                result += each.size();
+            }
+        }
+        return result;
+    }
+
+    long getHitCount() {
+        return myHits.sum();
+    }
+
+    long getMissCount() {
+        return myMisses.sum();
+    }
+
+    long getEvictionCount() {
+        return myEvictions.sum();
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        return mySegments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Positive results are stored as {@link Boolean#TRUE}, negative ones as their expiration time.
+     */
+    private Object encode(boolean value) {
+        return value ? Boolean.TRUE : (Long)(myClock.getAsLong() + myNegativeTtl);
+    }
+
+    @Nullable
+    private Boolean decode(Segment segment, String key, @Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value == Boolean.TRUE) {
+            return true;
+        }
+        if ((Long)value <= myClock.getAsLong()) {
+            segment.remove(key);
+            return null;
+        }
+        return false;
+    }
+
+    private final class Segment extends LinkedHashMap<String, Object> {
+        private final int myMaxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            myMaxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() > myMaxSize) {
+                myEvictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import consulo.application.ReadAction;
 import consulo.application.progress.ProgressIndicator;
 import consulo.application.progress.Task;
 import consulo.application.util.BackgroundTaskQueue;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.disposer.Disposable;
 import consulo.application.Application;
 import consulo.maven.rt.server.common.model.MavenArchetype;
@@ -46,9 +47,14 @@ import org.jetbrains.idea.maven.server.MavenServerManager;
 import org.jetbrains.idea.maven.utils.*;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 @Singleton
 @ServiceAPI(ComponentScope.APPLICATION)
@@ -63,6 +69,15 @@ public class MavenIndicesManager implements Disposable {
     private static final String ELEMENT_DESCRIPTION = "description";
 
     private static final String LOCAL_REPOSITORY_ID = "local";
+
+    /**
+     * Number of indices updated concurrently.
+     */
+    private static final int UPDATE_PARALLELISM = Math.max(1, Integer.getInteger("idea.maven.indices.update.threads", 4));
+    /**
+     * Number of indices of the same host updated concurrently, local indices count as one host.
+     */
+    private static final int UPDATES_PER_HOST = Math.max(1, Integer.getInteger("idea.maven.indices.update.threads.per.host", 1));
     private MavenServerDownloadListener myDownloadListener;
 
     public enum IndexUpdatingState {
@@ -78,7 +93,7 @@ public class MavenIndicesManager implements Disposable {
 
     private final Object myUpdatingIndicesLock = new Object();
     private final List<MavenIndex> myWaitingIndices = new ArrayList<>();
-    private volatile MavenIndex myUpdatingIndex;
+    private final Set<MavenIndex> myUpdatingIndices = new HashSet<>();
     private final BackgroundTaskQueue myUpdatingQueue;
 
     private volatile List<MavenArchetype> myUserArchetypes = new ArrayList<>();
@@ -254,6 +269,10 @@ public class MavenIndicesManager implements Disposable {
         });
     }
 
+    /**
+     * Updates up to {@link #UPDATE_PARALLELISM} indices at a time, at most {@link #UPDATES_PER_HOST} of them per host.
+     * The calling thread is one of the workers.
+     */
     private void doUpdateIndices(
         final Project projectOrNull,
         List<MavenIndex> indices,
@@ -262,43 +281,160 @@ public class MavenIndicesManager implements Disposable {
     ) throws MavenProcessCanceledException {
         MavenLog.LOG.assertTrue(!fullUpdate || projectOrNull != null);
 
-        List<MavenIndex> remainingWaiting = new ArrayList<>(indices);
+        int workerCount = Math.min(UPDATE_PARALLELISM, indices.size());
+        UpdateBatch batch = new UpdateBatch(indices, workerCount > 1);
 
         try {
-            for (MavenIndex each : indices) {
-                if (indicator.isCanceled()) {
-                    return;
+            MavenGeneralSettings settings = fullUpdate ? getMavenSettings(projectOrNull, indicator) : null;
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 1; i < workerCount; i++) {
+                workers.add(AppExecutorUtil.getAppExecutorService().submit(
+                    () -> runUpdates(projectOrNull, batch, fullUpdate, settings, indicator)
+                ));
+            }
+            runUpdates(projectOrNull, batch, fullUpdate, settings, indicator);
+
+            for (Future<?> each : workers) {
+                try {
+                    each.get();
                 }
+                catch (InterruptedException e) {
+                    throw new MavenProcessCanceledException();
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (cause instanceof Error error) {
+                        throw error;
+                    }
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+        finally {
+            synchronized (myUpdatingIndicesLock) {
+                myWaitingIndices.removeAll(batch.myPending);
+                batch.myPending.clear();
+                myUpdatingIndicesLock.notifyAll();
+            }
+        }
+
+        indicator.checkCanceled();
+    }
+
+    private void runUpdates(
+        @Nullable Project projectOrNull,
+        UpdateBatch batch,
+        boolean fullUpdate,
+        @Nullable MavenGeneralSettings settings,
+        MavenProgressIndicator indicator
+    ) {
+        while (true) {
+            MavenIndex index = batch.startNext(indicator);
+            if (index == null) {
+                return;
+            }
 
-                indicator.setText(MavenIndicesLocalize.mavenIndicesUpdatingIndex(each.getRepositoryId(), each.getRepositoryPathOrUrl()));
+            MavenProgressIndicator indexIndicator = indicator;
+            if (batch.myConcurrent) {
+                // concurrent updates keep their download progress to themselves, the batch indicator shows the overall fraction
+                indexIndicator = new MavenProgressIndicator();
+                indexIndicator.addCancelCondition(i -> indicator.isCanceled());
+            }
+            indicator.setText(MavenIndicesLocalize.mavenIndicesUpdatingIndex(index.getRepositoryId(), index.getRepositoryPathOrUrl()));
 
-                synchronized (myUpdatingIndicesLock) {
-                    remainingWaiting.remove(each);
-                    myWaitingIndices.remove(each);
-                    myUpdatingIndex = each;
+            try {
+                getIndicesObject().updateOrRepair(index, fullUpdate, settings, indexIndicator);
+                if (projectOrNull != null) {
+                    MavenRehighlighter.rehighlight(projectOrNull);
+                }
+            }
+            catch (MavenProcessCanceledException e) {
+                indicator.cancel();
+            }
+            finally {
+                double fraction = batch.finish(index);
+                if (batch.myConcurrent) {
+                    indicator.setFraction(fraction);
                 }
+            }
+        }
+    }
 
-                try {
-                    getIndicesObject().updateOrRepair(
-                        each,
-                        fullUpdate,
-                        fullUpdate ? getMavenSettings(projectOrNull, indicator) : null,
-                        indicator
-                    );
-                    if (projectOrNull != null) {
-                        MavenRehighlighter.rehighlight(projectOrNull);
+    private static String getHost(MavenIndex index) {
+        String url = index.getRepositoryUrl();
+        if (url == null) {
+            return "";
+        }
+        try {
+            return new URL(url).getHost();
+        }
+        catch (MalformedURLException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Indices of one {@link #doUpdateIndices} call, guarded by {@link #myUpdatingIndicesLock}.
+     */
+    private class UpdateBatch {
+        private final List<MavenIndex> myPending;
+        private final Map<String, Integer> myRunningPerHost = new HashMap<>();
+        private final int myTotal;
+        private final boolean myConcurrent;
+        private int myFinished;
+
+        private UpdateBatch(List<MavenIndex> indices, boolean concurrent) {
+            myPending = new ArrayList<>(indices);
+            myTotal = indices.size();
+            myConcurrent = concurrent;
+        }
+
+        /**
+         * Waits until an index whose host has a free slot is available.
+         *
+         * @return null if the batch is done or canceled
+         */
+        @Nullable
+        private MavenIndex startNext(MavenProgressIndicator indicator) {
+            synchronized (myUpdatingIndicesLock) {
+                while (!myPending.isEmpty() && !indicator.isCanceled()) {
+                    for (MavenIndex each : myPending) {
+                        String host = getHost(each);
+                        int running = myRunningPerHost.getOrDefault(host, 0);
+                        if (running < UPDATES_PER_HOST) {
+                            myRunningPerHost.put(host, running + 1);
+                            myPending.remove(each);
+                            myWaitingIndices.remove(each);
+                            myUpdatingIndices.add(each);
+                            return each;
+                        }
                     }
-                }
-                finally {
-                    synchronized (myUpdatingIndicesLock) {
-                        myUpdatingIndex = null;
+                    try {
+                        // woken up when another update of this batch finishes
+                        myUpdatingIndicesLock.wait(1000);
+                    }
+                    catch (InterruptedException e) {
+                        return null;
                     }
                 }
+                return null;
             }
         }
-        finally {
+
+        /**
+         * @return fraction of the batch done
+         */
+        private double finish(MavenIndex index) {
             synchronized (myUpdatingIndicesLock) {
-                myWaitingIndices.removeAll(remainingWaiting);
+                myUpdatingIndices.remove(index);
+                myRunningPerHost.merge(getHost(index), -1, Integer::sum);
+                myFinished++;
+                myUpdatingIndicesLock.notifyAll();
+                return (double)myFinished / myTotal;
             }
         }
     }
@@ -321,7 +457,7 @@ public class MavenIndicesManager implements Disposable {
 
     public IndexUpdatingState getUpdatingState(MavenIndex index) {
         synchronized (myUpdatingIndicesLock) {
-            if (myUpdatingIndex == index) {
+            if (myUpdatingIndices.contains(index)) {
                 return IndexUpdatingState.UPDATING;
             }
             if (myWaitingIndices.contains(index)) {
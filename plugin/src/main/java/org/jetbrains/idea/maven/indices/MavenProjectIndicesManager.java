@@ -36,6 +36,7 @@ import jakarta.inject.Singleton;
 import org.apache.lucene.search.Query;
 import org.jetbrains.idea.maven.project.MavenProject;
 import org.jetbrains.idea.maven.project.MavenProjectChanges;
+import org.jetbrains.idea.maven.project.MavenProjectsChangeSet;
 import org.jetbrains.idea.maven.project.MavenProjectsManager;
 import org.jetbrains.idea.maven.project.MavenProjectsTree;
 import org.jetbrains.idea.maven.utils.MavenMergingUpdateQueue;
@@ -44,9 +45,11 @@ import org.jetbrains.idea.maven.utils.MavenSimpleProjectComponent;
 import jakarta.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
 @Singleton
@@ -54,6 +57,9 @@ import java.util.function.Consumer;
 @ServiceImpl
 public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
     private volatile List<MavenIndex> myProjectIndices = new ArrayList<>();
+    // ids of the projects, collected on the first use and then kept up to date from the tree changes
+    private final Object myProjectsIdsLock = new Object();
+    private volatile Set<MavenId> myProjectsIds;
     private final MergingUpdateQueue myUpdateQueue;
 
     public static MavenProjectIndicesManager getInstance(Project p) {
@@ -79,6 +85,7 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
         getMavenProjectManager().addManagerListener(new MavenProjectsManager.Listener() {
             @Override
             public void activated() {
+                myProjectsIds = null;
                 scheduleUpdateIndicesList();
             }
         });
@@ -96,6 +103,11 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
             ) {
                 scheduleUpdateIndicesList();
             }
+
+            @Override
+            public void projectsChanged(MavenProjectsChangeSet changes) {
+                updateProjectsIds(changes);
+            }
         });
     }
 
@@ -163,27 +175,30 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
     }
 
     public Set<String> getGroupIds() {
-        Set<String> result = getProjectGroupIds();
+        List<Collection<String>> result = new ArrayList<>();
+        result.add(getProjectGroupIds());
         for (MavenIndex each : myProjectIndices) {
-            result.addAll(each.getGroupIds());
+            result.add(each.getGroupIds());
         }
-        return result;
+        return MavenUnionSet.of(result);
     }
 
     public Set<String> getArtifactIds(String groupId) {
-        Set<String> result = getProjectArtifactIds(groupId);
+        List<Collection<String>> result = new ArrayList<>();
+        result.add(getProjectArtifactIds(groupId));
         for (MavenIndex each : myProjectIndices) {
-            result.addAll(each.getArtifactIds(groupId));
+            result.add(each.getArtifactIds(groupId));
         }
-        return result;
+        return MavenUnionSet.of(result);
     }
 
     public Set<String> getVersions(String groupId, String artifactId) {
-        Set<String> result = getProjectVersions(groupId, artifactId);
+        List<Collection<String>> result = new ArrayList<>();
+        result.add(getProjectVersions(groupId, artifactId));
         for (MavenIndex each : myProjectIndices) {
-            result.addAll(each.getVersions(groupId, artifactId));
+            result.add(each.getVersions(groupId, artifactId));
         }
-        return result;
+        return MavenUnionSet.of(result);
     }
 
     public boolean hasGroupId(String groupId) {
@@ -241,14 +256,18 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
     }
 
     public Set<MavenArtifactInfo> search(Query query, int maxResult) {
+        return search(query, maxResult, true, () -> false);
+    }
+
+    public Set<MavenArtifactInfo> search(Query query, int maxResult, boolean withClassNames, BooleanSupplier canceled) {
         Set<MavenArtifactInfo> result = new HashSet<>();
 
         for (MavenIndex each : myProjectIndices) {
             int remained = maxResult - result.size();
-            if (remained <= 0) {
+            if (remained <= 0 || canceled.getAsBoolean()) {
                 break;
             }
-            result.addAll(each.search(query, remained));
+            result.addAll(each.search(query, remained, withClassNames, canceled));
         }
 
         return result;
@@ -295,10 +314,43 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
     }
 
     private Set<MavenId> getProjectsIds() {
-        Set<MavenId> result = new HashSet<>();
-        for (MavenProject each : MavenProjectsManager.getInstance(myProject).getProjects()) {
-            result.add(each.getMavenId());
+        Set<MavenId> result = myProjectsIds;
+        if (result == null) {
+            synchronized (myProjectsIdsLock) {
+                result = myProjectsIds;
+                if (result == null) {
+                    result = new HashSet<>();
+                    for (MavenProject each : getMavenProjectManager().getProjects()) {
+                        result.add(each.getMavenId());
+                    }
+                    myProjectsIds = result;
+                }
+            }
         }
         return result;
     }
+
+    /**
+     * Replaces the ids with an updated copy, so that they can be iterated without locking.
+     */
+    private void updateProjectsIds(MavenProjectsChangeSet changes) {
+        if (changes.getAddedIds().isEmpty() && changes.getRemovedIds().isEmpty()) {
+            return;
+        }
+        synchronized (myProjectsIdsLock) {
+            Set<MavenId> ids = myProjectsIds;
+            if (ids == null) {
+                return;
+            }
+            Set<MavenId> result = new HashSet<>(ids);
+            for (MavenId each : changes.getRemovedIds()) {
+                // another project may still have the id
+                if (getMavenProjectManager().findProject(each) == null) {
+                    result.remove(each);
+                }
+            }
+            result.addAll(changes.getAddedIds());
+            myProjectsIds = result;
+        }
+    }
 }
@@ -195,7 +195,17 @@ public class MavenRepositoriesConfigurable extends BaseConfigurable implements S
         MavenIndex index = getIndexAt(row);
         String message = index.getFailureMessage();
         if (message == null) {
-            myIndicesTable.setToolTipText(null);
+            MavenIndex.LookupCacheStatistics statistics = index.getLookupCacheStatistics();
+            myIndicesTable.setToolTipText(
+                statistics == null
+                    ? null
+                    : MavenIndicesLocalize.mavenIndexLookupCacheStatistics(
+                        statistics.size(),
+                        statistics.hits(),
+                        statistics.misses(),
+                        statistics.evictions()
+                    ).get()
+            );
         }
         else {
             myIndicesTable.setToolTipText(message);
@@ -22,19 +22,38 @@ import org.apache.lucene.search.Query;
 import consulo.maven.rt.server.common.model.MavenArtifactInfo;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 public abstract class MavenSearcher<RESULT_TYPE extends MavenArtifactSearchResult> {
     public static final VersionComparator COMPARATOR = new VersionComparator();
 
     public List<RESULT_TYPE> search(Project project, String pattern, int maxResult) {
+        return search(project, pattern, maxResult, () -> false);
+    }
+
+    /**
+     * @param canceled polled while the results are collected, a canceled search returns what it has found so far
+     */
+    public List<RESULT_TYPE> search(Project project, String pattern, int maxResult, BooleanSupplier canceled) {
+        List<RESULT_TYPE> result = new ArrayList<>(doSearch(project, pattern, maxResult, canceled));
+        sort(result);
+        return result;
+    }
+
+    protected Collection<RESULT_TYPE> doSearch(Project project, String pattern, int maxResult, BooleanSupplier canceled) {
         Pair<String, Query> patternAndQuery = preparePatternAndQuery(pattern);
 
         MavenProjectIndicesManager m = MavenProjectIndicesManager.getInstance(project);
-        Set<MavenArtifactInfo> infos = m.search(patternAndQuery.second, maxResult);
+        Set<MavenArtifactInfo> infos = m.search(patternAndQuery.second, maxResult, needsClassNames(), canceled);
 
-        List<RESULT_TYPE> result = new ArrayList<>(processResults(infos, patternAndQuery.first, maxResult));
-        sort(result);
-        return result;
+        return processResults(infos, patternAndQuery.first, maxResult);
+    }
+
+    /**
+     * Class names are the largest stored field of an index document, they are only transferred if the results need them.
+     */
+    protected boolean needsClassNames() {
+        return false;
     }
 
     protected abstract Pair<String, Query> preparePatternAndQuery(String pattern);
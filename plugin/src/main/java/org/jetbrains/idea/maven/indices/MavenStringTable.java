@@ -0,0 +1,489 @@
+package org.jetbrains.idea.maven.indices;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * Immutable, memory-mapped multimap from a string key to a sorted set of string values.
+ * <p>
+ * Keys and values are stored in UTF-8 byte order (see {@link #ORDER}) and front-coded: every entry keeps only the length of
+ * the prefix shared with the previous entry plus the remaining bytes. Every {@link #RESTART_INTERVAL}th key is stored in full,
+ * so a lookup is a binary search over those restart points followed by a short linear scan. Lookups compare bytes right in the
+ * mapped region, strings are only created for the entries a caller actually iterates.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * header:  magic, version, keyCount, keysOffset, restartsOffset, valueStartsOffset
+ * values:  front-coded values, one run per key
+ * keys:    front-coded keys
+ * restarts:    int[(keyCount + RESTART_INTERVAL - 1) / RESTART_INTERVAL], offsets of full keys in the keys block
+ * valueStarts: int[keyCount + 1], offsets of the value runs in the values block
+ * </pre>
+ * Entry is {@code u16 prefixLength, u16 suffixLength, byte[suffixLength]}.
+ */
+final class MavenStringTable {
+    static final int RESTART_INTERVAL = 16;
+
+    static final Comparator<String> ORDER = MavenStringTable::compare;
+
+    private static final int MAGIC = 0x4D535442;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 6 * 4;
+    private static final int MAX_ENTRY_LENGTH = 0xFFFF;
+
+    private final ByteBuffer myBuffer;
+    private final int myKeyCount;
+    private final int myKeysOffset;
+    private final int myRestartsOffset;
+    private final int myValueStartsOffset;
+
+    private MavenStringTable(ByteBuffer buffer) throws IOException {
+        myBuffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported string table format");
+        }
+
+        myKeyCount = buffer.getInt(8);
+        myKeysOffset = buffer.getInt(12);
+        myRestartsOffset = buffer.getInt(16);
+        myValueStartsOffset = buffer.getInt(20);
+
+        long expectedSize = (long)myValueStartsOffset + 4L * (myKeyCount + 1);
+        if (myKeyCount < 0 || myKeysOffset < HEADER_SIZE || myRestartsOffset < myKeysOffset || expectedSize != buffer.capacity()) {
+            throw new IOException("Corrupted string table");
+        }
+    }
+
+    @Nonnull
+    static MavenStringTable open(@Nonnull File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new MavenStringTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int getKeyCount() {
+        return myKeyCount;
+    }
+
+    boolean containsKey(@Nonnull String key) {
+        return indexOfKey(toBytes(key)) >= 0;
+    }
+
+    boolean contains(@Nonnull String key, @Nonnull String value) {
+        int index = indexOfKey(toBytes(key));
+        return index >= 0 && find(valueStart(index), valueStart(index + 1), toBytes(value)) >= 0;
+    }
+
+    /**
+     * @return unmodifiable view of the values stored for the key, backed by the mapped region
+     */
+    @Nonnull
+    Set<String> get(@Nonnull String key) {
+        int index = indexOfKey(toBytes(key));
+        if (index < 0) {
+            return Collections.emptySet();
+        }
+        return new ValueSet(valueStart(index), valueStart(index + 1));
+    }
+
+    /**
+     * @return unmodifiable view of all keys in {@link #ORDER}, backed by the mapped region
+     */
+    @Nonnull
+    Set<String> keys() {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String s && containsKey(s);
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new RunIterator(myKeysOffset, myRestartsOffset);
+            }
+
+            @Override
+            public int size() {
+                return myKeyCount;
+            }
+        };
+    }
+
+    /**
+     * Reports the keys starting with the prefix in {@link #ORDER} together with their values until the processor returns false.
+     *
+     * @return false if stopped by the processor
+     */
+    boolean processPrefix(@Nonnull String prefix, @Nonnull BiPredicate<String, Set<String>> processor) {
+        byte[] target = toBytes(prefix);
+        int restartCount = (myKeyCount + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+        if (restartCount == 0) {
+            return true;
+        }
+
+        // keys with the prefix start after the last restart point whose key is less than the prefix
+        int block = 0;
+        int lo = 0;
+        int hi = restartCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareFullEntry(restartAt(mid), target) < 0) {
+                block = mid;
+                lo = mid + 1;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+
+        RunIterator keys = new RunIterator(restartAt(block), myRestartsOffset);
+        for (int index = block * RESTART_INTERVAL; keys.hasNext(); index++) {
+            String key = keys.next();
+            if (key.startsWith(prefix)) {
+                if (!processor.test(key, new ValueSet(valueStart(index), valueStart(index + 1)))) {
+                    return false;
+                }
+            }
+            else if (compare(key, prefix) > 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    private int indexOfKey(byte[] key) {
+        int restartCount = (myKeyCount + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+
+        // find the last restart point whose key is not greater than the requested one
+        int block = -1;
+        int lo = 0;
+        int hi = restartCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareFullEntry(restartAt(mid), key);
+            if (cmp == 0) {
+                return mid * RESTART_INTERVAL;
+            }
+            if (cmp < 0) {
+                block = mid;
+                lo = mid + 1;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return -1;
+        }
+
+        int end = block + 1 < restartCount ? restartAt(block + 1) : myRestartsOffset;
+        int ordinal = find(restartAt(block), end, key);
+        return ordinal < 0 ? -1 : block * RESTART_INTERVAL + ordinal;
+    }
+
+    private int restartAt(int block) {
+        return myKeysOffset + myBuffer.getInt(myRestartsOffset + 4 * block);
+    }
+
+    private int valueStart(int keyIndex) {
+        return HEADER_SIZE + myBuffer.getInt(myValueStartsOffset + 4 * keyIndex);
+    }
+
+    private int compareFullEntry(int pos, byte[] target) {
+        int length = readLength(pos + 2);
+        int data = pos + 4;
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (myBuffer.get(data + i) & 0xFF) - (target[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - target.length;
+    }
+
+    /**
+     * Scans the sorted front-coded run {@code [pos, end)} tracking how many leading bytes of the current entry match the target,
+     * so no entry has to be reconstructed.
+     *
+     * @return ordinal of the target within the run or -1
+     */
+    private int find(int pos, int end, byte[] target) {
+        int matched = 0;
+        for (int ordinal = 0; pos < end; ordinal++) {
+            int prefix = readLength(pos);
+            int suffix = readLength(pos + 2);
+            int data = pos + 4;
+            pos = data + suffix;
+
+            if (prefix < matched) {
+                // entry diverges from the previous one before the matched part, so it is greater than the target
+                return -1;
+            }
+            if (prefix > matched) {
+                // entry still shares the smaller byte of the previous one
+                continue;
+            }
+
+            int i = 0;
+            while (i < suffix && matched + i < target.length) {
+                int b = myBuffer.get(data + i) & 0xFF;
+                int t = target[matched + i] & 0xFF;
+                if (b != t) {
+                    if (b > t) {
+                        return -1;
+                    }
+                    break;
+                }
+                i++;
+            }
+
+            if (i == suffix && matched + i == target.length) {
+                return ordinal;
+            }
+            if (i < suffix && matched + i == target.length) {
+                // target is a proper prefix of the entry
+                return -1;
+            }
+            matched += i;
+        }
+        return -1;
+    }
+
+    private int readLength(int pos) {
+        return myBuffer.getShort(pos) & 0xFFFF;
+    }
+
+    private static byte[] toBytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares strings by code points, which is the same as comparing their UTF-8 encodings byte by byte. A lone surrogate
+     * is compared as the {@code '?'} the encoder replaces it with, so the order holds for any string the table stores.
+     */
+    static int compare(String s1, String s2) {
+        int i = 0;
+        int j = 0;
+        while (i < s1.length() && j < s2.length()) {
+            int c1 = s1.codePointAt(i);
+            int c2 = s2.codePointAt(j);
+            i += Character.charCount(c1);
+            j += Character.charCount(c2);
+            int cmp = encodedCodePoint(c1) - encodedCodePoint(c2);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return (s1.length() - i) - (s2.length() - j);
+    }
+
+    private static int encodedCodePoint(int c) {
+        // codePointAt only returns a surrogate when it is not part of a pair
+        return c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE ? '?' : c;
+    }
+
+    private final class ValueSet extends AbstractSet<String> {
+        private final int myStart;
+        private final int myEnd;
+
+        private ValueSet(int start, int end) {
+            myStart = start;
+            myEnd = end;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String s && find(myStart, myEnd, toBytes(s)) >= 0;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new RunIterator(myStart, myEnd);
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (int pos = myStart; pos < myEnd; pos += 4 + readLength(pos + 2)) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return myStart == myEnd;
+        }
+    }
+
+    private final class RunIterator implements Iterator<String> {
+        private int myPos;
+        private final int myEnd;
+        private byte[] myCurrent = new byte[64];
+
+        private RunIterator(int start, int end) {
+            myPos = start;
+            myEnd = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return myPos < myEnd;
+        }
+
+        @Override
+        public String next() {
+            if (myPos >= myEnd) {
+                throw new NoSuchElementException();
+            }
+            int prefix = readLength(myPos);
+            int suffix = readLength(myPos + 2);
+            int length = prefix + suffix;
+            if (length > myCurrent.length) {
+                myCurrent = Arrays.copyOf(myCurrent, Math.max(length, myCurrent.length * 2));
+            }
+            myBuffer.get(myPos + 4, myCurrent, prefix, suffix);
+            myPos += 4 + suffix;
+            return new String(myCurrent, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes a table from (key, value) pairs supplied in {@link #ORDER}; duplicate pairs are skipped.
+     */
+    static final class Writer implements Closeable {
+        private final FileOutputStream myFileStream;
+        private final DataOutputStream myValues;
+        private final ByteArrayOutputStream myKeysBytes = new ByteArrayOutputStream();
+        private final DataOutputStream myKeys = new DataOutputStream(myKeysBytes);
+
+        private int[] myRestarts = new int[16];
+        private int[] myValueStarts = new int[256];
+        private int myKeyCount;
+
+        private String myLastKey;
+        private byte[] myLastKeyBytes;
+        private String myLastValue;
+        private byte[] myLastValueBytes;
+
+        Writer(@Nonnull File file) throws IOException {
+            myFileStream = new FileOutputStream(file);
+            myValues = new DataOutputStream(new BufferedOutputStream(myFileStream));
+            myValues.write(new byte[HEADER_SIZE]);
+        }
+
+        void add(@Nonnull String key, @Nonnull String value) throws IOException {
+            // the same order lookups rely on, so a table that is written can be searched
+            int keyCmp = myLastKey == null ? 1 : compare(key, myLastKey);
+            if (keyCmp < 0) {
+                throw new IllegalArgumentException("Keys are not sorted: " + key);
+            }
+
+            if (keyCmp > 0) {
+                byte[] keyBytes = toBytes(key);
+                if (myKeyCount % RESTART_INTERVAL == 0) {
+                    myRestarts = append(myRestarts, myKeyCount / RESTART_INTERVAL, myKeys.size());
+                    writeEntry(myKeys, null, keyBytes);
+                }
+                else {
+                    writeEntry(myKeys, myLastKeyBytes, keyBytes);
+                }
+                myValueStarts = append(myValueStarts, myKeyCount, valuesSize());
+                myKeyCount++;
+
+                myLastKey = key;
+                myLastKeyBytes = keyBytes;
+                myLastValue = null;
+                myLastValueBytes = null;
+            }
+            else {
+                int valueCmp = compare(value, myLastValue);
+                if (valueCmp == 0) {
+                    return;
+                }
+                if (valueCmp < 0) {
+                    throw new IllegalArgumentException("Values are not sorted: " + key + " -> " + value);
+                }
+            }
+
+            byte[] valueBytes = toBytes(value);
+            writeEntry(myValues, myLastValueBytes, valueBytes);
+            myLastValue = value;
+            myLastValueBytes = valueBytes;
+        }
+
+        private int valuesSize() throws IOException {
+            int size = myValues.size() - HEADER_SIZE;
+            if (myValues.size() == Integer.MAX_VALUE) {
+                throw new IOException("String table is too large");
+            }
+            return size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                myValueStarts = append(myValueStarts, myKeyCount, valuesSize());
+
+                int keysOffset = myValues.size();
+                myKeysBytes.writeTo(myValues);
+                int restartsOffset = myValues.size();
+                int restartCount = (myKeyCount + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+                for (int i = 0; i < restartCount; i++) {
+                    myValues.writeInt(myRestarts[i]);
+                }
+                int valueStartsOffset = myValues.size();
+                for (int i = 0; i <= myKeyCount; i++) {
+                    myValues.writeInt(myValueStarts[i]);
+                }
+                if (myValues.size() == Integer.MAX_VALUE) {
+                    throw new IOException("String table is too large");
+                }
+                myValues.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(myKeyCount).putInt(keysOffset).putInt(restartsOffset)
+                    .putInt(valueStartsOffset);
+                header.flip();
+                myFileStream.getChannel().write(header, 0);
+            }
+            finally {
+                myValues.close();
+            }
+        }
+
+        private static void writeEntry(DataOutputStream out, byte[] previous, byte[] current) throws IOException {
+            if (current.length > MAX_ENTRY_LENGTH) {
+                throw new IOException("String is too long for the index: " + new String(current, StandardCharsets.UTF_8));
+            }
+            int prefix = 0;
+            if (previous != null) {
+                int max = Math.min(previous.length, current.length);
+                while (prefix < max && previous[prefix] == current[prefix]) {
+                    prefix++;
+                }
+            }
+            out.writeShort(prefix);
+            out.writeShort(current.length - prefix);
+            out.write(current, prefix, current.length - prefix);
+        }
+
+        private static int[] append(int[] array, int index, int value) {
+            if (index >= array.length) {
+                array = Arrays.copyOf(array, array.length * 2);
+            }
+            array[index] = value;
+            return array;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.jetbrains.idea.maven.indices;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.*;
+
+/**
+ * Unmodifiable union of read-only collections, e.g. the {@link MavenStringTable} views of several indices, that does not
+ * copy them for membership checks: {@link #contains} asks every part. The first call that needs the elements themselves,
+ * e.g. {@link #size} or {@link #iterator}, reads all parts once into a deduplicated set that later calls reuse, so completion
+ * turning the union into an array does not probe the parts per element.
+ */
+final class MavenUnionSet<T> extends AbstractSet<T> {
+    private final List<Collection<T>> myParts;
+    private volatile Set<T> myElements;
+
+    private MavenUnionSet(List<Collection<T>> parts) {
+        myParts = parts;
+    }
+
+    /**
+     * @return the only non-empty part if it is a set, otherwise a union view of the parts
+     */
+    @Nonnull
+    static <T> Set<T> of(@Nonnull List<? extends Collection<T>> parts) {
+        List<Collection<T>> nonEmpty = new ArrayList<>(parts.size());
+        for (Collection<T> each : parts) {
+            if (!each.isEmpty()) {
+                nonEmpty.add(each);
+            }
+        }
+        if (nonEmpty.isEmpty()) {
+            return Collections.emptySet();
+        }
+        if (nonEmpty.size() == 1 && nonEmpty.get(0) instanceof Set<T> set) {
+            return Collections.unmodifiableSet(set);
+        }
+        return new MavenUnionSet<>(nonEmpty);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Set<T> elements = myElements;
+        if (elements != null) {
+            return elements.contains(o);
+        }
+        for (Collection<T> each : myParts) {
+            if (each.contains(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return elements().size();
+    }
+
+    /**
+     * Iterates the elements of earlier parts first.
+     */
+    @Nonnull
+    @Override
+    public Iterator<T> iterator() {
+        return Collections.unmodifiableSet(elements()).iterator();
+    }
+
+    private Set<T> elements() {
+        Set<T> result = myElements;
+        if (result == null) {
+            // parts are read-only, so a racing second copy is equal to the first
+            result = new LinkedHashSet<>();
+            for (Collection<T> each : myParts) {
+                result.addAll(each);
+            }
+            myElements = result;
+        }
+        return result;
+    }
+}
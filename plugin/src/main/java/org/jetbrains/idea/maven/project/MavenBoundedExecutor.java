@@ -0,0 +1,57 @@
+package org.jetbrains.idea.maven.project;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs at most {@code limit} tasks at a time on a shared pool, e.g. the application one, the others wait in a queue.
+ */
+final class MavenBoundedExecutor implements Executor {
+    private final Queue<Runnable> myQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger myWorkers = new AtomicInteger();
+    private final int myLimit;
+    private final Executor myPool;
+
+    MavenBoundedExecutor(int limit, @Nonnull Executor pool) {
+        myLimit = Math.max(1, limit);
+        myPool = pool;
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable task) {
+        myQueue.add(task);
+        startWorker();
+    }
+
+    private void startWorker() {
+        int workers;
+        do {
+            workers = myWorkers.get();
+            if (workers >= myLimit) {
+                return;
+            }
+        }
+        while (!myWorkers.compareAndSet(workers, workers + 1));
+        myPool.execute(this::work);
+    }
+
+    private void work() {
+        try {
+            Runnable task;
+            while ((task = myQueue.poll()) != null) {
+                task.run();
+            }
+        }
+        finally {
+            myWorkers.decrementAndGet();
+            // a task queued while this worker was leaving would otherwise wait for the next one
+            if (!myQueue.isEmpty()) {
+                startWorker();
+            }
+        }
+    }
+}
@@ -15,8 +15,8 @@
  */
 package org.jetbrains.idea.maven.project;
 
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.project.Project;
-import consulo.util.collection.ContainerUtil;
 import consulo.util.dataholder.Key;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.idea.maven.server.MavenEmbedderWrapper;
@@ -24,11 +24,24 @@ import org.jetbrains.idea.maven.server.MavenServerManager;
 import org.jetbrains.idea.maven.utils.MavenLog;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Keeps up to {@code idea.maven.embedders.pool.size} embedders of each kind, so that several tasks of one kind
+ * can run at the same time without starting an embedder each.
+ * <p>
+ * When all embedders of a kind are in use, {@link #getEmbedder(Key)} waits up to
+ * {@code idea.maven.embedders.checkout.timeout} milliseconds for one to be released (forever if negative) and then
+ * creates one that is released after use. Embedders not used for {@code idea.maven.embedders.idle.timeout} seconds
+ * are released.
+ * <p>
+ * With {@code idea.maven.server.prespawn} an embedder for resolving is started as soon as a Maven project is opened, and
+ * a spare one is started in the background whenever the pool runs out of idle ones or is reset. Otherwise an embedder is
+ * only started when a task asks for one.
+ */
 public class MavenEmbeddersManager {
     public static final Key FOR_DEPENDENCIES_RESOLVE = Key.create(MavenEmbeddersManager.class + ".FOR_DEPENDENCIES_RESOLVE");
     public static final Key FOR_PLUGINS_RESOLVE = Key.create(MavenEmbeddersManager.class + ".FOR_PLUGINS_RESOLVE");
@@ -38,18 +51,35 @@ public class MavenEmbeddersManager {
     // will always regardless to 'work offline' setting
     public static final Key FOR_DOWNLOAD = Key.create(MavenEmbeddersManager.class + ".FOR_DOWNLOAD");
 
+    private static final int POOL_SIZE = Math.max(1, Integer.getInteger("idea.maven.embedders.pool.size", 2));
+    private static final long CHECKOUT_TIMEOUT = Long.getLong("idea.maven.embedders.checkout.timeout", 0);
+    private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toMillis(Long.getLong("idea.maven.embedders.idle.timeout", 300));
+    private static final boolean PRESPAWN = Boolean.getBoolean("idea.maven.server.prespawn");
+
     private final Project myProject;
 
-    private final Map<Key, MavenEmbedderWrapper> myPool = ContainerUtil.createSoftValueMap();
-    private final Set<MavenEmbedderWrapper> myEmbeddersInUse = new HashSet<MavenEmbedderWrapper>();
-    private final Set<MavenEmbedderWrapper> myEmbeddersToClear = new HashSet<MavenEmbedderWrapper>();
+    private final Map<Key, Pool> myPools = new HashMap<>();
+    // pooled embedders in use, with their kind
+    private final Map<MavenEmbedderWrapper, Key> myEmbeddersInUse = new HashMap<>();
+    private final Set<MavenEmbedderWrapper> myEmbeddersToClear = new HashSet<>();
+    private ScheduledFuture<?> myEviction;
+    private boolean myDisposed;
 
     public MavenEmbeddersManager(Project project) {
         myProject = project;
     }
 
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
+    public static boolean isPrespawn() {
+        return PRESPAWN;
+    }
+
     public synchronized void reset() {
         releasePooledEmbedders(false);
+        prepareSpare(FOR_DEPENDENCIES_RESOLVE);
     }
 
     public synchronized void clearCaches() {
@@ -60,44 +90,152 @@ public class MavenEmbeddersManager {
                 return null;
             }
         );
-        myEmbeddersToClear.addAll(myEmbeddersInUse);
+        myEmbeddersToClear.addAll(myEmbeddersInUse.keySet());
     }
 
     @Nonnull
-    public synchronized MavenEmbedderWrapper getEmbedder(Key kind) {
-        MavenEmbedderWrapper result = myPool.get(kind);
-        boolean alwaysOnline = kind == FOR_DOWNLOAD;
+    public MavenEmbedderWrapper getEmbedder(Key kind) {
+        return getEmbedder(kind, CHECKOUT_TIMEOUT);
+    }
+
+    /**
+     * @param timeout milliseconds to wait for an embedder of the kind to be released when all are in use,
+     *                forever if negative
+     */
+    @Nonnull
+    public synchronized MavenEmbedderWrapper getEmbedder(Key kind, long timeout) {
+        Pool pool = myPools.computeIfAbsent(kind, k -> new Pool());
+        long deadline = System.currentTimeMillis() + timeout;
+        while (true) {
+            Idle idle = pool.myIdle.pollFirst();
+            if (idle != null) {
+                myEmbeddersInUse.put(idle.embedder(), kind);
+                if (pool.myIdle.isEmpty()) {
+                    prepareSpare(kind);
+                }
+                return idle.embedder();
+            }
+            if (pool.myCreated < POOL_SIZE) {
+                MavenEmbedderWrapper result = createEmbedder(kind);
+                pool.myCreated++;
+                myEmbeddersInUse.put(result, kind);
+                return result;
+            }
 
-        if (result == null) {
-            result = MavenServerManager.getInstance().createEmbedder(myProject, alwaysOnline);
-            myPool.put(kind, result);
+            long left = deadline - System.currentTimeMillis();
+            if (timeout >= 0 && left <= 0) {
+                break;
+            }
+            try {
+                wait(timeout < 0 ? 0 : left);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            // the pools may have been reset while waiting
+            pool = myPools.computeIfAbsent(kind, k -> new Pool());
         }
 
-        if (myEmbeddersInUse.contains(result)) {
-            MavenLog.LOG.warn("embedder " + kind + " is already used");
-            return MavenServerManager.getInstance().createEmbedder(myProject, alwaysOnline);
+        MavenLog.LOG.warn("all " + POOL_SIZE + " embedders " + kind + " are already used");
+        return createEmbedder(kind);
+    }
+
+    private MavenEmbedderWrapper createEmbedder(Key kind) {
+        return MavenServerManager.getInstance().createEmbedder(myProject, kind == FOR_DOWNLOAD);
+    }
+
+    /**
+     * Starts an embedder of the kind unless one is idle or the pool is full, so that the next task of the kind
+     * does not wait for it.
+     */
+    public void warmUp(Key kind) {
+        MavenEmbedderWrapper embedder;
+        synchronized (this) {
+            Pool pool = myPools.get(kind);
+            if (myDisposed || pool != null && (!pool.myIdle.isEmpty() || pool.myCreated >= POOL_SIZE)) {
+                return;
+            }
+            embedder = getEmbedder(kind, 0);
         }
 
-        myEmbeddersInUse.add(result);
-        return result;
+        long start = System.currentTimeMillis();
+        try {
+            embedder.warmUp();
+            MavenLog.LOG.info("Embedder for " + kind + " warmed up in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        finally {
+            release(embedder);
+        }
     }
 
     public synchronized void release(@Nonnull MavenEmbedderWrapper embedder) {
-        if (!myEmbeddersInUse.contains(embedder)) {
+        Key kind = myEmbeddersInUse.remove(embedder);
+        Pool pool = kind == null ? null : myPools.get(kind);
+        if (pool == null) {
             embedder.release();
             myEmbeddersToClear.remove(embedder);
             return;
         }
 
         embedder.reset();
-        myEmbeddersInUse.remove(embedder);
 
-        if (myEmbeddersToClear.contains(embedder)) {
+        if (myEmbeddersToClear.remove(embedder)) {
             embedder.clearCaches();
-            myEmbeddersToClear.remove(embedder);
+        }
+
+        pool.myIdle.addFirst(new Idle(embedder, System.currentTimeMillis()));
+        scheduleEviction();
+        notifyAll();
+    }
+
+    private void prepareSpare(Key kind) {
+        if (PRESPAWN && !myDisposed) {
+            AppExecutorUtil.getAppExecutorService().execute(() -> {
+                try {
+                    warmUp(kind);
+                }
+                catch (RuntimeException e) {
+                    MavenLog.LOG.info(e);
+                }
+            });
         }
     }
 
+    private void scheduleEviction() {
+        if (myEviction == null) {
+            myEviction = AppExecutorUtil.getAppScheduledExecutorService().schedule(this::evictIdle, IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void evictIdle() {
+        myEviction = null;
+        long expired = System.currentTimeMillis() - IDLE_TIMEOUT;
+        boolean idleLeft = false;
+        for (Pool each : myPools.values()) {
+            // the least recently released are at the end
+            Idle last;
+            while ((last = each.myIdle.peekLast()) != null && last.since() <= expired) {
+                each.myIdle.pollLast();
+                each.myCreated--;
+                last.embedder().release();
+            }
+            idleLeft |= !each.myIdle.isEmpty();
+        }
+        if (idleLeft) {
+            scheduleEviction();
+        }
+    }
+
+    public synchronized void dispose() {
+        myDisposed = true;
+        if (myEviction != null) {
+            myEviction.cancel(false);
+            myEviction = null;
+        }
+        releasePooledEmbedders(false);
+    }
+
     @TestOnly
     public synchronized void releaseInTests() {
         if (!myEmbeddersInUse.isEmpty()) {
@@ -115,21 +253,33 @@ public class MavenEmbeddersManager {
             each.release();
             return null;
         });
-        myPool.clear();
+        myPools.clear();
         myEmbeddersInUse.clear();
         myEmbeddersToClear.clear();
+        // the waiting callers get new pools
+        notifyAll();
     }
 
     private void forEachPooled(boolean includeInUse, Function<MavenEmbedderWrapper, ?> func) {
-        for (Key each : myPool.keySet()) {
-            MavenEmbedderWrapper embedder = myPool.get(each);
-            if (embedder == null) {
-                continue; // collected
+        for (Pool each : myPools.values()) {
+            for (Idle idle : each.myIdle) {
+                func.apply(idle.embedder());
             }
-            if (!includeInUse && myEmbeddersInUse.contains(embedder)) {
-                continue;
+        }
+        if (includeInUse) {
+            for (MavenEmbedderWrapper each : myEmbeddersInUse.keySet()) {
+                func.apply(each);
             }
-            func.apply(embedder);
         }
     }
+
+    private static class Pool {
+        // the most recently released first
+        private final Deque<Idle> myIdle = new ArrayDeque<>();
+        // idle and in use
+        private int myCreated;
+    }
+
+    private record Idle(MavenEmbedderWrapper embedder, long since) {
+    }
 }
@@ -0,0 +1,152 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import consulo.maven.rt.server.common.model.MavenArtifactNode;
+import consulo.maven.rt.server.common.model.MavenId;
+import jakarta.annotation.Nullable;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Shares equal strings, files, ids and artifacts between the projects of all trees, so that a library many modules
+ * depend on is kept once rather than once per module. Values are held weakly and dropped once no project uses them.
+ * <p>
+ * Artifacts are assumed not to change once they reach the projects: none is given a new scope after that.
+ */
+final class MavenModelInterner {
+    private static final Pool<String> ourStrings = new Pool<>();
+    private static final Pool<File> ourFiles = new Pool<>();
+    private static final Pool<MavenId> ourIds = new Pool<>();
+    private static final Pool<MavenArtifact> ourArtifacts = new Pool<>();
+
+    private MavenModelInterner() {
+    }
+
+    @Nullable
+    static String intern(@Nullable String value) {
+        return value == null ? null : ourStrings.intern(value);
+    }
+
+    @Nullable
+    static File intern(@Nullable File value) {
+        return value == null ? null : ourFiles.intern(value);
+    }
+
+    @Nullable
+    static MavenId intern(@Nullable MavenId value) {
+        if (value == null) {
+            return null;
+        }
+        MavenId result = ourIds.get(value);
+        if (result == null) {
+            result = ourIds.intern(new MavenId(intern(value.getGroupId()), intern(value.getArtifactId()), intern(value.getVersion())));
+        }
+        return result;
+    }
+
+    @Nullable
+    static MavenArtifact intern(@Nullable MavenArtifact value) {
+        if (value == null) {
+            return null;
+        }
+        MavenArtifact result = ourArtifacts.get(value);
+        // equal artifacts may still differ in the flags, which equals() does not compare
+        if (result != null && sameFlags(result, value)) {
+            return result;
+        }
+        MavenArtifact copy = new MavenArtifact(
+            intern(value.getGroupId()),
+            intern(value.getArtifactId()),
+            intern(value.getVersion()),
+            intern(value.getBaseVersion()),
+            intern(value.getType()),
+            intern(value.getClassifier()),
+            intern(value.getScope()),
+            value.isOptional(),
+            intern(value.getExtension()),
+            intern(value.getFile()),
+            null,
+            value.isMarkedResolved(),
+            value.isStubbed()
+        );
+        return result == null ? ourArtifacts.intern(copy) : copy;
+    }
+
+    private static boolean sameFlags(MavenArtifact a, MavenArtifact b) {
+        return a.isOptional() == b.isOptional() && a.isMarkedResolved() == b.isMarkedResolved() && a.isStubbed() == b.isStubbed();
+    }
+
+    @Nullable
+    static List<MavenArtifact> internArtifacts(@Nullable List<MavenArtifact> artifacts) {
+        if (artifacts == null) {
+            return null;
+        }
+        List<MavenArtifact> result = new ArrayList<>(artifacts.size());
+        for (MavenArtifact each : artifacts) {
+            result.add(intern(each));
+        }
+        return result;
+    }
+
+    @Nullable
+    static <C extends Collection<MavenId>> C internIds(@Nullable Collection<MavenId> ids, C result) {
+        if (ids == null) {
+            return null;
+        }
+        for (MavenId each : ids) {
+            result.add(intern(each));
+        }
+        return result;
+    }
+
+    /**
+     * Copies the dependency tree with interned artifacts, the nodes themselves are particular to the project.
+     */
+    @Nullable
+    static List<MavenArtifactNode> internNodes(@Nullable List<MavenArtifactNode> nodes, @Nullable MavenArtifactNode parent) {
+        if (nodes == null) {
+            return null;
+        }
+        List<MavenArtifactNode> result = new ArrayList<>(nodes.size());
+        for (MavenArtifactNode each : nodes) {
+            MavenArtifactNode copy = new MavenArtifactNode(
+                parent,
+                intern(each.getArtifact()),
+                each.getState(),
+                intern(each.getRelatedArtifact()),
+                intern(each.getOriginalScope()),
+                intern(each.getPremanagedVersion()),
+                intern(each.getPremanagedScope())
+            );
+            List<MavenArtifactNode> dependencies = internNodes(each.getDependencies(), copy);
+            if (dependencies != null) {
+                copy.setDependencies(dependencies);
+            }
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private static final class Pool<T> {
+        // the value is its own key, so an entry is dropped as soon as the value is not used elsewhere
+        private final Map<T, WeakReference<T>> myValues = new WeakHashMap<>();
+
+        @Nullable
+        private synchronized T get(T value) {
+            WeakReference<T> ref = myValues.get(value);
+            return ref == null ? null : ref.get();
+        }
+
+        private synchronized T intern(T value) {
+            WeakReference<T> ref = myValues.get(value);
+            T result = ref == null ? null : ref.get();
+            if (result == null) {
+                myValues.put(value, new WeakReference<>(value));
+                result = value;
+            }
+            return result;
+        }
+    }
+}
@@ -21,7 +21,6 @@ import consulo.process.cmd.ParametersList;
 import consulo.project.Project;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.dataholder.Key;
-import consulo.util.io.BufferExposingByteArrayOutputStream;
 import consulo.util.io.FileUtil;
 import consulo.util.lang.Comparing;
 import consulo.util.lang.Couple;
@@ -44,6 +43,7 @@ import jakarta.annotation.Nullable;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class MavenProject {
     private static final Key<MavenArtifactIndex> DEPENDENCIES_CACHE_KEY = Key.create("MavenProject.DEPENDENCIES_CACHE_KEY");
@@ -51,8 +51,16 @@ public class MavenProject {
 
     @Nonnull
     private final VirtualFile myFile;
-    @Nonnull
+    // null until the state read from the projects tree file is decoded
+    @Nullable
     private volatile State myState = new State();
+    @Nullable
+    private volatile MavenProjectsTreeStorage.Block myStoredState;
+    // what the projects tree needs of a stored state, kept until the state is replaced
+    @Nullable
+    private volatile Header myStoredHeader;
+    // the stored state could not be decoded, the project is kept with an empty state until it is read again
+    private volatile boolean myStateLost;
 
     public enum ProcMode {
         BOTH,
@@ -60,50 +68,82 @@ public class MavenProject {
         NONE
     }
 
+    /**
+     * Reads a project written by {@link #write}. Its state is decoded on first access,
+     * except for the {@link Header} parts which the projects tree needs to be built.
+     */
     @Nullable
-    public static MavenProject read(DataInputStream in) throws IOException {
-        String path = in.readUTF();
-        int length = in.readInt();
-        byte[] bytes = new byte[length];
-        in.readFully(bytes);
-
-        // should read full byte content first!!!
-
-        VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path);
+    static MavenProject read(
+        @Nonnull MavenProjectsTreeStorage.Input in,
+        @Nonnull Function<String, VirtualFile> fileFinder
+    ) throws IOException {
+        String path = in.readString();
+        Header header = Header.read(in);
+        MavenProjectsTreeStorage.Block state = in.readBlock();
+
+        VirtualFile file = path == null ? null : fileFinder.apply(path);
         if (file == null) {
             return null;
         }
 
-        ByteArrayInputStream bs = new ByteArrayInputStream(bytes);
-        try (ObjectInputStream os = new ObjectInputStream(bs)) {
-            try {
-                MavenProject result = new MavenProject(file);
-                result.myState = (State)os.readObject();
-                return result;
-            }
-            catch (ClassNotFoundException e) {
-                IOException ioException = new IOException();
-                ioException.initCause(e);
-                throw ioException;
-            }
-        }
-        finally {
-            bs.close();
+        MavenProject result = new MavenProject(file);
+        result.myState = null;
+        result.myStoredState = state;
+        result.myStoredHeader = header;
+        return result;
+    }
+
+    void write(@Nonnull MavenProjectsTreeStorage.Output out) {
+        out.writeString(getPath());
+        Header header = myStoredHeader;
+        (header != null ? header : new Header(getState())).write(out);
+
+        MavenProjectsTreeStorage.Block stored = myStoredState;
+        if (stored != null && myState == null && out.copyBlock(stored)) {
+            return;
         }
+        out.beginBlock();
+        getState().write(out);
+        out.endBlock();
     }
 
-    public void write(@Nonnull DataOutputStream out) throws IOException {
-        out.writeUTF(getPath());
+    /**
+     * @return whether the state read from the projects tree file has not been needed yet
+     */
+    boolean isStateStored() {
+        return myState == null;
+    }
 
-        BufferExposingByteArrayOutputStream bs = new BufferExposingByteArrayOutputStream();
-        try (ObjectOutputStream os = new ObjectOutputStream(bs)) {
-            os.writeObject(myState);
+    /**
+     * @return whether the state read from the projects tree file could not be decoded, the project has to be read again
+     * even if its files have not changed
+     */
+    boolean isStateLost() {
+        return myStateLost;
+    }
 
-            out.writeInt(bs.size());
-            out.write(bs.getInternalBuffer(), 0, bs.size());
-        }
-        finally {
-            bs.close();
+    @Nonnull
+    private State getState() {
+        State state = myState;
+        if (state != null) {
+            return state;
+        }
+        synchronized (this) {
+            if (myState == null) {
+                State decoded;
+                try {
+                    decoded = State.read(myStoredState.open());
+                }
+                catch (IOException e) {
+                    // the projects tree reads the project again on the next update, see isStateLost()
+                    MavenLog.LOG.warn("Cannot decode the stored state of " + getPath(), e);
+                    decoded = State.empty(myStoredHeader);
+                    myStateLost = true;
+                }
+                myState = decoded;
+                myStoredState = null;
+            }
+            return myState;
         }
     }
 
@@ -119,10 +159,10 @@ public class MavenProject {
         boolean resetArtifacts,
         boolean resetProfiles
     ) {
-        State newState = myState.clone();
+        State newState = getState().clone();
 
         if (updateLastReadStamp) {
-            newState.myLastReadStamp = myState.myLastReadStamp + 1;
+            newState.myLastReadStamp = getState().myLastReadStamp + 1;
         }
 
         newState.myReadingProblems = readerResult.readingProblems;
@@ -132,9 +172,9 @@ public class MavenProject {
 
         MavenModel model = readerResult.mavenModel;
 
-        newState.myMavenId = model.getMavenId();
+        newState.myMavenId = MavenModelInterner.intern(model.getMavenId());
         if (model.getParent() != null) {
-            newState.myParentId = model.getParent().getMavenId();
+            newState.myParentId = MavenModelInterner.intern(model.getParent().getMavenId());
         }
 
         newState.myPackaging = model.getPackaging();
@@ -173,8 +213,11 @@ public class MavenProject {
     }
 
     private MavenProjectChanges setState(State newState) {
-        MavenProjectChanges changes = myState.getChanges(newState);
+        MavenProjectChanges changes = getState().getChanges(newState);
+        myStoredHeader = null;
         myState = newState;
+        myStoredState = null;
+        myStateLost = false;
         return changes;
     }
 
@@ -216,16 +259,17 @@ public class MavenProject {
         newPlugins.addAll(model.getPlugins());
         newExtensions.addAll(model.getExtensions());
 
-        state.myUnresolvedArtifactIds = newUnresolvedArtifacts;
+        // the same libraries come in the results of every module, share them between the projects
+        state.myUnresolvedArtifactIds = MavenModelInterner.internIds(newUnresolvedArtifacts, new HashSet<>());
         state.myRemoteRepositories = new ArrayList<>(newRepositories);
-        state.myDependencies = new ArrayList<>(newDependencies);
-        state.myDependencyTree = new ArrayList<>(newDependencyTree);
+        state.myDependencies = MavenModelInterner.internArtifacts(new ArrayList<>(newDependencies));
+        state.myDependencyTree = MavenModelInterner.internNodes(new ArrayList<>(newDependencyTree), null);
         state.myPlugins = new ArrayList<>(newPlugins);
-        state.myExtensions = new ArrayList<>(newExtensions);
+        state.myExtensions = MavenModelInterner.internArtifacts(new ArrayList<>(newExtensions));
     }
 
     private MavenProjectChanges setFolders(MavenProjectReaderResult readerResult) {
-        State newState = myState.clone();
+        State newState = getState().clone();
         doSetFolders(newState, readerResult);
         return setState(newState);
     }
@@ -284,7 +328,8 @@ public class MavenProject {
     }
 
     public long getLastReadStamp() {
-        return myState.myLastReadStamp;
+        Header header = myStoredHeader;
+        return header != null ? header.myLastReadStamp : getState().myLastReadStamp;
     }
 
     @Nonnull
@@ -318,12 +363,12 @@ public class MavenProject {
     }
 
     public boolean hasReadingProblems() {
-        return !myState.myReadingProblems.isEmpty();
+        return !getState().myReadingProblems.isEmpty();
     }
 
     @Nullable
     public String getConfigFileError() {
-        return myState.myReadingProblems.stream()
+        return getState().myReadingProblems.stream()
             .filter(t -> t.getPath().endsWith(MavenConstants.MAVEN_CONFIG_RELATIVE_PATH))
             .map(MavenProjectProblem::getDescription)
             .findFirst()
@@ -332,51 +377,55 @@ public class MavenProject {
 
     @Nullable
     public String getName() {
-        return myState.myName;
+        Header header = myStoredHeader;
+        return header != null ? header.myName : getState().myName;
     }
 
     @Nonnull
     public String getDisplayName() {
-        State state = myState;
-        if (StringUtil.isEmptyOrSpaces(state.myName)) {
-            return StringUtil.notNullize(state.myMavenId.getArtifactId());
+        String name = getName();
+        if (StringUtil.isEmptyOrSpaces(name)) {
+            return StringUtil.notNullize(getMavenId().getArtifactId());
         }
-        return state.myName;
+        return name;
     }
 
     @Nonnull
     public Map<String, String> getModelMap() {
-        return myState.myModelMap;
+        return getState().myModelMap;
     }
 
     @Nonnull
     public MavenId getMavenId() {
-        return myState.myMavenId;
+        Header header = myStoredHeader;
+        return header != null ? header.myMavenId : getState().myMavenId;
     }
 
     @Nullable
     public MavenId getParentId() {
-        return myState.myParentId;
+        Header header = myStoredHeader;
+        return header != null ? header.myParentId : getState().myParentId;
     }
 
     @Nonnull
     public String getPackaging() {
-        return myState.myPackaging;
+        Header header = myStoredHeader;
+        return header != null ? header.myPackaging : getState().myPackaging;
     }
 
     @Nonnull
     public String getFinalName() {
-        return myState.myFinalName;
+        return getState().myFinalName;
     }
 
     @Nullable
     public String getDefaultGoal() {
-        return myState.myDefaultGoal;
+        return getState().myDefaultGoal;
     }
 
     @Nonnull
     public String getBuildDirectory() {
-        return myState.myBuildDirectory;
+        return getState().myBuildDirectory;
     }
 
     @Nonnull
@@ -593,37 +642,37 @@ public class MavenProject {
 
     @Nonnull
     public String getOutputDirectory() {
-        return myState.myOutputDirectory;
+        return getState().myOutputDirectory;
     }
 
     @Nonnull
     public String getTestOutputDirectory() {
-        return myState.myTestOutputDirectory;
+        return getState().myTestOutputDirectory;
     }
 
     @Nonnull
     public List<String> getSources() {
-        return myState.mySources;
+        return getState().mySources;
     }
 
     @Nonnull
     public List<String> getTestSources() {
-        return myState.myTestSources;
+        return getState().myTestSources;
     }
 
     @Nonnull
     public List<MavenResource> getResources() {
-        return myState.myResources;
+        return getState().myResources;
     }
 
     @Nonnull
     public List<MavenResource> getTestResources() {
-        return myState.myTestResources;
+        return getState().myTestResources;
     }
 
     @Nonnull
     public List<String> getFilters() {
-        return myState.myFilters;
+        return getState().myFilters;
     }
 
     public List<String> getFilterPropertiesFiles() {
@@ -680,6 +729,20 @@ public class MavenProject {
         @Nonnull ResolveContext context
     ) throws MavenProcessCanceledException {
         MavenProjectReaderResult result = reader.resolveProject(generalSettings, embedder, getFile(), getActivatedProfilesIds(), locator);
+        return resolve(project, generalSettings, embedder, result, context);
+    }
+
+    /**
+     * Applies a result the project was resolved to together with other projects.
+     */
+    @Nonnull
+    public Pair<MavenProjectChanges, NativeMavenProjectHolder> resolve(
+        @Nonnull Project project,
+        @Nonnull MavenGeneralSettings generalSettings,
+        @Nonnull MavenEmbedderWrapper embedder,
+        @Nonnull MavenProjectReaderResult result,
+        @Nonnull ResolveContext context
+    ) throws MavenProcessCanceledException {
         MavenProjectChanges changes = set(result, generalSettings, false, result.readingProblems.isEmpty(), false);
 
         if (result.nativeMavenProject != null) {
@@ -707,8 +770,8 @@ public class MavenProject {
 
     public void resetCache() {
         // todo a bit hacky
-        synchronized (myState) {
-            myState.resetCache();
+        synchronized (getState()) {
+            getState().resetCache();
         }
     }
 
@@ -718,7 +781,7 @@ public class MavenProject {
 
     @Nonnull
     public List<MavenProjectProblem> getProblems() {
-        State state = myState;
+        State state = getState();
         synchronized (state) {
             if (state.myProblemsCache == null) {
                 state.myProblemsCache = collectProblems(myFile, state);
@@ -858,27 +921,28 @@ public class MavenProject {
 
     @Nonnull
     public Map<String, String> getModulesPathsAndNames() {
-        return myState.myModulesPathsAndNames;
+        Header header = myStoredHeader;
+        return header != null ? header.myModulesPathsAndNames : getState().myModulesPathsAndNames;
     }
 
     @Nonnull
     public Collection<String> getProfilesIds() {
-        return myState.myProfilesIds;
+        return getState().myProfilesIds;
     }
 
     @Nonnull
     public MavenExplicitProfiles getActivatedProfilesIds() {
-        return myState.myActivatedProfilesIds;
+        return getState().myActivatedProfilesIds;
     }
 
     @Nonnull
     public List<MavenArtifact> getDependencies() {
-        return myState.myDependencies;
+        return getState().myDependencies;
     }
 
     @Nonnull
     public List<MavenArtifactNode> getDependencyTree() {
-        return myState.myDependencyTree;
+        return getState().myDependencyTree;
     }
 
     @Nonnull
@@ -925,7 +989,7 @@ public class MavenProject {
     }
 
     public void addDependency(@Nonnull MavenArtifact dependency) {
-        State state = myState;
+        State state = getState();
         List<MavenArtifact> dependenciesCopy = new ArrayList<>(state.myDependencies);
         dependenciesCopy.add(dependency);
         state.myDependencies = dependenciesCopy;
@@ -948,22 +1012,22 @@ public class MavenProject {
     }
 
     public boolean hasUnresolvedArtifacts() {
-        State state = myState;
+        State state = getState();
         return !isParentResolved(state) || !getUnresolvedDependencies(state).isEmpty() || !getUnresolvedExtensions(state).isEmpty();
     }
 
     public boolean hasUnresolvedPlugins() {
-        return !getUnresolvedPlugins(myState).isEmpty();
+        return !getUnresolvedPlugins(getState()).isEmpty();
     }
 
     @Nonnull
     public List<MavenPlugin> getPlugins() {
-        return myState.myPlugins;
+        return getState().myPlugins;
     }
 
     @Nonnull
     public List<MavenPlugin> getDeclaredPlugins() {
-        return getDeclaredPlugins(myState);
+        return getDeclaredPlugins(getState());
     }
 
     private static List<MavenPlugin> getDeclaredPlugins(State state) {
@@ -1017,7 +1081,7 @@ public class MavenProject {
 
     @Nullable
     public String getEncoding() {
-        String encoding = myState.myProperties.getProperty("project.build.sourceEncoding");
+        String encoding = getState().myProperties.getProperty("project.build.sourceEncoding");
         if (encoding != null) {
             return encoding;
         }
@@ -1055,7 +1119,7 @@ public class MavenProject {
         String result = MavenJDOMUtil.findChildValueByPath(getCompilerConfig(), level);
 
         if (result == null) {
-            result = myState.myProperties.getProperty("maven.compiler." + level);
+            result = getState().myProperties.getProperty("maven.compiler." + level);
         }
 
         return result;
@@ -1068,17 +1132,17 @@ public class MavenProject {
 
     @Nonnull
     public Properties getProperties() {
-        return myState.myProperties;
+        return getState().myProperties;
     }
 
     @Nonnull
     public File getLocalRepository() {
-        return myState.myLocalRepository;
+        return getState().myLocalRepository;
     }
 
     @Nonnull
     public List<MavenRemoteRepository> getRemoteRepositories() {
-        return myState.myRemoteRepositories;
+        return getState().myRemoteRepositories;
     }
 
     @Nonnull
@@ -1110,13 +1174,13 @@ public class MavenProject {
     @Nullable
     public <V> V getCachedValue(Key<V> key) {
         //noinspection unchecked
-        return (V)myState.myCache.get(key);
+        return (V)getState().myCache.get(key);
     }
 
     @Nonnull
     @SuppressWarnings("unchecked")
     public <V> V putCachedValue(Key<V> key, @Nonnull V value) {
-        ConcurrentHashMap<Key, Object> map = myState.myCache;
+        ConcurrentHashMap<Key, Object> map = getState().myCache;
         Object oldValue = map.putIfAbsent(key, value);
         return oldValue != null ? (V)oldValue : value;
     }
@@ -1126,7 +1190,52 @@ public class MavenProject {
         return getMavenId().toString();
     }
 
-    private static class State implements Cloneable, Serializable {
+    /**
+     * Identity and structure of a project, stored ahead of its state so that the projects tree is built without decoding states.
+     */
+    private static final class Header {
+        final long myLastReadStamp;
+        final MavenId myMavenId;
+        final MavenId myParentId;
+        final String myPackaging;
+        final String myName;
+        final Map<String, String> myModulesPathsAndNames;
+
+        Header(State state) {
+            this(state.myLastReadStamp, state.myMavenId, state.myParentId, state.myPackaging, state.myName, state.myModulesPathsAndNames);
+        }
+
+        private Header(
+            long lastReadStamp,
+            MavenId mavenId,
+            MavenId parentId,
+            String packaging,
+            String name,
+            Map<String, String> modulesPathsAndNames
+        ) {
+            myLastReadStamp = lastReadStamp;
+            myMavenId = mavenId;
+            myParentId = parentId;
+            myPackaging = packaging;
+            myName = name;
+            myModulesPathsAndNames = modulesPathsAndNames;
+        }
+
+        void write(MavenProjectsTreeStorage.Output out) {
+            out.writeVarLong(myLastReadStamp);
+            out.writeMavenId(myMavenId);
+            out.writeMavenId(myParentId);
+            out.writeString(myPackaging);
+            out.writeString(myName);
+            out.writeStringMap(myModulesPathsAndNames);
+        }
+
+        static Header read(MavenProjectsTreeStorage.Input in) throws IOException {
+            return new Header(in.readVarLong(), in.readMavenId(), in.readMavenId(), in.readString(), in.readString(), in.readStringMap());
+        }
+    }
+
+    private static class State implements Cloneable {
         long myLastReadStamp = 0;
 
         MavenId myMavenId;
@@ -1171,7 +1280,7 @@ public class MavenProject {
         volatile List<MavenPlugin> myUnresolvedPluginsCache;
         volatile List<MavenArtifact> myUnresolvedExtensionsCache;
 
-        transient ConcurrentHashMap<Key, Object> myCache = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Key, Object> myCache = new ConcurrentHashMap<>();
 
         @Override
         public State clone() {
@@ -1219,15 +1328,137 @@ public class MavenProject {
             boolean repositoryChanged = !Comparing.equal(myLocalRepository, other.myLocalRepository);
 
             result.dependencies = repositoryChanged || !Comparing.equal(myDependencies, other.myDependencies);
+            if (result.dependencies) {
+                result.setDependencies(myDependencies, other.myDependencies);
+            }
 
             result.plugins = repositoryChanged || !Comparing.equal(myPlugins, other.myPlugins);
 
             return result;
         }
 
-        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-            in.defaultReadObject();
-            myCache = new ConcurrentHashMap<>();
+        /**
+         * Writes everything but the caches, the local repository goes first as artifact files are stored relative to it.
+         */
+        void write(MavenProjectsTreeStorage.Output out) {
+            out.writeFile(myLocalRepository);
+            out.writeVarLong(myLastReadStamp);
+
+            out.writeMavenId(myMavenId);
+            out.writeMavenId(myParentId);
+            out.writeString(myPackaging);
+            out.writeString(myName);
+
+            out.writeString(myFinalName);
+            out.writeString(myDefaultGoal);
+
+            out.writeString(myBuildDirectory);
+            out.writeString(myOutputDirectory);
+            out.writeString(myTestOutputDirectory);
+
+            out.writeStrings(mySources);
+            out.writeStrings(myTestSources);
+            out.writeList(myResources, MavenProjectsTreeStorage.Output::writeResource);
+            out.writeList(myTestResources, MavenProjectsTreeStorage.Output::writeResource);
+
+            out.writeStrings(myFilters);
+            out.writeProperties(myProperties);
+            out.writeList(myPlugins, MavenProjectsTreeStorage.Output::writePlugin);
+            out.writeList(myExtensions, (o, each) -> o.writeArtifact(each, myLocalRepository));
+
+            out.writeList(myDependencies, (o, each) -> o.writeArtifact(each, myLocalRepository));
+            out.writeArtifactNodes(myDependencyTree, myLocalRepository);
+            out.writeList(myRemoteRepositories, MavenProjectsTreeStorage.Output::writeRemoteRepository);
+
+            out.writeStringMap(myModulesPathsAndNames);
+            out.writeStringMap(myModelMap);
+
+            out.writeStrings(myProfilesIds);
+            out.writeBoolean(myActivatedProfilesIds != null);
+            if (myActivatedProfilesIds != null) {
+                out.writeStrings(myActivatedProfilesIds.getEnabledProfiles());
+                out.writeStrings(myActivatedProfilesIds.getDisabledProfiles());
+            }
+
+            out.writeList(myReadingProblems, (o, each) -> o.writeProblem(each, myLocalRepository));
+            out.writeList(myUnresolvedArtifactIds, MavenProjectsTreeStorage.Output::writeMavenId);
+        }
+
+        /**
+         * @return the state of a project known only by its header, with empty collections
+         */
+        static State empty(Header header) {
+            State result = new State();
+            result.myLastReadStamp = header.myLastReadStamp;
+            result.myMavenId = header.myMavenId;
+            result.myParentId = header.myParentId;
+            result.myPackaging = header.myPackaging;
+            result.myName = header.myName;
+            result.myModulesPathsAndNames = header.myModulesPathsAndNames;
+
+            result.mySources = Collections.emptyList();
+            result.myTestSources = Collections.emptyList();
+            result.myResources = Collections.emptyList();
+            result.myTestResources = Collections.emptyList();
+            result.myFilters = Collections.emptyList();
+            result.myProperties = new Properties();
+            result.myPlugins = Collections.emptyList();
+            result.myExtensions = Collections.emptyList();
+            result.myDependencies = Collections.emptyList();
+            result.myDependencyTree = Collections.emptyList();
+            result.myRemoteRepositories = Collections.emptyList();
+            result.myModelMap = Collections.emptyMap();
+            result.myProfilesIds = Collections.emptyList();
+            result.myActivatedProfilesIds = MavenExplicitProfiles.NONE;
+            result.myReadingProblems = Collections.emptyList();
+            result.myUnresolvedArtifactIds = Collections.emptySet();
+            return result;
+        }
+
+        static State read(MavenProjectsTreeStorage.Input in) throws IOException {
+            State result = new State();
+            File localRepository = in.readFile();
+            result.myLocalRepository = localRepository;
+            result.myLastReadStamp = in.readVarLong();
+
+            result.myMavenId = in.readMavenId();
+            result.myParentId = in.readMavenId();
+            result.myPackaging = in.readString();
+            result.myName = in.readString();
+
+            result.myFinalName = in.readString();
+            result.myDefaultGoal = in.readString();
+
+            result.myBuildDirectory = in.readString();
+            result.myOutputDirectory = in.readString();
+            result.myTestOutputDirectory = in.readString();
+
+            result.mySources = in.readStrings(ArrayList::new);
+            result.myTestSources = in.readStrings(ArrayList::new);
+            result.myResources = in.readList(MavenProjectsTreeStorage.Input::readResource);
+            result.myTestResources = in.readList(MavenProjectsTreeStorage.Input::readResource);
+
+            result.myFilters = in.readStrings(ArrayList::new);
+            result.myProperties = in.readProperties();
+            result.myPlugins = in.readList(MavenProjectsTreeStorage.Input::readPlugin);
+            result.myExtensions = in.readList(i -> i.readArtifact(localRepository));
+
+            result.myDependencies = in.readList(i -> i.readArtifact(localRepository));
+            result.myDependencyTree = in.readArtifactNodes(null, localRepository);
+            result.myRemoteRepositories = in.readList(MavenProjectsTreeStorage.Input::readRemoteRepository);
+
+            result.myModulesPathsAndNames = in.readStringMap();
+            result.myModelMap = in.readStringMap();
+
+            result.myProfilesIds = in.readStrings(HashSet::new);
+            if (in.readBoolean()) {
+                result.myActivatedProfilesIds = new MavenExplicitProfiles(in.readStrings(HashSet::new), in.readStrings(HashSet::new));
+            }
+
+            result.myReadingProblems = in.readList(i -> i.readProblem(localRepository));
+            List<MavenId> unresolvedArtifactIds = in.readList(MavenProjectsTreeStorage.Input::readMavenId);
+            result.myUnresolvedArtifactIds = unresolvedArtifactIds == null ? null : new HashSet<>(unresolvedArtifactIds);
+            return result;
         }
     }
 }
\ No newline at end of file
@@ -15,6 +15,17 @@
  */
 package org.jetbrains.idea.maven.project;
 
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 public class MavenProjectChanges {
     public static final MavenProjectChanges NONE = new MavenProjectChanges();
     public static final MavenProjectChanges ALL = createAllChanges();
@@ -26,6 +37,10 @@ public class MavenProjectChanges {
     public boolean dependencies;
     public boolean plugins;
 
+    // what changed in the dependencies, empty when the project was read for the first time
+    public List<MavenArtifact> addedDependencies = Collections.emptyList();
+    public List<MavenArtifact> removedDependencies = Collections.emptyList();
+
     private static MavenProjectChanges createAllChanges() {
         MavenProjectChanges result = new MavenProjectChanges();
         result.packaging = true;
@@ -53,9 +68,47 @@ public class MavenProjectChanges {
         result.sources = sources | other.sources;
         result.dependencies = dependencies | other.dependencies;
         result.plugins = plugins | other.plugins;
+        // a dependency added by one change and removed by the other is no change at all
+        result.addedDependencies = union(subtract(addedDependencies, other.removedDependencies),
+            subtract(other.addedDependencies, removedDependencies));
+        result.removedDependencies = union(subtract(removedDependencies, other.addedDependencies),
+            subtract(other.removedDependencies, addedDependencies));
         return result;
     }
 
+    void setDependencies(@Nullable List<MavenArtifact> before, @Nullable List<MavenArtifact> after) {
+        List<MavenArtifact> beforeList = before == null ? Collections.emptyList() : before;
+        List<MavenArtifact> afterList = after == null ? Collections.emptyList() : after;
+        addedDependencies = subtract(afterList, beforeList);
+        removedDependencies = subtract(beforeList, afterList);
+    }
+
+    private static List<MavenArtifact> subtract(List<MavenArtifact> from, Collection<MavenArtifact> what) {
+        if (from.isEmpty() || what.isEmpty()) {
+            return from;
+        }
+        Set<MavenArtifact> whatSet = new HashSet<>(what);
+        List<MavenArtifact> result = new ArrayList<>();
+        for (MavenArtifact each : from) {
+            if (!whatSet.contains(each)) {
+                result.add(each);
+            }
+        }
+        return result.isEmpty() ? Collections.emptyList() : result;
+    }
+
+    private static List<MavenArtifact> union(List<MavenArtifact> first, List<MavenArtifact> second) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        if (first.isEmpty()) {
+            return second;
+        }
+        Set<MavenArtifact> result = new LinkedHashSet<>(first);
+        result.addAll(second);
+        return new ArrayList<>(result);
+    }
+
     public boolean hasChanges() {
         return packaging || output || sources || dependencies || plugins;
     }
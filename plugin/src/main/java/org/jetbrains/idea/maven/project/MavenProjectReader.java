@@ -16,9 +16,10 @@
 package org.jetbrains.idea.maven.project;
 
 import consulo.maven.rt.server.common.model.*;
+import consulo.maven.rt.server.common.server.MavenEffectiveModelBuilder;
+import consulo.maven.rt.server.common.server.MavenEffectiveModelRequest;
 import consulo.maven.rt.server.common.server.MavenServerExecutionResult;
 import consulo.maven.rt.server.common.server.ProfileApplicationResult;
-import consulo.util.lang.Comparing;
 import consulo.util.lang.Pair;
 import consulo.virtualFileSystem.VirtualFile;
 import jakarta.annotation.Nonnull;
@@ -35,6 +36,7 @@ import org.jetbrains.idea.maven.utils.MavenUtil;
 import jakarta.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -52,11 +54,13 @@ public class MavenProjectReader {
         MavenExplicitProfiles explicitProfiles,
         MavenProjectReaderProjectLocator locator
     ) {
-        Pair<RawModelReadResult, MavenExplicitProfiles> readResult =
-            doReadProjectModel(generalSettings, file, explicitProfiles, new HashSet<>(), locator);
+        List<MavenEffectiveModelRequest> requests = new ArrayList<>();
+        RawModelReadResult readResult = collectModelRequests(generalSettings, file, true, requests, new HashSet<>(), locator);
 
-        File basedir = getBaseDir(file);
-        MavenModel model = MavenServerManager.getInstance().interpolateAndAlignModel(readResult.first.model, basedir);
+        // the file itself goes last, after all of its parents
+        List<ProfileApplicationResult> effectiveModels = MavenServerManager.getInstance().buildEffectiveModels(requests, explicitProfiles);
+        ProfileApplicationResult applied = effectiveModels.get(effectiveModels.size() - 1);
+        MavenModel model = applied.getModel();
 
         Map<String, String> modelMap = new HashMap<>();
         modelMap.put("groupId", model.getMavenId().getGroupId());
@@ -67,36 +71,73 @@ public class MavenProjectReader {
         modelMap.put("build.finalName", model.getBuild().getFinalName());
         modelMap.put("build.directory", model.getBuild().getDirectory());
 
-        return new MavenProjectReaderResult(model, modelMap, readResult.second, null, readResult.first.problems, new HashSet<>());
+        return new MavenProjectReaderResult(model, modelMap, applied.getActivatedProfiles(), null, readResult.problems, new HashSet<>());
     }
 
     private static File getBaseDir(VirtualFile file) {
         return new File(file.getParent().getPath());
     }
 
-    private Pair<RawModelReadResult, MavenExplicitProfiles> doReadProjectModel(
+    /**
+     * Adds the requests building the effective model of the file to {@code requests}, the ones of its parents first.
+     * Inheritance, profiles and interpolation are then done by the server in one call for the whole chain.
+     */
+    private RawModelReadResult collectModelRequests(
         MavenGeneralSettings generalSettings,
         VirtualFile file,
-        MavenExplicitProfiles explicitProfiles,
+        boolean interpolate,
+        List<MavenEffectiveModelRequest> requests,
         Set<VirtualFile> recursionGuard,
         MavenProjectReaderProjectLocator locator
     ) {
-        RawModelReadResult cachedModel = myRawModelsCache.computeIfAbsent(file, f -> doReadProjectModel(f, false));
+        RawModelReadResult cachedModel = myRawModelsCache.computeIfAbsent(file, this::readRawModel);
 
-        // todo modifying cached model and problems here??????
-        MavenModel model = cachedModel.model;
+        // todo modifying cached problems here??????
         HashSet<String> alwaysOnProfiles = cachedModel.alwaysOnProfiles;
         Collection<MavenProjectProblem> problems = cachedModel.problems;
 
-        model = resolveInheritance(generalSettings, model, file, explicitProfiles, recursionGuard, locator, problems);
-        addSettingsProfiles(generalSettings, model, alwaysOnProfiles, problems);
-
-        ProfileApplicationResult applied = applyProfiles(model, getBaseDir(file), explicitProfiles, alwaysOnProfiles);
-        model = applied.getModel();
+        int parentIndex = collectParentRequests(generalSettings, cachedModel.model, file, requests, recursionGuard, locator, problems);
+        SettingsProfilesCache settingsProfiles = getSettingsProfiles(generalSettings);
+        problems.addAll(settingsProfiles.problems);
+        alwaysOnProfiles.addAll(settingsProfiles.alwaysOnProfiles);
+
+        requests.add(new MavenEffectiveModelRequest(
+            cachedModel.model,
+            getBaseDir(file),
+            parentIndex,
+            alwaysOnProfiles,
+            settingsProfiles.profiles,
+            interpolate
+        ));
+        return cachedModel;
+    }
 
-        repairModelBody(model);
+    /**
+     * Reads the raw model through {@link MavenRawModelCache}. Models read with problems are not cached, the problems may be I/O ones.
+     */
+    private RawModelReadResult readRawModel(VirtualFile file) {
+        String key = null;
+        try {
+            VirtualFile profilesFile = MavenUtil.findProfilesXmlFile(file);
+            key = MavenRawModelCache.getKey(
+                file.getPath(),
+                file.contentsToByteArray(),
+                profilesFile == null ? new byte[0] : profilesFile.contentsToByteArray()
+            );
+        }
+        catch (IOException e) {
+            MavenLog.LOG.debug(e);
+        }
 
-        return Pair.create(new RawModelReadResult(model, problems, alwaysOnProfiles), applied.getActivatedProfiles());
+        MavenRawModelCache cache = MavenRawModelCache.getInstance();
+        RawModelReadResult result = key == null ? null : cache.get(key, RawModelReadResult.class);
+        if (result == null) {
+            result = doReadProjectModel(file, false);
+            if (key != null && result.problems.isEmpty()) {
+                cache.put(key, result);
+            }
+        }
+        return result;
     }
 
     private RawModelReadResult doReadProjectModel(VirtualFile file, boolean headerOnly) {
@@ -189,52 +230,6 @@ public class MavenProjectReader {
         return result;
     }
 
-    private void repairModelBody(MavenModel model) {
-        MavenBuild build = model.getBuild();
-
-        if (isEmptyOrSpaces(build.getFinalName())) {
-            build.setFinalName("${project.artifactId}-${project.version}");
-        }
-
-        if (build.getSources().isEmpty()) {
-            build.addSource("src/main/java");
-        }
-        if (build.getTestSources().isEmpty()) {
-            build.addTestSource("src/test/java");
-        }
-
-        build.setResources(repairResources(build.getResources(), "src/main/resources"));
-        build.setTestResources(repairResources(build.getTestResources(), "src/test/resources"));
-
-        build.setDirectory(isEmptyOrSpaces(build.getDirectory()) ? "target" : build.getDirectory());
-        build.setOutputDirectory(
-            isEmptyOrSpaces(build.getOutputDirectory()) ? "${project.build.directory}/classes" : build.getOutputDirectory()
-        );
-        build.setTestOutputDirectory(
-            isEmptyOrSpaces(build.getTestOutputDirectory()) ? "${project.build.directory}/test-classes" : build.getTestOutputDirectory()
-        );
-    }
-
-    private List<MavenResource> repairResources(List<MavenResource> resources, String defaultDir) {
-        List<MavenResource> result = new ArrayList<>();
-        if (resources.isEmpty()) {
-            result.add(createResource(defaultDir));
-            return result;
-        }
-
-        for (MavenResource each : resources) {
-            if (isEmptyOrSpaces(each.getDirectory())) {
-                continue;
-            }
-            result.add(each);
-        }
-        return result;
-    }
-
-    private MavenResource createResource(String directory) {
-        return new MavenResource(directory, false, null, Collections.<String>emptyList(), Collections.<String>emptyList());
-    }
-
     private List<MavenProfile> collectProfiles(
         VirtualFile projectFile,
         Element xmlProject,
@@ -264,12 +259,7 @@ public class MavenProjectReader {
         return result;
     }
 
-    private void addSettingsProfiles(
-        MavenGeneralSettings generalSettings,
-        MavenModel model,
-        Set<String> alwaysOnProfiles,
-        Collection<MavenProjectProblem> problems
-    ) {
+    private SettingsProfilesCache getSettingsProfiles(MavenGeneralSettings generalSettings) {
         if (mySettingsProfilesCache == null) {
 
             List<MavenProfile> settingsProfiles = new ArrayList<>();
@@ -289,15 +279,7 @@ public class MavenProjectReader {
             }
             mySettingsProfilesCache = new SettingsProfilesCache(settingsProfiles, settingsAlwaysOnProfiles, settingsProblems);
         }
-
-        List<MavenProfile> modelProfiles = new ArrayList<>(model.getProfiles());
-        for (MavenProfile each : mySettingsProfilesCache.profiles) {
-            addProfileIfDoesNotExist(each, modelProfiles);
-        }
-        model.setProfiles(modelProfiles);
-
-        problems.addAll(mySettingsProfilesCache.problems);
-        alwaysOnProfiles.addAll(mySettingsProfilesCache.alwaysOnProfiles);
+        return mySettingsProfilesCache;
     }
 
     private void collectProfilesFromSettingsXmlOrProfilesXml(
@@ -334,7 +316,7 @@ public class MavenProjectReader {
             }
 
             MavenProfile profile = new MavenProfile(id, source);
-            if (!addProfileIfDoesNotExist(profile, result)) {
+            if (!MavenEffectiveModelBuilder.addProfileIfDoesNotExist(profile, result)) {
                 continue;
             }
 
@@ -378,16 +360,6 @@ public class MavenProjectReader {
         }
     }
 
-    private boolean addProfileIfDoesNotExist(MavenProfile profile, List<MavenProfile> result) {
-        for (MavenProfile each : result) {
-            if (Comparing.equal(each.getId(), profile.getId())) {
-                return false;
-            }
-        }
-        result.add(profile);
-        return true;
-    }
-
     private static void collectProperties(Element xmlProperties, MavenModelBase mavenModelBase) {
         if (xmlProperties == null) {
             return;
@@ -404,20 +376,14 @@ public class MavenProjectReader {
         }
     }
 
-    private static ProfileApplicationResult applyProfiles(
-        MavenModel model,
-        File basedir,
-        MavenExplicitProfiles explicitProfiles,
-        HashSet<String> alwaysOnProfiles
-    ) {
-        return MavenServerManager.getInstance().applyProfiles(model, basedir, explicitProfiles, alwaysOnProfiles);
-    }
-
-    private MavenModel resolveInheritance(
+    /**
+     * @return index of the parent request, {@link MavenEffectiveModelRequest#NO_PARENT} if there is no parent or it is not found
+     */
+    private int collectParentRequests(
         final MavenGeneralSettings generalSettings,
         MavenModel model,
         final VirtualFile file,
-        final MavenExplicitProfiles explicitProfiles,
+        final List<MavenEffectiveModelRequest> requests,
         final Set<VirtualFile> recursionGuard,
         final MavenProjectReaderProjectLocator locator,
         Collection<MavenProjectProblem> problems
@@ -429,12 +395,13 @@ public class MavenProjectReader {
                 MavenProjectProblem.ProblemType.PARENT,
                 true
             ));
-            return model;
+            return MavenEffectiveModelRequest.NO_PARENT;
         }
         recursionGuard.add(file);
 
         try {
             final MavenParentDesc[] parentDesc = new MavenParentDesc[1];
+            final int[] parentIndex = {MavenEffectiveModelRequest.NO_PARENT};
             MavenParent parent = model.getParent();
             if (parent != null) {
                 if (model.getMavenId().equals(parent.getMavenId())) {
@@ -444,7 +411,7 @@ public class MavenProjectReader {
                         MavenProjectProblem.ProblemType.PARENT,
                         true
                     ));
-                    return model;
+                    return MavenEffectiveModelRequest.NO_PARENT;
                 }
                 parentDesc[0] = new MavenParentDesc(parent.getMavenId(), parent.getRelativePath());
             }
@@ -477,13 +444,14 @@ public class MavenProjectReader {
                     @Override
                     protected Pair<VirtualFile, RawModelReadResult> doProcessParent(VirtualFile parentFile) {
                         RawModelReadResult result =
-                            doReadProjectModel(generalSettings, parentFile, explicitProfiles, recursionGuard, locator).first;
+                            collectModelRequests(generalSettings, parentFile, false, requests, recursionGuard, locator);
+                        parentIndex[0] = requests.size() - 1;
                         return Pair.create(parentFile, result);
                     }
                 }.process(generalSettings, file, parentDesc[0]);
 
             if (parentModelWithProblems == null) {
-                return model; // no parent or parent not found;
+                return MavenEffectiveModelRequest.NO_PARENT; // no parent or parent not found;
             }
 
             MavenModel parentModel = parentModelWithProblems.second.model;
@@ -496,19 +464,7 @@ public class MavenProjectReader {
                 ));
             }
 
-            model = MavenServerManager.getInstance().assembleInheritance(model, parentModel);
-
-            // todo: it is a quick-hack here - we add inherited dummy profiles to correctly collect activated profiles in 'applyProfiles'.
-            List<MavenProfile> profiles = model.getProfiles();
-            for (MavenProfile each : parentModel.getProfiles()) {
-                MavenProfile copyProfile = new MavenProfile(each.getId(), each.getSource());
-                if (each.getActivation() != null) {
-                    copyProfile.setActivation(each.getActivation().clone());
-                }
-
-                addProfileIfDoesNotExist(copyProfile, profiles);
-            }
-            return model;
+            return parentIndex[0];
         }
         finally {
             recursionGuard.remove(file);
@@ -525,22 +481,7 @@ public class MavenProjectReader {
         try {
             MavenServerExecutionResult result =
                 embedder.resolveProject(file, explicitProfiles.getEnabledProfiles(), explicitProfiles.getDisabledProfiles());
-            MavenServerExecutionResult.ProjectData projectData = result.projectData;
-            if (projectData == null) {
-                MavenProjectReaderResult temp = readProject(generalSettings, file, explicitProfiles, locator);
-                temp.readingProblems.addAll(result.problems);
-                temp.unresolvedArtifactIds.addAll(result.unresolvedArtifacts);
-                return temp;
-            }
-
-            return new MavenProjectReaderResult(
-                projectData.mavenModel,
-                projectData.mavenModelMap,
-                new MavenExplicitProfiles(projectData.activatedProfiles, explicitProfiles.getDisabledProfiles()),
-                projectData.nativeMavenProject,
-                result.problems,
-                result.unresolvedArtifacts
-            );
+            return toReaderResult(generalSettings, file, explicitProfiles, locator, result);
         }
         catch (MavenProcessCanceledException e) {
             throw e;
@@ -561,6 +502,72 @@ public class MavenProjectReader {
         }
     }
 
+    /**
+     * Resolves projects with the same profiles in one server call.
+     *
+     * @return the results in the order of the files
+     */
+    public List<MavenProjectReaderResult> resolveProjects(
+        MavenGeneralSettings generalSettings,
+        MavenEmbedderWrapper embedder,
+        List<VirtualFile> files,
+        MavenExplicitProfiles explicitProfiles,
+        MavenProjectReaderProjectLocator locator
+    ) throws MavenProcessCanceledException {
+        if (files.size() == 1) {
+            return Collections.singletonList(resolveProject(generalSettings, embedder, files.get(0), explicitProfiles, locator));
+        }
+
+        List<MavenServerExecutionResult> results;
+        try {
+            results = embedder.resolveProjects(files, explicitProfiles.getEnabledProfiles(), explicitProfiles.getDisabledProfiles());
+        }
+        catch (MavenProcessCanceledException e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            MavenLog.LOG.info(e);
+            results = null;
+        }
+
+        List<MavenProjectReaderResult> readerResults = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            VirtualFile file = files.get(i);
+            // the server could not resolve them together, each project reports its own problems then
+            readerResults.add(
+                results == null || results.size() != files.size()
+                    ? resolveProject(generalSettings, embedder, file, explicitProfiles, locator)
+                    : toReaderResult(generalSettings, file, explicitProfiles, locator, results.get(i))
+            );
+        }
+        return readerResults;
+    }
+
+    private MavenProjectReaderResult toReaderResult(
+        MavenGeneralSettings generalSettings,
+        VirtualFile file,
+        MavenExplicitProfiles explicitProfiles,
+        MavenProjectReaderProjectLocator locator,
+        MavenServerExecutionResult result
+    ) {
+        MavenServerExecutionResult.ProjectData projectData = result.projectData;
+        if (projectData == null) {
+            MavenProjectReaderResult temp = readProject(generalSettings, file, explicitProfiles, locator);
+            temp.readingProblems.addAll(result.problems);
+            temp.unresolvedArtifactIds.addAll(result.unresolvedArtifacts);
+            return temp;
+        }
+
+        return new MavenProjectReaderResult(
+            projectData.mavenModel,
+            projectData.mavenModelMap,
+            new MavenExplicitProfiles(projectData.activatedProfiles, explicitProfiles.getDisabledProfiles()),
+            projectData.nativeMavenProject,
+            result.problems,
+            result.unresolvedArtifacts
+        );
+    }
+
     @Nullable
     public static MavenProjectReaderResult generateSources(
         MavenEmbedderWrapper embedder,
@@ -625,7 +632,7 @@ public class MavenProjectReader {
         }
     }
 
-    private static class RawModelReadResult {
+    private static class RawModelReadResult implements Serializable {
         public MavenModel model;
         public Collection<MavenProjectProblem> problems;
         // do not set another type - due it will be not found at rmi client side
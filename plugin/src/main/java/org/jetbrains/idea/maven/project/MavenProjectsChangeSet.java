@@ -0,0 +1,132 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenId;
+import consulo.util.lang.Comparing;
+import consulo.util.lang.Pair;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * What an update or a resolve of the projects tree changed, for listeners that keep data derived from the projects
+ * up to date instead of collecting it again.
+ * <p>
+ * Projects added to the tree are reported whole, for the changed ones the changes tell which parts of them changed.
+ * The ids are the ones that appeared in and disappeared from the tree, including the old and the new id of
+ * a project whose id changed.
+ */
+public final class MavenProjectsChangeSet {
+    private final List<MavenProject> myAdded;
+    private final List<MavenProject> myRemoved;
+    private final Map<MavenProject, MavenProjectChanges> myChanged;
+    private final Set<MavenId> myAddedIds;
+    private final Set<MavenId> myRemovedIds;
+
+    private MavenProjectsChangeSet(
+        List<MavenProject> added,
+        List<MavenProject> removed,
+        Map<MavenProject, MavenProjectChanges> changed,
+        Set<MavenId> addedIds,
+        Set<MavenId> removedIds
+    ) {
+        myAdded = added;
+        myRemoved = removed;
+        myChanged = changed;
+        myAddedIds = addedIds;
+        myRemovedIds = removedIds;
+    }
+
+    /**
+     * @param updated    the updated projects with their changes
+     * @param removed    the projects removed from the tree, with their ids as they were
+     * @param previousId the id a project had before the changes, null for projects added to the tree
+     */
+    @Nonnull
+    static MavenProjectsChangeSet create(
+        @Nonnull Map<MavenProject, MavenProjectChanges> updated,
+        @Nonnull Collection<MavenProject> removed,
+        @Nonnull Function<MavenProject, MavenId> previousId
+    ) {
+        List<MavenProject> added = new ArrayList<>();
+        Map<MavenProject, MavenProjectChanges> changed = new LinkedHashMap<>();
+        Set<MavenId> addedIds = new LinkedHashSet<>();
+        Set<MavenId> removedIds = new LinkedHashSet<>();
+
+        for (Map.Entry<MavenProject, MavenProjectChanges> each : updated.entrySet()) {
+            MavenProject project = each.getKey();
+            MavenId before = previousId.apply(project);
+            if (before == null) {
+                added.add(project);
+                addedIds.add(project.getMavenId());
+                continue;
+            }
+            changed.put(project, each.getValue());
+            if (!Comparing.equal(before, project.getMavenId())) {
+                removedIds.add(before);
+                addedIds.add(project.getMavenId());
+            }
+        }
+        for (MavenProject each : removed) {
+            removedIds.add(each.getMavenId());
+        }
+        // an id both added and removed moved from one project to another and stays in the tree
+        Set<MavenId> moved = new HashSet<>(addedIds);
+        moved.retainAll(removedIds);
+        addedIds.removeAll(moved);
+        removedIds.removeAll(moved);
+
+        return new MavenProjectsChangeSet(added, new ArrayList<>(removed), changed, addedIds, removedIds);
+    }
+
+    @Nonnull
+    static MavenProjectsChangeSet resolved(
+        @Nonnull MavenProject project,
+        @Nonnull MavenId previousId,
+        @Nonnull MavenProjectChanges changes
+    ) {
+        return create(Collections.singletonMap(project, changes), Collections.emptyList(), p -> previousId);
+    }
+
+    public boolean isEmpty() {
+        return myAdded.isEmpty() && myRemoved.isEmpty() && myChanged.isEmpty();
+    }
+
+    @Nonnull
+    public List<MavenProject> getAdded() {
+        return Collections.unmodifiableList(myAdded);
+    }
+
+    @Nonnull
+    public List<MavenProject> getRemoved() {
+        return Collections.unmodifiableList(myRemoved);
+    }
+
+    @Nonnull
+    public List<Pair<MavenProject, MavenProjectChanges>> getChanged() {
+        List<Pair<MavenProject, MavenProjectChanges>> result = new ArrayList<>(myChanged.size());
+        for (Map.Entry<MavenProject, MavenProjectChanges> each : myChanged.entrySet()) {
+            result.add(Pair.create(each.getKey(), each.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * @return the changes of a project that was in the tree before, null if it was added or not changed
+     */
+    @Nullable
+    public MavenProjectChanges getChanges(@Nonnull MavenProject project) {
+        return myChanged.get(project);
+    }
+
+    @Nonnull
+    public Set<MavenId> getAddedIds() {
+        return Collections.unmodifiableSet(myAddedIds);
+    }
+
+    @Nonnull
+    public Set<MavenId> getRemovedIds() {
+        return Collections.unmodifiableSet(myRemovedIds);
+    }
+}
@@ -20,6 +20,7 @@ import consulo.annotation.component.ServiceAPI;
 import consulo.annotation.component.ServiceImpl;
 import consulo.application.Application;
 import consulo.application.ReadAction;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.component.persist.*;
 import consulo.component.util.ModificationTracker;
 import consulo.disposer.Disposable;
@@ -58,6 +59,7 @@ import org.jetbrains.idea.maven.importing.MavenFoldersImporter;
 import org.jetbrains.idea.maven.importing.MavenModifiableModelsProvider;
 import org.jetbrains.idea.maven.importing.MavenProjectImporter;
 import org.jetbrains.idea.maven.localize.MavenProjectLocalize;
+import org.jetbrains.idea.maven.server.MavenServerManager;
 import org.jetbrains.idea.maven.utils.MavenLog;
 import org.jetbrains.idea.maven.utils.MavenMergingUpdateQueue;
 import org.jetbrains.idea.maven.utils.MavenSimpleProjectComponent;
@@ -214,6 +216,11 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
             listenForSettingsChanges();
             listenForProjectsTreeChanges();
 
+            // the server starts while the project is still opening
+            if (!isUnitTestMode()) {
+                warmUpEmbedders();
+            }
+
             MavenUtil.runWhenInitialized(
                 myProject,
                 () -> {
@@ -230,6 +237,24 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
         }
     }
 
+    /**
+     * With {@link MavenEmbeddersManager#isPrespawn()}, starts the embedder for resolving in the background while the projects
+     * are read.
+     */
+    private void warmUpEmbedders() {
+        if (!MavenEmbeddersManager.isPrespawn()) {
+            return;
+        }
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            try {
+                myEmbeddersManager.warmUp(MavenEmbeddersManager.FOR_DEPENDENCIES_RESOLVE);
+            }
+            catch (RuntimeException e) {
+                MavenLog.LOG.info(e);
+            }
+        });
+    }
+
     private void initProjectsTree(boolean tryToLoadExisting) {
         if (tryToLoadExisting) {
             File file = getProjectsTreeFile();
@@ -463,6 +488,9 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
             myArtifactsDownloadingProcessor.stop();
             myPostProcessor.stop();
 
+            myEmbeddersManager.dispose();
+            MavenServerManager.getInstance().projectClosed(myProject);
+
             if (isUnitTestMode()) {
                 FileUtil.delete(getProjectsTreesDir());
             }
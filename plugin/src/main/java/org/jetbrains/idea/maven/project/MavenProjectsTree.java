@@ -26,7 +26,7 @@ import consulo.module.content.ProjectFileIndex;
 import consulo.project.Project;
 import consulo.util.collection.HashingStrategy;
 import consulo.util.collection.Lists;
-import consulo.util.collection.Sets;
+import consulo.util.collection.Maps;
 import consulo.util.collection.Stack;
 import consulo.util.dataholder.Key;
 import consulo.util.io.FileUtil;
@@ -51,17 +51,31 @@ import consulo.application.util.concurrent.AppExecutorUtil;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
 
 public class MavenProjectsTree {
     private static final Logger LOG = Logger.getInstance(MavenProjectsTree.class);
 
-    private static final String STORAGE_VERSION = MavenProjectsTree.class.getSimpleName() + ".6";
+    private static final String STORAGE_VERSION = MavenProjectsTree.class.getSimpleName() + ".8";
+
+    private static final int READ_PARALLELISM =
+        Integer.getInteger("idea.maven.projects.read.threads", Runtime.getRuntime().availableProcessors());
+
+    // projects per resolve call to the server, 1 resolves them one by one to compare the resolve times logged by resolveGroup
+    private static final int RESOLVE_BATCH_SIZE = Math.max(1, Integer.getInteger("idea.maven.resolve.batch.size", Integer.MAX_VALUE));
+    // compare POM and settings files by contents, so that touching a file without changing it does not cause a re-read
+    private static final boolean CONTENT_DIGESTS = Boolean.getBoolean("idea.maven.projects.content.digests");
 
     private final Object myStateLock = new Object();
     private final ReentrantReadWriteLock myStructureLock = new ReentrantReadWriteLock();
@@ -78,19 +92,31 @@ public class MavenProjectsTree {
     private final MavenExplicitProfiles myTemporarilyRemovedExplicitProfiles =
         new MavenExplicitProfiles(new HashSet<>(), new HashSet<>());
 
-    private final List<MavenProject> myRootProjects = new ArrayList<>();
-
     private final Map<MavenProject, MavenProjectTimestamp> myTimestamps = new ConcurrentHashMap<>();
-    private final MavenWorkspaceMap myWorkspaceMap = new MavenWorkspaceMap();
-    private final Map<MavenId, MavenProject> myMavenIdToProjectMapping = new HashMap<>();
-    private final Map<VirtualFile, MavenProject> myVirtualFileToProjectMapping = new HashMap<>();
-    private final Map<MavenProject, List<MavenProject>> myAggregatorToModuleMapping = new HashMap<>();
-    private final Map<MavenProject, MavenProject> myModuleToAggregatorMapping = new HashMap<>();
+    // digests by file, recalculated only when the file timestamp or length changes
+    private final Map<VirtualFile, ContentDigest> myContentDigests = new ConcurrentHashMap<>();
+    // changed by update passes under the structure write lock, read by them under the read lock
+    private final Structure myStructure = new Structure();
+    // what the readers see, published once per update pass so that reading takes no lock
+    private volatile Structure mySnapshot = new Structure();
+    // built from the snapshot on the first getDependentProjects call, so that reading the tree does not decode every project's
+    // dependencies; guards the index, the sets of projects it has not caught up with and the publication of the snapshot
+    private final Object myDependencyIndexLock = new Object();
+    @Nullable
+    private MavenReverseIndex<MavenCoordinate, MavenProject> myDependencyToDependentsIndex;
+    // projects added, removed or with new dependencies since the last publication
+    private final Set<MavenProject> myUnpublishedDependents = new HashSet<>();
+    // such projects the snapshot already shows, applied to the index by the next getDependentProjects call
+    private final Set<MavenProject> myPublishedDependents = new HashSet<>();
 
     private final List<Listener> myListeners = Lists.newLockFreeCopyOnWriteList();
 
+    // dictionary of the file the tree was read from, reused on save while some project states are still encoded
+    @Nullable
+    private volatile MavenProjectsTreeStorage.Dictionary myStoredDictionary;
+
     private final MavenProjectReaderProjectLocator myProjectLocator = coordinates -> {
-        MavenProject project = findProject(coordinates);
+        MavenProject project = readStructure(s -> s.findProject(coordinates));
         return project == null ? null : project.getFile();
     };
 
@@ -108,7 +134,11 @@ public class MavenProjectsTree {
                 result.myIgnoredFilesPatterns = readCollection(in, new ArrayList<>());
                 result.myExplicitProfiles =
                     new MavenExplicitProfiles(readCollection(in, new HashSet<>()), readCollection(in, new HashSet<>()));
-                result.myRootProjects.addAll(readProjectsRecursively(in, result));
+
+                MavenProjectsTreeStorage.Input body = MavenProjectsTreeStorage.Input.read(in);
+                result.myStoredDictionary = body.getDictionary();
+                result.myStructure.myRootProjects.addAll(readProjectsRecursively(body, result, new PomFinder()));
+                result.publishStructure();
             }
             catch (IOException e) {
                 in.close();
@@ -137,27 +167,64 @@ public class MavenProjectsTree {
         }
     }
 
-    private static List<MavenProject> readProjectsRecursively(DataInputStream in, MavenProjectsTree tree) throws IOException {
-        int count = in.readInt();
+    private static List<MavenProject> readProjectsRecursively(MavenProjectsTreeStorage.Input in, MavenProjectsTree tree, PomFinder finder)
+        throws IOException {
+        int count = in.readVarInt();
         List<MavenProject> result = new ArrayList<>(count);
         while (count-- > 0) {
-            MavenProject project = MavenProject.read(in);
+            MavenProject project = MavenProject.read(in, finder);
             MavenProjectTimestamp timestamp = MavenProjectTimestamp.read(in);
-            List<MavenProject> modules = readProjectsRecursively(in, tree);
+            List<MavenProject> modules = readProjectsRecursively(in, tree, finder);
             if (project != null) {
                 result.add(project);
                 tree.myTimestamps.put(project, timestamp);
-                tree.myVirtualFileToProjectMapping.put(project.getFile(), project);
+                tree.myStructure.myVirtualFileToProjectMapping.put(project.getFile(), project);
                 tree.fillIDMaps(project);
-                tree.myAggregatorToModuleMapping.put(project, modules);
+                tree.myStructure.myAggregatorToModuleMapping.put(project, modules);
                 for (MavenProject eachModule : modules) {
-                    tree.myModuleToAggregatorMapping.put(eachModule, project);
+                    tree.myStructure.myModuleToAggregatorMapping.put(eachModule, project);
                 }
             }
         }
         return result;
     }
 
+    /**
+     * Finds the POMs of a stored tree. Module directories mostly lie under the ones of their aggregators, so every directory
+     * is looked up once as a child of its already found parent instead of walking the whole path for every POM.
+     */
+    private static class PomFinder implements Function<String, VirtualFile> {
+        private final Map<String, VirtualFile> myDirectories = new HashMap<>();
+
+        @Nullable
+        @Override
+        public VirtualFile apply(String path) {
+            int separator = path.lastIndexOf('/');
+            if (separator < 0 || separator == path.length() - 1) {
+                return LocalFileSystem.getInstance().findFileByPath(path);
+            }
+            // a root keeps its slash: "/" or "C:/"
+            boolean inRoot = separator == 0 || separator == 2 && path.charAt(1) == ':';
+            VirtualFile directory = findDirectory(path.substring(0, inRoot ? separator + 1 : separator));
+            VirtualFile result = directory == null ? null : directory.findChild(path.substring(separator + 1));
+            // the walk does not resolve everything the file system does, e.g. ".." or a differently cased path
+            return result != null ? result : LocalFileSystem.getInstance().findFileByPath(path);
+        }
+
+        @Nullable
+        private VirtualFile findDirectory(String path) {
+            if (myDirectories.containsKey(path)) {
+                return myDirectories.get(path);
+            }
+            VirtualFile result = apply(path);
+            if (result != null && !result.isDirectory()) {
+                result = null;
+            }
+            myDirectories.put(path, result);
+            return result;
+        }
+    }
+
     public void save(File file) throws IOException {
         synchronized (myStateLock) {
             readLock();
@@ -170,7 +237,10 @@ public class MavenProjectsTree {
                     writeCollection(out, myIgnoredFilesPatterns);
                     writeCollection(out, myExplicitProfiles.getEnabledProfiles());
                     writeCollection(out, myExplicitProfiles.getDisabledProfiles());
-                    writeProjectsRecursively(out, myRootProjects);
+
+                    MavenProjectsTreeStorage.Output body = new MavenProjectsTreeStorage.Output(getStoredDictionary());
+                    writeProjectsRecursively(body, myStructure.myRootProjects);
+                    body.writeTo(out);
                 }
             }
             finally {
@@ -179,12 +249,25 @@ public class MavenProjectsTree {
         }
     }
 
-    private void writeProjectsRecursively(DataOutputStream out, List<MavenProject> list) throws IOException {
-        out.writeInt(list.size());
+    /**
+     * @return the dictionary states not decoded since the tree was read refer to, null once they all have been
+     */
+    @Nullable
+    private MavenProjectsTreeStorage.Dictionary getStoredDictionary() {
+        if (myStoredDictionary != null
+            && myStructure.myVirtualFileToProjectMapping.values().stream().noneMatch(MavenProject::isStateStored)) {
+            myStoredDictionary = null;
+        }
+        return myStoredDictionary;
+    }
+
+    private void writeProjectsRecursively(MavenProjectsTreeStorage.Output out, List<MavenProject> list) {
+        out.writeVarInt(list.size());
         for (MavenProject each : list) {
             each.write(out);
-            myTimestamps.get(each).write(out);
-            writeProjectsRecursively(out, getModules(each));
+            // a project saved with an empty state is read again after the tree is loaded
+            (each.isStateLost() ? MavenProjectTimestamp.NEVER_READ : myTimestamps.get(each)).write(out);
+            writeProjectsRecursively(out, myStructure.getModules(each));
         }
     }
 
@@ -473,6 +556,7 @@ public class MavenProjectsTree {
         );
 
         updater.updateProjects(new ArrayList<>(files), force);
+        publishStructure();
 
         updateExplicitProfiles();
         updateContext.fireUpdatedIfNecessary();
@@ -491,7 +575,7 @@ public class MavenProjectsTree {
         MavenProject newMavenProject = new MavenProject(f);
 
         MavenProject intendedAggregator = null;
-        for (MavenProject each : getProjects()) {
+        for (MavenProject each : readStructure(s -> new ArrayList<>(s.myVirtualFileToProjectMapping.values()))) {
             if (each.getExistingModuleFiles().contains(f)) {
                 intendedAggregator = each;
                 break;
@@ -535,15 +619,15 @@ public class MavenProjectsTree {
         process.setText(MavenProjectLocalize.mavenReadingPom(mavenProject.getPath()).get());
         process.setText2("");
 
-        List<MavenProject> prevModules = getModules(mavenProject);
+        List<MavenProject> prevModules = readStructure(s -> s.getModules(mavenProject));
 
         Set<MavenProject> prevInheritors = new HashSet<>();
         if (!isNew) {
-            prevInheritors.addAll(findInheritors(mavenProject));
+            prevInheritors.addAll(readStructure(s -> s.findInheritors(mavenProject)));
         }
 
         MavenProjectTimestamp timestamp = calculateTimestamp(mavenProject, explicitProfiles, generalSettings);
-        boolean isChanged = force || !timestamp.equals(myTimestamps.get(mavenProject));
+        boolean isChanged = force || mavenProject.isStateLost() || !timestamp.equals(myTimestamps.get(mavenProject));
 
         MavenProjectChanges changes = force ? MavenProjectChanges.ALL : MavenProjectChanges.NONE;
         if (isChanged) {
@@ -561,7 +645,7 @@ public class MavenProjectsTree {
 
             writeLock();
             try {
-                myVirtualFileToProjectMapping.put(mavenProject.getFile(), mavenProject);
+                myStructure.myVirtualFileToProjectMapping.put(mavenProject.getFile(), mavenProject);
                 fillIDMaps(mavenProject);
             }
             finally {
@@ -615,13 +699,14 @@ public class MavenProjectsTree {
         }
 
         for (VirtualFile each : existingModuleFiles) {
-            MavenProject module = findProject(each);
+            MavenProject module = readStructure(s -> s.findProject(each));
             boolean isNewModule = module == null;
             if (isNewModule) {
                 module = new MavenProject(each);
             }
             else {
-                MavenProject currentAggregator = findAggregator(module);
+                MavenProject existingModule = module;
+                MavenProject currentAggregator = readStructure(s -> s.findAggregator(existingModule));
                 if (currentAggregator != null && currentAggregator != mavenProject) {
                     MavenLog.LOG.info("Module " + each + " is already included into " + mavenProject.getFile());
                     continue;
@@ -651,12 +736,12 @@ public class MavenProjectsTree {
             }
         }
 
-        prevInheritors.addAll(findInheritors(mavenProject));
+        prevInheritors.addAll(readStructure(s -> s.findInheritors(mavenProject)));
 
         for (MavenProject each : prevInheritors) {
             doUpdate(
                 each,
-                findAggregator(each),
+                readStructure(s -> s.findAggregator(each)),
                 false,
                 false,
                 // no need to go recursively in case of inheritance, only when updating modules
@@ -680,14 +765,14 @@ public class MavenProjectsTree {
     ) {
         return ReadAction.compute(() ->
         {
-            long pomTimestamp = getFileTimestamp(mavenProject.getFile());
+            long pomTimestamp = getFileStamp(mavenProject.getFile());
             MavenProject parent = findParent(mavenProject);
             long parentLastReadStamp = parent == null ? -1 : parent.getLastReadStamp();
             VirtualFile profilesXmlFile = mavenProject.getProfilesXmlFile();
-            long profilesTimestamp = getFileTimestamp(profilesXmlFile);
+            long profilesTimestamp = getFileStamp(profilesXmlFile);
 
-            long userSettingsTimestamp = getFileTimestamp(generalSettings.getEffectiveUserSettingsFile());
-            long globalSettingsTimestamp = getFileTimestamp(generalSettings.getEffectiveGlobalSettingsFile());
+            long userSettingsTimestamp = getFileStamp(generalSettings.getEffectiveUserSettingsFile());
+            long globalSettingsTimestamp = getFileStamp(generalSettings.getEffectiveGlobalSettingsFile());
 
             int profilesHashCode = explicitProfiles.hashCode();
 
@@ -702,11 +787,39 @@ public class MavenProjectsTree {
         });
     }
 
-    private static long getFileTimestamp(VirtualFile file) {
+    /**
+     * @return the timestamp of the file, or a digest of its contents in the content digests mode
+     */
+    private long getFileStamp(VirtualFile file) {
         if (file == null || !file.isValid()) {
             return -1;
         }
-        return file.getTimeStamp();
+        long timestamp = file.getTimeStamp();
+        if (!CONTENT_DIGESTS) {
+            return timestamp;
+        }
+
+        long length = file.getLength();
+        ContentDigest digest = myContentDigests.get(file);
+        if (digest == null || digest.timestamp() != timestamp || digest.length() != length) {
+            byte[] content;
+            try {
+                content = file.contentsToByteArray();
+            }
+            catch (IOException e) {
+                MavenLog.LOG.debug(e);
+                return timestamp;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(content);
+            // the length makes a collision less likely for the same price
+            digest = new ContentDigest(timestamp, length, (long)content.length << 32 | crc.getValue());
+            myContentDigests.put(file, digest);
+        }
+        return digest.digest();
+    }
+
+    private record ContentDigest(long timestamp, long length, long digest) {
     }
 
     public boolean isManagedFile(VirtualFile moduleFile) {
@@ -760,13 +873,13 @@ public class MavenProjectsTree {
 
         Set<MavenProject> inheritorsToUpdate = new HashSet<>();
         for (VirtualFile each : files) {
-            MavenProject mavenProject = findProject(each);
+            MavenProject mavenProject = readStructure(s -> s.findProject(each));
             if (mavenProject == null) {
                 return;
             }
 
-            inheritorsToUpdate.addAll(findInheritors(mavenProject));
-            doDelete(findAggregator(mavenProject), mavenProject, updateContext);
+            inheritorsToUpdate.addAll(readStructure(s -> s.findInheritors(mavenProject)));
+            doDelete(readStructure(s -> s.findAggregator(mavenProject)), mavenProject, updateContext);
         }
         inheritorsToUpdate.removeAll(updateContext.deletedProjects);
 
@@ -785,13 +898,14 @@ public class MavenProjectsTree {
                 process
             );
         }
+        publishStructure();
 
         updateExplicitProfiles();
         updateContext.fireUpdatedIfNecessary();
     }
 
     private void doDelete(MavenProject aggregator, MavenProject project, UpdateContext updateContext) {
-        for (MavenProject each : getModules(project)) {
+        for (MavenProject each : readStructure(s -> s.getModules(project))) {
             if (isManagedFile(each.getPath())) {
                 if (reconnect(null, each)) {
                     updateContext.update(each, MavenProjectChanges.NONE);
@@ -808,13 +922,15 @@ public class MavenProjectsTree {
                 removeModule(aggregator, project);
             }
             else {
-                myRootProjects.remove(project);
+                myStructure.myRootProjects.remove(project);
             }
             myTimestamps.remove(project);
-            myVirtualFileToProjectMapping.remove(project.getFile());
+            myStructure.myVirtualFileToProjectMapping.remove(project.getFile());
+            myContentDigests.remove(project.getFile());
             clearIDMaps(project);
-            myAggregatorToModuleMapping.remove(project);
-            myModuleToAggregatorMapping.remove(project);
+            removeFromReverseIndices(project);
+            myStructure.myAggregatorToModuleMapping.remove(project);
+            myStructure.myModuleToAggregatorMapping.remove(project);
         }
         finally {
             writeUnlock();
@@ -825,14 +941,41 @@ public class MavenProjectsTree {
 
     private void fillIDMaps(MavenProject mavenProject) {
         MavenId id = mavenProject.getMavenId();
-        myWorkspaceMap.register(id, new File(mavenProject.getFile().getPath()));
-        myMavenIdToProjectMapping.put(id, mavenProject);
+        myStructure.myWorkspaceMap.register(id, new File(mavenProject.getFile().getPath()));
+        myStructure.myMavenIdToProjectMapping.put(id, mavenProject);
+        updateReverseIndices(mavenProject);
+    }
+
+    /**
+     * Must be called under the write lock whenever the parent, the modules or the dependencies of a project may have changed.
+     *
+     * @return whether the parent or the modules of the project changed
+     */
+    private boolean updateReverseIndices(MavenProject mavenProject) {
+        MavenId parentId = mavenProject.getParentId();
+        boolean changed = myStructure.myParentIdToInheritorsIndex.register(
+            mavenProject,
+            parentId == null ? Collections.emptySet() : Collections.singleton(parentId)
+        );
+        changed |= myStructure.myModulePathToAggregatorsIndex.register(mavenProject, mavenProject.getModulePaths());
+        synchronized (myDependencyIndexLock) {
+            myUnpublishedDependents.add(mavenProject);
+        }
+        return changed;
+    }
+
+    private void removeFromReverseIndices(MavenProject mavenProject) {
+        myStructure.myParentIdToInheritorsIndex.unregister(mavenProject);
+        myStructure.myModulePathToAggregatorsIndex.unregister(mavenProject);
+        synchronized (myDependencyIndexLock) {
+            myUnpublishedDependents.add(mavenProject);
+        }
     }
 
     private void clearIDMaps(MavenProject mavenProject) {
         MavenId id = mavenProject.getMavenId();
-        myWorkspaceMap.unregister(id);
-        myMavenIdToProjectMapping.remove(id);
+        myStructure.myWorkspaceMap.unregister(id);
+        myStructure.myMavenIdToProjectMapping.remove(id);
     }
 
     private void connect(MavenProject newAggregator, MavenProject project) {
@@ -842,7 +985,7 @@ public class MavenProjectsTree {
                 addModule(newAggregator, project);
             }
             else {
-                myRootProjects.add(project);
+                myStructure.myRootProjects.add(project);
             }
         }
         finally {
@@ -851,7 +994,7 @@ public class MavenProjectsTree {
     }
 
     private boolean reconnect(MavenProject newAggregator, MavenProject project) {
-        MavenProject prevAggregator = findAggregator(project);
+        MavenProject prevAggregator = readStructure(s -> s.findAggregator(project));
 
         if (prevAggregator == newAggregator) {
             return false;
@@ -863,14 +1006,14 @@ public class MavenProjectsTree {
                 removeModule(prevAggregator, project);
             }
             else {
-                myRootProjects.remove(project);
+                myStructure.myRootProjects.remove(project);
             }
 
             if (newAggregator != null) {
                 addModule(newAggregator, project);
             }
             else {
-                myRootProjects.add(project);
+                myStructure.myRootProjects.add(project);
             }
         }
         finally {
@@ -881,23 +1024,11 @@ public class MavenProjectsTree {
     }
 
     public boolean hasProjects() {
-        readLock();
-        try {
-            return !myRootProjects.isEmpty();
-        }
-        finally {
-            readUnlock();
-        }
+        return !mySnapshot.myRootProjects.isEmpty();
     }
 
     public List<MavenProject> getRootProjects() {
-        readLock();
-        try {
-            return new ArrayList<>(myRootProjects);
-        }
-        finally {
-            readUnlock();
-        }
+        return new ArrayList<>(mySnapshot.myRootProjects);
     }
 
     private static void updateCrc(CRC32 crc, int x) {
@@ -943,96 +1074,90 @@ public class MavenProjectsTree {
     public int getFilterConfigCrc(ProjectFileIndex fileIndex) {
         Application.get().assertReadAccessAllowed();
 
-        readLock();
-        try {
-            final CRC32 crc = new CRC32();
+        final CRC32 crc = new CRC32();
 
-            MavenExplicitProfiles profiles = myExplicitProfiles;
-            if (profiles != null) {
-                updateCrc(crc, profiles.hashCode());
-            }
+        MavenExplicitProfiles profiles = myExplicitProfiles;
+        if (profiles != null) {
+            updateCrc(crc, profiles.hashCode());
+        }
 
-            Collection<MavenProject> allProjects = myVirtualFileToProjectMapping.values();
+        Collection<MavenProject> allProjects = mySnapshot.myVirtualFileToProjectMapping.values();
 
-            crc.update(allProjects.size() & 0xFF);
-            for (MavenProject mavenProject : allProjects) {
-                VirtualFile pomFile = mavenProject.getFile();
-                Module module = fileIndex.getModuleForFile(pomFile);
-                if (module == null) {
-                    continue;
-                }
+        crc.update(allProjects.size() & 0xFF);
+        for (MavenProject mavenProject : allProjects) {
+            VirtualFile pomFile = mavenProject.getFile();
+            Module module = fileIndex.getModuleForFile(pomFile);
+            if (module == null) {
+                continue;
+            }
 
-                if (!Comparing.equal(fileIndex.getContentRootForFile(pomFile), pomFile.getParent())) {
-                    continue;
-                }
+            if (!Comparing.equal(fileIndex.getContentRootForFile(pomFile), pomFile.getParent())) {
+                continue;
+            }
 
-                updateCrc(crc, module.getName());
+            updateCrc(crc, module.getName());
 
-                MavenId mavenId = mavenProject.getMavenId();
-                updateCrc(crc, mavenId.getGroupId());
-                updateCrc(crc, mavenId.getArtifactId());
-                updateCrc(crc, mavenId.getVersion());
+            MavenId mavenId = mavenProject.getMavenId();
+            updateCrc(crc, mavenId.getGroupId());
+            updateCrc(crc, mavenId.getArtifactId());
+            updateCrc(crc, mavenId.getVersion());
 
-                MavenId parentId = mavenProject.getParentId();
-                if (parentId != null) {
-                    updateCrc(crc, parentId.getGroupId());
-                    updateCrc(crc, parentId.getArtifactId());
-                    updateCrc(crc, parentId.getVersion());
-                }
+            MavenId parentId = mavenProject.getParentId();
+            if (parentId != null) {
+                updateCrc(crc, parentId.getGroupId());
+                updateCrc(crc, parentId.getArtifactId());
+                updateCrc(crc, parentId.getVersion());
+            }
 
-                updateCrc(crc, mavenProject.getDirectory());
-                updateCrc(crc, MavenFilteredPropertyPsiReferenceProvider.getDelimitersPattern(mavenProject).pattern());
-                updateCrc(crc, mavenProject.getModelMap().hashCode());
-                updateCrc(crc, mavenProject.getResources().hashCode());
-                updateCrc(crc, mavenProject.getTestResources().hashCode());
-                updateCrc(crc, getFilterExclusions(mavenProject).hashCode());
-                updateCrc(crc, mavenProject.getProperties().hashCode());
-
-                for (String each : mavenProject.getFilterPropertiesFiles()) {
-                    File file = new File(each);
-                    updateCrc(crc, file.lastModified());
-                }
+            updateCrc(crc, mavenProject.getDirectory());
+            updateCrc(crc, MavenFilteredPropertyPsiReferenceProvider.getDelimitersPattern(mavenProject).pattern());
+            updateCrc(crc, mavenProject.getModelMap().hashCode());
+            updateCrc(crc, mavenProject.getResources().hashCode());
+            updateCrc(crc, mavenProject.getTestResources().hashCode());
+            updateCrc(crc, getFilterExclusions(mavenProject).hashCode());
+            updateCrc(crc, mavenProject.getProperties().hashCode());
 
-                XMLOutputter outputter = new XMLOutputter(Format.getCompactFormat());
+            for (String each : mavenProject.getFilterPropertiesFiles()) {
+                File file = new File(each);
+                updateCrc(crc, file.lastModified());
+            }
 
-                Writer crcWriter = new Writer() {
-                    @Override
-                    public void write(char[] cbuf, int off, int len) throws IOException {
-                        for (int i = off, end = off + len; i < end; i++) {
-                            crc.update(cbuf[i]);
-                        }
-                    }
+            XMLOutputter outputter = new XMLOutputter(Format.getCompactFormat());
 
-                    @Override
-                    public void flush() throws IOException {
+            Writer crcWriter = new Writer() {
+                @Override
+                public void write(char[] cbuf, int off, int len) throws IOException {
+                    for (int i = off, end = off + len; i < end; i++) {
+                        crc.update(cbuf[i]);
                     }
+                }
 
-                    @Override
-                    public void close() throws IOException {
-                    }
-                };
+                @Override
+                public void flush() throws IOException {
+                }
 
-                try {
-                    Element resourcePluginCfg = mavenProject.getPluginConfiguration("org.apache.maven.plugins", "maven-resources-plugin");
-                    if (resourcePluginCfg != null) {
-                        outputter.output(resourcePluginCfg, crcWriter);
-                    }
+                @Override
+                public void close() throws IOException {
+                }
+            };
 
-                    Element warPluginCfg = mavenProject.getPluginConfiguration("org.apache.maven.plugins", "maven-war-plugin");
-                    if (warPluginCfg != null) {
-                        outputter.output(warPluginCfg, crcWriter);
-                    }
+            try {
+                Element resourcePluginCfg = mavenProject.getPluginConfiguration("org.apache.maven.plugins", "maven-resources-plugin");
+                if (resourcePluginCfg != null) {
+                    outputter.output(resourcePluginCfg, crcWriter);
                 }
-                catch (IOException e) {
-                    LOG.error(e);
+
+                Element warPluginCfg = mavenProject.getPluginConfiguration("org.apache.maven.plugins", "maven-war-plugin");
+                if (warPluginCfg != null) {
+                    outputter.output(warPluginCfg, crcWriter);
                 }
             }
-
-            return (int)crc.getValue();
-        }
-        finally {
-            readUnlock();
+            catch (IOException e) {
+                LOG.error(e);
+            }
         }
+
+        return (int)crc.getValue();
     }
 
     public List<VirtualFile> getRootProjectsFiles() {
@@ -1040,61 +1165,31 @@ public class MavenProjectsTree {
     }
 
     public List<MavenProject> getProjects() {
-        readLock();
-        try {
-            return new ArrayList<>(myVirtualFileToProjectMapping.values());
-        }
-        finally {
-            readUnlock();
-        }
+        return new ArrayList<>(mySnapshot.myVirtualFileToProjectMapping.values());
     }
 
     public List<MavenProject> getNonIgnoredProjects() {
-        readLock();
-        try {
-            List<MavenProject> result = new ArrayList<>();
-            for (MavenProject each : myVirtualFileToProjectMapping.values()) {
-                if (!isIgnored(each)) {
-                    result.add(each);
-                }
+        List<MavenProject> result = new ArrayList<>();
+        for (MavenProject each : mySnapshot.myVirtualFileToProjectMapping.values()) {
+            if (!isIgnored(each)) {
+                result.add(each);
             }
-            return result;
-        }
-        finally {
-            readUnlock();
         }
+        return result;
     }
 
     public List<VirtualFile> getProjectsFiles() {
-        readLock();
-        try {
-            return new ArrayList<>(myVirtualFileToProjectMapping.keySet());
-        }
-        finally {
-            readUnlock();
-        }
+        return new ArrayList<>(mySnapshot.myVirtualFileToProjectMapping.keySet());
     }
 
     @Nullable
     public MavenProject findProject(VirtualFile f) {
-        readLock();
-        try {
-            return myVirtualFileToProjectMapping.get(f);
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.findProject(f);
     }
 
     @Nullable
     public MavenProject findProject(MavenId id) {
-        readLock();
-        try {
-            return myMavenIdToProjectMapping.get(id);
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.findProject(id);
     }
 
     @Nullable
@@ -1103,74 +1198,36 @@ public class MavenProjectsTree {
     }
 
     private MavenWorkspaceMap getWorkspaceMap() {
-        readLock();
-        try {
-            return myWorkspaceMap.copy();
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.myWorkspaceMap.copy();
     }
 
     public MavenProject findAggregator(MavenProject project) {
-        readLock();
-        try {
-            return myModuleToAggregatorMapping.get(project);
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.findAggregator(project);
     }
 
     public MavenProject findRootProject(@Nonnull MavenProject project) {
-        readLock();
-        try {
-            MavenProject rootProject = project;
-            while (true) {
-                MavenProject aggregator = myModuleToAggregatorMapping.get(rootProject);
-                if (aggregator == null) {
-                    return rootProject;
-                }
-                rootProject = aggregator;
-            }
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.findRootProject(project);
     }
 
     public boolean isRootProject(@Nonnull MavenProject project) {
-        readLock();
-        try {
-            return myModuleToAggregatorMapping.get(project) == null;
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.findAggregator(project) == null;
     }
 
     public List<MavenProject> getModules(MavenProject aggregator) {
-        readLock();
-        try {
-            List<MavenProject> modules = myAggregatorToModuleMapping.get(aggregator);
-            return modules == null ? Collections.<MavenProject>emptyList() : new ArrayList<>(modules);
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.getModules(aggregator);
     }
 
     private void addModule(MavenProject aggregator, MavenProject module) {
         writeLock();
         try {
-            List<MavenProject> modules = myAggregatorToModuleMapping.get(aggregator);
+            List<MavenProject> modules = myStructure.myAggregatorToModuleMapping.get(aggregator);
             if (modules == null) {
                 modules = new ArrayList<>();
-                myAggregatorToModuleMapping.put(aggregator, modules);
+                myStructure.myAggregatorToModuleMapping.put(aggregator, modules);
             }
             modules.add(module);
 
-            myModuleToAggregatorMapping.put(module, aggregator);
+            myStructure.myModuleToAggregatorMapping.put(module, aggregator);
         }
         finally {
             writeUnlock();
@@ -1180,12 +1237,12 @@ public class MavenProjectsTree {
     private void removeModule(MavenProject aggregator, MavenProject module) {
         writeLock();
         try {
-            List<MavenProject> modules = myAggregatorToModuleMapping.get(aggregator);
+            List<MavenProject> modules = myStructure.myAggregatorToModuleMapping.get(aggregator);
             if (modules == null) {
                 return;
             }
             modules.remove(module);
-            myModuleToAggregatorMapping.remove(module);
+            myStructure.myModuleToAggregatorMapping.remove(module);
         }
         finally {
             writeUnlock();
@@ -1193,84 +1250,49 @@ public class MavenProjectsTree {
     }
 
     private MavenProject findParent(MavenProject project) {
-        return findProject(project.getParentId());
+        return readStructure(s -> s.findProject(project.getParentId()));
     }
 
     public Collection<MavenProject> findInheritors(MavenProject project) {
-        readLock();
-        try {
-            List<MavenProject> result = null;
-            MavenId id = project.getMavenId();
-
-            for (MavenProject each : myVirtualFileToProjectMapping.values()) {
-                if (each == project) {
-                    continue;
-                }
-                if (id.equals(each.getParentId())) {
-                    if (result == null) {
-                        result = new ArrayList<>();
-                    }
-                    result.add(each);
-                }
-            }
-
-            return result == null ? Collections.<MavenProject>emptyList() : result;
-        }
-        finally {
-            readUnlock();
-        }
+        return mySnapshot.findInheritors(project);
     }
 
+    /**
+     * Takes no structure lock: aggregators and dependents are both looked up in the published snapshot.
+     */
     public List<MavenProject> getDependentProjects(Collection<MavenProject> projects) {
-        readLock();
-        try {
-            List<MavenProject> result = null;
-
-            Set<MavenCoordinate> projectIds = Sets.newHashSet(new MavenCoordinateHashCodeStrategy());
-
-            for (MavenProject project : projects) {
-                projectIds.add(project.getMavenId());
-            }
-
-            final Set<File> projectPaths = Sets.newHashSet(FileUtil.FILE_HASHING_STRATEGY);
-
+        Set<MavenProject> result = new LinkedHashSet<>();
+        synchronized (myDependencyIndexLock) {
+            // read under the lock, so that the index catches up with exactly the projects this snapshot shows
+            Structure snapshot = mySnapshot;
             for (MavenProject project : projects) {
-                projectPaths.add(new File(project.getFile().getPath()));
+                result.addAll(snapshot.myModulePathToAggregatorsIndex.get(project.getFile().getPath()));
             }
 
-            for (MavenProject project : myVirtualFileToProjectMapping.values()) {
-                boolean isDependent = false;
-
-                Set<String> pathsInStack = project.getModulePaths();
-                for (final String path : pathsInStack) {
-                    if (projectPaths.contains(new File(path))) {
-                        isDependent = true;
-                        break;
-                    }
+            if (myDependencyToDependentsIndex == null) {
+                myDependencyToDependentsIndex = new MavenReverseIndex<>(() -> Maps.newHashMap(new MavenCoordinateHashCodeStrategy()));
+                for (MavenProject each : snapshot.myVirtualFileToProjectMapping.values()) {
+                    myDependencyToDependentsIndex.register(each, each.getDependencies());
                 }
-
-                if (!isDependent) {
-                    for (MavenArtifact dep : project.getDependencies()) {
-                        if (projectIds.contains(dep)) {
-                            isDependent = true;
-                            break;
-                        }
+            }
+            else {
+                for (MavenProject each : myPublishedDependents) {
+                    if (snapshot.findProject(each.getFile()) == each) {
+                        myDependencyToDependentsIndex.register(each, each.getDependencies());
                     }
-                }
-
-                if (isDependent) {
-                    if (result == null) {
-                        result = new ArrayList<>();
+                    else {
+                        myDependencyToDependentsIndex.unregister(each);
                     }
-                    result.add(project);
                 }
             }
+            myPublishedDependents.clear();
 
-            return result == null ? Collections.<MavenProject>emptyList() : result;
-        }
-        finally {
-            readUnlock();
+            for (MavenProject project : projects) {
+                result.addAll(myDependencyToDependentsIndex.get(project.getMavenId()));
+            }
         }
+
+        return result.isEmpty() ? Collections.<MavenProject>emptyList() : new ArrayList<>(result);
     }
 
     @TestOnly
@@ -1301,10 +1323,14 @@ public class MavenProjectsTree {
             process.checkCanceled();
             process.setText(MavenProjectLocalize.mavenResolvingPom(mavenProject.getDisplayName()).get());
             process.setText2("");
+            MavenId previousId = mavenProject.getMavenId();
             Pair<MavenProjectChanges, NativeMavenProjectHolder> resolveResult =
                 mavenProject.resolve(project, generalSettings, embedder, new MavenProjectReader(), myProjectLocator, context);
+            console.notifyProjectResolved();
+            updateReverseIndicesAfterResolve(mavenProject);
 
             fireProjectResolved(Pair.create(mavenProject, resolveResult.first), resolveResult.second);
+            fireProjectsChanged(MavenProjectsChangeSet.resolved(mavenProject, previousId, resolveResult.first));
         }
         finally {
             embeddersManager.release(embedder);
@@ -1326,29 +1352,109 @@ public class MavenProjectsTree {
         Map<VirtualFile, List<MavenProject>> byRoot = mavenProjects.stream()
             .collect(Collectors.groupingBy(p -> findRootProject(p).getDirectoryFile()));
 
-        for (List<MavenProject> group : byRoot.values()) {
-            indicator.checkCanceled();
+        // the groups take the pooled embedders, the listeners are still notified one project at a time
+        Object fireLock = new Object();
+        int parallelism = Math.min(byRoot.size(), MavenEmbeddersManager.getPoolSize());
+        if (parallelism <= 1) {
+            for (List<MavenProject> group : byRoot.values()) {
+                resolveGroup(project, group, generalSettings, embeddersManager, console, context, indicator, fireLock);
+            }
+            return;
+        }
+
+        Executor executor = new MavenBoundedExecutor(parallelism, AppExecutorUtil.getAppExecutorService());
+        CompletableFuture<?>[] groups = byRoot.values().stream()
+            .map(group -> CompletableFuture.runAsync(() -> {
+                try {
+                    resolveGroup(project, group, generalSettings, embeddersManager, console, context, indicator, fireLock);
+                }
+                catch (MavenProcessCanceledException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(groups).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof MavenProcessCanceledException canceled) {
+                throw canceled;
+            }
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    private void resolveGroup(
+        @Nonnull Project project,
+        @Nonnull List<MavenProject> group,
+        @Nonnull MavenGeneralSettings generalSettings,
+        @Nonnull MavenEmbeddersManager embeddersManager,
+        @Nonnull MavenSyncConsole console,
+        @Nonnull ResolveContext context,
+        @Nonnull MavenProgressIndicator indicator,
+        @Nonnull Object fireLock
+    ) throws MavenProcessCanceledException {
+        indicator.checkCanceled();
 
-            // Set progress text once for the whole group with joined names, matching JetBrains approach
-            String names = group.stream()
-                .map(MavenProject::getDisplayName)
-                .collect(Collectors.joining(", "));
-            indicator.setText(MavenProjectLocalize.mavenResolvingPom(names).get());
-            indicator.setText2("");
+        // Set progress text once for the whole group with joined names, matching JetBrains approach
+        String names = group.stream()
+            .map(MavenProject::getDisplayName)
+            .collect(Collectors.joining(", "));
+        indicator.setText(MavenProjectLocalize.mavenResolvingPom(names).get());
+        indicator.setText2("");
 
-            MavenEmbedderWrapper embedder = embeddersManager.getEmbedder(MavenEmbeddersManager.FOR_DEPENDENCIES_RESOLVE);
-            embedder.customizeForResolve(getWorkspaceMap(), console, indicator, generalSettings.isAlwaysUpdateSnapshots());
-            try {
-                for (MavenProject mp : group) {
-                    indicator.checkCanceled();
-                    Pair<MavenProjectChanges, NativeMavenProjectHolder> result =
-                        mp.resolve(project, generalSettings, embedder, new MavenProjectReader(), myProjectLocator, context);
-                    fireProjectResolved(Pair.create(mp, result.first), result.second);
+        MavenEmbedderWrapper embedder = embeddersManager.getEmbedder(MavenEmbeddersManager.FOR_DEPENDENCIES_RESOLVE);
+        embedder.customizeForResolve(getWorkspaceMap(), console, indicator, generalSettings.isAlwaysUpdateSnapshots());
+        try {
+            MavenProjectReader reader = new MavenProjectReader();
+            // the server resolves projects with the same profiles in one call, the root first so the batch starts from it
+            Map<MavenExplicitProfiles, List<MavenProject>> byProfiles = new LinkedHashMap<>();
+            for (MavenProject mp : group) {
+                List<MavenProject> batch = byProfiles.computeIfAbsent(mp.getActivatedProfilesIds(), k -> new ArrayList<>());
+                if (findRootProject(mp) == mp) {
+                    batch.add(0, mp);
+                }
+                else {
+                    batch.add(mp);
                 }
             }
-            finally {
-                embeddersManager.release(embedder);
+
+            long start = System.nanoTime();
+            int calls = 0;
+            for (Map.Entry<MavenExplicitProfiles, List<MavenProject>> sameProfiles : byProfiles.entrySet()) {
+                List<MavenProject> projects = sameProfiles.getValue();
+                for (int from = 0; from < projects.size(); from += RESOLVE_BATCH_SIZE) {
+                    indicator.checkCanceled();
+                    List<MavenProject> batchProjects = projects.subList(from, from + Math.min(RESOLVE_BATCH_SIZE, projects.size() - from));
+                    List<VirtualFile> files = MavenUtil.collectFiles(batchProjects);
+                    List<MavenProjectReaderResult> results =
+                        reader.resolveProjects(generalSettings, embedder, files, sameProfiles.getKey(), myProjectLocator);
+                    calls++;
+
+                    for (int i = 0; i < batchProjects.size(); i++) {
+                        indicator.checkCanceled();
+                        MavenProject mp = batchProjects.get(i);
+                        MavenId previousId = mp.getMavenId();
+                        Pair<MavenProjectChanges, NativeMavenProjectHolder> result =
+                            mp.resolve(project, generalSettings, embedder, results.get(i), context);
+                        console.notifyProjectResolved();
+                        updateReverseIndicesAfterResolve(mp);
+                        synchronized (fireLock) {
+                            fireProjectResolved(Pair.create(mp, result.first), result.second);
+                            fireProjectsChanged(MavenProjectsChangeSet.resolved(mp, previousId, result.first));
+                        }
+                    }
+                }
             }
+            MavenLog.LOG.info(String.format(
+                "Resolved %d projects with %d server calls in %d ms",
+                group.size(),
+                calls,
+                (System.nanoTime() - start) / 1_000_000
+            ));
+        }
+        finally {
+            embeddersManager.release(embedder);
         }
     }
 
@@ -1490,6 +1596,62 @@ public class MavenProjectsTree {
         }
     }
 
+    private void updateReverseIndicesAfterResolve(MavenProject mavenProject) {
+        writeLock();
+        try {
+            if (myStructure.myVirtualFileToProjectMapping.get(mavenProject.getFile()) == mavenProject) {
+                if (updateReverseIndices(mavenProject)) {
+                    publishStructure();
+                }
+                else {
+                    // the snapshot already shows the project, only its dependencies are new
+                    synchronized (myDependencyIndexLock) {
+                        if (myUnpublishedDependents.remove(mavenProject) && myDependencyToDependentsIndex != null) {
+                            myPublishedDependents.add(mavenProject);
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            writeUnlock();
+        }
+    }
+
+    /**
+     * Makes the changes of an update pass visible to the readers at once.
+     */
+    private void publishStructure() {
+        writeLock();
+        try {
+            Structure snapshot = myStructure.copy();
+            synchronized (myDependencyIndexLock) {
+                mySnapshot = snapshot;
+                // until the index is built it has nothing to catch up with, it is built from a snapshot at least this new
+                if (myDependencyToDependentsIndex != null) {
+                    myPublishedDependents.addAll(myUnpublishedDependents);
+                }
+                myUnpublishedDependents.clear();
+            }
+        }
+        finally {
+            writeUnlock();
+        }
+    }
+
+    /**
+     * Reads the structure as the current update pass has left it so far, the readers outside of update passes use the snapshot.
+     */
+    private <T> T readStructure(Function<Structure, T> reader) {
+        readLock();
+        try {
+            return reader.apply(myStructure);
+        }
+        finally {
+            readUnlock();
+        }
+    }
+
     private void writeLock() {
         myStructureWriteLock.lock();
     }
@@ -1528,6 +1690,15 @@ public class MavenProjectsTree {
         }
     }
 
+    private void fireProjectsChanged(MavenProjectsChangeSet changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Listener each : myListeners) {
+            each.projectsChanged(changes);
+        }
+    }
+
     private void fireProjectResolved(
         Pair<MavenProject, MavenProjectChanges> projectWithChanges,
         NativeMavenProjectHolder nativeMavenProject
@@ -1558,6 +1729,9 @@ public class MavenProjectsTree {
     private class UpdateContext {
         public final Map<MavenProject, MavenProjectChanges> updatedProjectsWithChanges = new ConcurrentHashMap<>();
         public final Set<MavenProject> deletedProjects = ConcurrentHashMap.newKeySet();
+        // the tree as it was before the update, to tell new projects and changed ids in the change set
+        private final Structure myBefore = mySnapshot;
+        private Map<MavenProject, MavenId> myBeforeIds;
 
         public void update(MavenProject project, MavenProjectChanges changes) {
             deletedProjects.remove(project);
@@ -1585,9 +1759,33 @@ public class MavenProjectsTree {
                 updatedProjectsWithChanges.isEmpty() ? Collections.<Pair<MavenProject, MavenProjectChanges>>emptyList() : MavenUtil.mapToList
                     (updatedProjectsWithChanges);
             fireProjectsUpdated(updated, mavenProjects);
+            fireProjectsChanged(MavenProjectsChangeSet.create(updatedProjectsWithChanges, mavenProjects, this::getPreviousId));
+        }
+
+        @Nullable
+        private MavenId getPreviousId(MavenProject project) {
+            if (myBefore.findProject(project.getFile()) != project) {
+                return null;
+            }
+            if (myBeforeIds == null) {
+                myBeforeIds = new IdentityHashMap<>();
+                for (Map.Entry<MavenId, MavenProject> each : myBefore.myMavenIdToProjectMapping.entrySet()) {
+                    myBeforeIds.put(each.getValue(), each.getKey());
+                }
+            }
+            MavenId result = myBeforeIds.get(project);
+            return result == null ? project.getMavenId() : result;
         }
     }
 
+    /**
+     * Reads the requested POMs and their modules in parallel, at most {@code idea.maven.projects.read.threads} at a time,
+     * in the order {@link MavenReadScheduler} gives. Parents are known from the tree as it was before the update; a new project
+     * is read right away and updated again as an inheritor of its parent if needed.
+     * <p>
+     * Every update logs how many POMs it read, its wall time and the time spent reading, their ratio is the speedup the
+     * parallel reads give on the reactor.
+     */
     private class MavenProjectsTreeUpdater {
         private final UpdateContext myUpdateContext;
         private final MavenProjectReader myReader;
@@ -1596,8 +1794,15 @@ public class MavenProjectsTree {
         private final MavenProgressIndicator myProcess;
         private final boolean myUpdateModules;
 
-        // Deduplication map: null=not seen, false=seen without force, true=seen with force
-        private final ConcurrentHashMap<VirtualFile, Boolean> myUpdated = new ConcurrentHashMap<>();
+        private final MavenReadScheduler<VirtualFile> myScheduler = new MavenReadScheduler<>(
+            new MavenBoundedExecutor(READ_PARALLELISM, AppExecutorUtil.getAppExecutorService()),
+            this::findParentFile,
+            this::update
+        );
+
+        // POMs read and the time spent reading them, logged against the wall time of the update
+        private final AtomicInteger myReadCount = new AtomicInteger();
+        private final AtomicLong myReadNanos = new AtomicLong();
 
         MavenProjectsTreeUpdater(
             UpdateContext updateContext,
@@ -1616,54 +1821,54 @@ public class MavenProjectsTree {
         }
 
         void updateProjects(Collection<VirtualFile> files, boolean forceRead) {
-            if (files.isEmpty()) return;
-            List<CompletableFuture<Void>> futures = files.stream()
-                .map(f -> CompletableFuture.runAsync(() -> update(f, forceRead), AppExecutorUtil.getAppExecutorService()))
-                .collect(Collectors.toList());
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        }
-
-        private boolean startUpdate(VirtualFile file, boolean forceRead) {
-            Boolean[] prev = {null};
-            myUpdated.compute(file, (k, v) -> {
-                prev[0] = v;
-                return Boolean.TRUE.equals(v) || forceRead;
-            });
-            Boolean previous = prev[0];
-            return !(previous != null && !forceRead) && !Boolean.TRUE.equals(previous);
+            long start = System.nanoTime();
+            myScheduler.schedule(files, forceRead).join();
+
+            int count = myReadCount.get();
+            if (count > 0) {
+                MavenLog.LOG.info(String.format(
+                    "Read %d POMs in %d ms, %d ms of reading on up to %d threads",
+                    count,
+                    (System.nanoTime() - start) / 1_000_000,
+                    myReadNanos.get() / 1_000_000,
+                    READ_PARALLELISM
+                ));
+            }
+        }
+
+        @Nullable
+        private VirtualFile findParentFile(VirtualFile file) {
+            MavenProject project = readStructure(s -> s.findProject(file));
+            MavenProject parent = project == null ? null : findParent(project);
+            return parent == null ? null : parent.getFile();
         }
 
         private MavenProject findIntendedAggregator(VirtualFile file) {
-            readLock();
-            try {
-                for (MavenProject each : myVirtualFileToProjectMapping.values()) {
+            return readStructure(s -> {
+                for (MavenProject each : s.myVirtualFileToProjectMapping.values()) {
                     if (each.getExistingModuleFiles().contains(file)) {
                         return each;
                     }
                 }
                 return null;
-            }
-            finally {
-                readUnlock();
-            }
+            });
         }
 
-        void update(VirtualFile file, boolean forceRead) {
-            if (!startUpdate(file, forceRead)) return;
-
+        private CompletableFuture<Void> update(VirtualFile file, boolean forceRead, Runnable readDone) {
             myProcess.setText(MavenProjectLocalize.mavenReadingPom(file.getPath()).get());
             myProcess.setText2("");
 
-            MavenProject existing = findProject(file);
+            MavenProject existing = readStructure(s -> s.findProject(file));
             boolean isNew = existing == null;
             MavenProject mavenProject = isNew ? new MavenProject(file) : existing;
-            MavenProject aggregator = isNew ? findIntendedAggregator(file) : findAggregator(mavenProject);
+            MavenProject aggregator = isNew ? findIntendedAggregator(file) : readStructure(s -> s.findAggregator(mavenProject));
 
-            List<MavenProject> prevModules = getModules(mavenProject);
-            Set<MavenProject> prevInheritors = isNew ? Collections.emptySet() : new HashSet<>(findInheritors(mavenProject));
+            List<MavenProject> prevModules = readStructure(s -> s.getModules(mavenProject));
+            Set<MavenProject> prevInheritors =
+                isNew ? Collections.emptySet() : new HashSet<>(readStructure(s -> s.findInheritors(mavenProject)));
 
             MavenProjectTimestamp timestamp = calculateTimestamp(mavenProject, myExplicitProfiles, myGeneralSettings);
-            boolean isChanged = forceRead || !timestamp.equals(myTimestamps.get(mavenProject));
+            boolean isChanged = forceRead || mavenProject.isStateLost() || !timestamp.equals(myTimestamps.get(mavenProject));
             MavenProjectChanges changes = forceRead ? MavenProjectChanges.ALL : MavenProjectChanges.NONE;
 
             boolean readPom = false;
@@ -1681,11 +1886,14 @@ public class MavenProjectsTree {
                     writeUnlock();
                 }
 
+                long readStart = System.nanoTime();
                 changes = changes.mergedWith(mavenProject.read(myGeneralSettings, myExplicitProfiles, myReader, myProjectLocator));
+                myReadNanos.addAndGet(System.nanoTime() - readStart);
+                myReadCount.incrementAndGet();
 
                 writeLock();
                 try {
-                    myVirtualFileToProjectMapping.put(file, mavenProject);
+                    myStructure.myVirtualFileToProjectMapping.put(file, mavenProject);
                     fillIDMaps(mavenProject);
                 }
                 finally {
@@ -1697,6 +1905,7 @@ public class MavenProjectsTree {
                 }
                 myTimestamps.put(mavenProject, timestamp);
             }
+            readDone.run();
 
             boolean reconnected = isNew;
             if (isNew) {
@@ -1731,10 +1940,10 @@ public class MavenProjectsTree {
             List<VirtualFile> modulesToUpdate = new ArrayList<>();
             List<VirtualFile> modulesToReconnect = new ArrayList<>();
             for (VirtualFile each : existingModuleFiles) {
-                MavenProject module = findProject(each);
+                MavenProject module = readStructure(s -> s.findProject(each));
                 boolean isNewModule = module == null;
                 if (!isNewModule) {
-                    MavenProject currentAggregator = findAggregator(module);
+                    MavenProject currentAggregator = readStructure(s -> s.findAggregator(module));
                     if (currentAggregator != null && currentAggregator != mavenProject) {
                         MavenLog.LOG.info("Module " + each + " is already included into " + mavenProject.getFile());
                         continue;
@@ -1746,27 +1955,27 @@ public class MavenProjectsTree {
                 }
             }
 
-            // Parallel: update modules
-            updateProjects(modulesToUpdate, myUpdateModules && forceRead);
-
-            // Sequential: reconnect modules after parallel update completes
-            for (VirtualFile each : modulesToReconnect) {
-                MavenProject module = findProject(each);
-                if (module == null) continue;
-                MavenProject currentAgg = findAggregator(module);
-                if (currentAgg != null && currentAgg != mavenProject) continue;
-                if (reconnect(mavenProject, module)) {
-                    myUpdateContext.update(module, MavenProjectChanges.NONE);
+            // Parallel: update modules, then reconnect them once they all are done
+            List<VirtualFile> modulesInOrder = myScheduler.parentsFirst(modulesToUpdate);
+            return myScheduler.schedule(modulesInOrder, myUpdateModules && forceRead).thenComposeAsync(ignored -> {
+                for (VirtualFile each : modulesToReconnect) {
+                    MavenProject module = readStructure(s -> s.findProject(each));
+                    if (module == null) continue;
+                    MavenProject currentAgg = readStructure(s -> s.findAggregator(module));
+                    if (currentAgg != null && currentAgg != mavenProject) continue;
+                    if (reconnect(mavenProject, module)) {
+                        myUpdateContext.update(module, MavenProjectChanges.NONE);
+                    }
                 }
-            }
 
-            // Parallel: update inheritors
-            Set<MavenProject> inheritorsToUpdate = new HashSet<>(findInheritors(mavenProject));
-            inheritorsToUpdate.removeAll(myUpdateContext.deletedProjects);
-            List<VirtualFile> inheritorFiles = inheritorsToUpdate.stream()
-                .map(MavenProject::getFile)
-                .collect(Collectors.toList());
-            updateProjects(inheritorFiles, false);
+                // Parallel: update inheritors
+                Set<MavenProject> inheritorsToUpdate = new HashSet<>(readStructure(s -> s.findInheritors(mavenProject)));
+                inheritorsToUpdate.removeAll(myUpdateContext.deletedProjects);
+                List<VirtualFile> inheritorFiles = inheritorsToUpdate.stream()
+                    .map(MavenProject::getFile)
+                    .collect(Collectors.toList());
+                return myScheduler.schedule(inheritorFiles, false);
+            }, myScheduler.getExecutor());
         }
     }
 
@@ -1803,6 +2012,9 @@ public class MavenProjectsTree {
     }
 
     private static class MavenProjectTimestamp {
+        // matches no calculated timestamp, a missing file has the stamp -1
+        static final MavenProjectTimestamp NEVER_READ = new MavenProjectTimestamp(Long.MIN_VALUE, 0, 0, 0, 0, 0);
+
         private final long myPomTimestamp;
         private final long myParentLastReadStamp;
         private final long myProfilesTimestamp;
@@ -1826,16 +2038,24 @@ public class MavenProjectsTree {
             myExplicitProfilesHashCode = explicitProfilesHashCode;
         }
 
-        public static MavenProjectTimestamp read(DataInputStream in) throws IOException {
-            return new MavenProjectTimestamp(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+        public static MavenProjectTimestamp read(MavenProjectsTreeStorage.Input in) throws IOException {
+            return new MavenProjectTimestamp(
+                in.readVarLong(),
+                in.readVarLong(),
+                in.readVarLong(),
+                in.readVarLong(),
+                in.readVarLong(),
+                in.readLong()
+            );
         }
 
-        public void write(DataOutputStream out) throws IOException {
-            out.writeLong(myPomTimestamp);
-            out.writeLong(myParentLastReadStamp);
-            out.writeLong(myProfilesTimestamp);
-            out.writeLong(myUserSettingsTimestamp);
-            out.writeLong(myGlobalSettingsTimestamp);
+        public void write(MavenProjectsTreeStorage.Output out) {
+            out.writeVarLong(myPomTimestamp);
+            out.writeVarLong(myParentLastReadStamp);
+            out.writeVarLong(myProfilesTimestamp);
+            out.writeVarLong(myUserSettingsTimestamp);
+            out.writeVarLong(myGlobalSettingsTimestamp);
+            // a hash code, negative as often as not
             out.writeLong(myExplicitProfilesHashCode);
         }
 
@@ -1903,6 +2123,13 @@ public class MavenProjectsTree {
         ) {
         }
 
+        /**
+         * Called after {@link #projectsUpdated} and {@link #projectResolved} with the same changes in a form that
+         * lets listeners update the data they derive from the projects instead of collecting it again.
+         */
+        default void projectsChanged(MavenProjectsChangeSet changes) {
+        }
+
         default void pluginsResolved(MavenProject project) {
         }
 
@@ -1947,6 +2174,92 @@ public class MavenProjectsTree {
         }
     }
 
+    /**
+     * The projects of the tree and the links between them.
+     * Update passes change one instance under the structure lock and publish copies of it, which are never changed.
+     */
+    private static final class Structure {
+        private final List<MavenProject> myRootProjects;
+        private final MavenWorkspaceMap myWorkspaceMap;
+        private final Map<MavenId, MavenProject> myMavenIdToProjectMapping;
+        private final Map<VirtualFile, MavenProject> myVirtualFileToProjectMapping;
+        private final Map<MavenProject, List<MavenProject>> myAggregatorToModuleMapping;
+        private final Map<MavenProject, MavenProject> myModuleToAggregatorMapping;
+        // reverse indices for findInheritors and getDependentProjects, maintained with the id maps
+        private final MavenReverseIndex<MavenId, MavenProject> myParentIdToInheritorsIndex;
+        private final MavenReverseIndex<String, MavenProject> myModulePathToAggregatorsIndex;
+
+        private Structure() {
+            myRootProjects = new ArrayList<>();
+            myWorkspaceMap = new MavenWorkspaceMap();
+            myMavenIdToProjectMapping = new HashMap<>();
+            myVirtualFileToProjectMapping = new HashMap<>();
+            myAggregatorToModuleMapping = new HashMap<>();
+            myModuleToAggregatorMapping = new HashMap<>();
+            myParentIdToInheritorsIndex = new MavenReverseIndex<>(HashMap::new);
+            myModulePathToAggregatorsIndex = new MavenReverseIndex<>(() -> Maps.newHashMap(FileUtil.PATH_HASHING_STRATEGY));
+        }
+
+        private Structure(Structure other) {
+            myRootProjects = new ArrayList<>(other.myRootProjects);
+            myWorkspaceMap = other.myWorkspaceMap.copy();
+            myMavenIdToProjectMapping = new HashMap<>(other.myMavenIdToProjectMapping);
+            myVirtualFileToProjectMapping = new HashMap<>(other.myVirtualFileToProjectMapping);
+            myAggregatorToModuleMapping = new HashMap<>();
+            for (Map.Entry<MavenProject, List<MavenProject>> each : other.myAggregatorToModuleMapping.entrySet()) {
+                myAggregatorToModuleMapping.put(each.getKey(), new ArrayList<>(each.getValue()));
+            }
+            myModuleToAggregatorMapping = new HashMap<>(other.myModuleToAggregatorMapping);
+            myParentIdToInheritorsIndex = other.myParentIdToInheritorsIndex.readOnlyCopy();
+            myModulePathToAggregatorsIndex = other.myModulePathToAggregatorsIndex.readOnlyCopy();
+        }
+
+        private Structure copy() {
+            return new Structure(this);
+        }
+
+        @Nullable
+        private MavenProject findProject(VirtualFile file) {
+            return myVirtualFileToProjectMapping.get(file);
+        }
+
+        @Nullable
+        private MavenProject findProject(MavenId id) {
+            return myMavenIdToProjectMapping.get(id);
+        }
+
+        @Nullable
+        private MavenProject findAggregator(MavenProject project) {
+            return myModuleToAggregatorMapping.get(project);
+        }
+
+        private MavenProject findRootProject(MavenProject project) {
+            MavenProject rootProject = project;
+            while (true) {
+                MavenProject aggregator = myModuleToAggregatorMapping.get(rootProject);
+                if (aggregator == null) {
+                    return rootProject;
+                }
+                rootProject = aggregator;
+            }
+        }
+
+        private List<MavenProject> getModules(MavenProject aggregator) {
+            List<MavenProject> modules = myAggregatorToModuleMapping.get(aggregator);
+            return modules == null ? Collections.<MavenProject>emptyList() : new ArrayList<>(modules);
+        }
+
+        private Collection<MavenProject> findInheritors(MavenProject project) {
+            Set<MavenProject> inheritors = myParentIdToInheritorsIndex.get(project.getMavenId());
+            if (inheritors.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<MavenProject> result = new ArrayList<>(inheritors);
+            result.remove(project);
+            return result;
+        }
+    }
+
     private static class MavenCoordinateHashCodeStrategy implements HashingStrategy<MavenCoordinate> {
         @Override
         public int hashCode(MavenCoordinate object) {
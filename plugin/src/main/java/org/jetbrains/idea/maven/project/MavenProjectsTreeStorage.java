@@ -0,0 +1,724 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.*;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jdom.Element;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Binary encoding of the {@link MavenProjectsTree} file.
+ * <p>
+ * Strings and {@link MavenId}s are stored once in dictionaries shared by all projects, records refer to them by ids.
+ * Ids, counts and timestamps are unsigned varints, nullable values are shifted by one so that zero stands for null.
+ * A project state is written as a length-prefixed {@link Block} which is decoded on first access.
+ * <pre>
+ * file:  stringCount, strings (length, UTF-8), idCount, ids (groupId, artifactId, version as nullable string ids), bodyLength, body
+ * </pre>
+ */
+final class MavenProjectsTreeStorage {
+    private MavenProjectsTreeStorage() {
+    }
+
+    /**
+     * Decoded dictionaries of a tree file, shared by the blocks read from it.
+     */
+    static final class Dictionary {
+        private final String[] myStrings;
+        private final MavenId[] myIds;
+
+        private Dictionary(String[] strings, MavenId[] ids) {
+            myStrings = strings;
+            myIds = ids;
+        }
+    }
+
+    /**
+     * Encoded record which has not been decoded yet.
+     */
+    static final class Block {
+        private final Dictionary myDictionary;
+        private final byte[] myBytes;
+
+        private Block(Dictionary dictionary, byte[] bytes) {
+            myDictionary = dictionary;
+            myBytes = bytes;
+        }
+
+        @Nonnull
+        Input open() {
+            return new Input(myDictionary, myBytes, 0, myBytes.length);
+        }
+    }
+
+    static final class Output {
+        private final Map<String, Integer> myStrings = new HashMap<>();
+        private final List<String> myStringList = new ArrayList<>();
+        private final Map<MavenId, Integer> myIds = new HashMap<>();
+        private final List<int[]> myIdList = new ArrayList<>();
+        @Nullable
+        private final Dictionary mySeed;
+
+        private byte[] myBuffer = new byte[1 << 16];
+        private int mySize;
+
+        // artifacts already written in the current block, a repeated instance is written as a reference
+        private final Map<MavenArtifact, Integer> myBlockArtifacts = new IdentityHashMap<>();
+        private int myBlockStart = -1;
+
+        /**
+         * @param seed dictionary the new one starts with, so that blocks read with it can be copied without decoding
+         */
+        Output(@Nullable Dictionary seed) {
+            mySeed = seed;
+            if (seed != null) {
+                for (String each : seed.myStrings) {
+                    myStrings.put(each, myStringList.size());
+                    myStringList.add(each);
+                }
+                for (MavenId each : seed.myIds) {
+                    addMavenId(each);
+                }
+            }
+        }
+
+        void writeTo(@Nonnull DataOutputStream out) throws IOException {
+            out.writeInt(myStringList.size());
+            for (String each : myStringList) {
+                // writeUTF is limited to 64K, property values may be longer
+                byte[] bytes = each.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(myIdList.size());
+            for (int[] each : myIdList) {
+                out.writeInt(each[0]);
+                out.writeInt(each[1]);
+                out.writeInt(each[2]);
+            }
+            out.writeInt(mySize);
+            out.write(myBuffer, 0, mySize);
+        }
+
+        void beginBlock() {
+            assert myBlockStart < 0;
+            myBlockStart = mySize;
+            // length placeholder, patched by endBlock
+            ensureCapacity(4);
+            mySize += 4;
+        }
+
+        void endBlock() {
+            int length = mySize - myBlockStart - 4;
+            myBuffer[myBlockStart] = (byte)(length >>> 24);
+            myBuffer[myBlockStart + 1] = (byte)(length >>> 16);
+            myBuffer[myBlockStart + 2] = (byte)(length >>> 8);
+            myBuffer[myBlockStart + 3] = (byte)length;
+            myBlockStart = -1;
+            myBlockArtifacts.clear();
+        }
+
+        /**
+         * Copies a block read with the seed dictionary as is.
+         *
+         * @return false if the block was read with another dictionary and has to be decoded and written again
+         */
+        boolean copyBlock(@Nonnull Block block) {
+            if (mySeed == null || block.myDictionary != mySeed) {
+                return false;
+            }
+            writeFixedInt(block.myBytes.length);
+            ensureCapacity(block.myBytes.length);
+            System.arraycopy(block.myBytes, 0, myBuffer, mySize, block.myBytes.length);
+            mySize += block.myBytes.length;
+            return true;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                myBuffer[mySize++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            myBuffer[mySize++] = (byte)value;
+        }
+
+        void writeLong(long value) {
+            writeFixedInt((int)(value >>> 32));
+            writeFixedInt((int)value);
+        }
+
+        void writeString(@Nullable String value) {
+            writeVarInt(value == null ? 0 : stringId(value) + 1);
+        }
+
+        void writeMavenId(@Nullable MavenId value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer id = myIds.get(value);
+            writeVarInt((id == null ? addMavenId(value) : id) + 1);
+        }
+
+        private int addMavenId(MavenId value) {
+            int id = myIdList.size();
+            myIds.put(value, id);
+            myIdList.add(new int[]{
+                nullableStringId(value.getGroupId()),
+                nullableStringId(value.getArtifactId()),
+                nullableStringId(value.getVersion())
+            });
+            return id;
+        }
+
+        void writeFile(@Nullable File value) {
+            writeString(value == null ? null : value.getPath());
+        }
+
+        void writeStrings(@Nullable Collection<String> value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(value.size() + 1);
+            for (String each : value) {
+                writeString(each);
+            }
+        }
+
+        void writeStringMap(@Nullable Map<String, String> value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(value.size() + 1);
+            for (Map.Entry<String, String> each : value.entrySet()) {
+                writeString(each.getKey());
+                writeString(each.getValue());
+            }
+        }
+
+        void writeProperties(@Nullable Properties value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(value.size() + 1);
+            for (Map.Entry<Object, Object> each : value.entrySet()) {
+                writeString(String.valueOf(each.getKey()));
+                writeString(String.valueOf(each.getValue()));
+            }
+        }
+
+        <T> void writeList(@Nullable Collection<T> value, @Nonnull ElementWriter<T> writer) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(value.size() + 1);
+            for (T each : value) {
+                writer.write(this, each);
+            }
+        }
+
+        /**
+         * @param localRepository the file of an artifact laid out in this repository is not written
+         */
+        void writeArtifact(@Nullable MavenArtifact value, @Nullable File localRepository) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer ref = myBlockArtifacts.get(value);
+            if (ref != null) {
+                writeVarInt(ref + 2);
+                return;
+            }
+            myBlockArtifacts.put(value, myBlockArtifacts.size());
+            writeVarInt(1);
+
+            writeString(value.getGroupId());
+            writeString(value.getArtifactId());
+            writeString(value.getVersion());
+            writeString(value.getBaseVersion());
+            writeString(value.getType());
+            writeString(value.getClassifier());
+            writeString(value.getScope());
+            writeString(value.getExtension());
+            writeByte((value.isOptional() ? 1 : 0) | (value.isMarkedResolved() ? 2 : 0) | (value.isStubbed() ? 4 : 0));
+            boolean defaultFile = localRepository != null && value.getFile().equals(new File(localRepository, value.getRelativePath()));
+            writeFile(defaultFile ? null : value.getFile());
+        }
+
+        void writeArtifactNodes(@Nullable List<MavenArtifactNode> value, @Nullable File localRepository) {
+            writeList(value, (out, each) -> {
+                out.writeArtifact(each.getArtifact(), localRepository);
+                out.writeVarInt(each.getState().ordinal());
+                out.writeArtifact(each.getRelatedArtifact(), localRepository);
+                out.writeString(each.getOriginalScope());
+                out.writeString(each.getPremanagedVersion());
+                out.writeString(each.getPremanagedScope());
+                out.writeArtifactNodes(each.getDependencies(), localRepository);
+            });
+        }
+
+        void writePlugin(@Nonnull MavenPlugin value) {
+            writeString(value.getGroupId());
+            writeString(value.getArtifactId());
+            writeString(value.getVersion());
+            writeByte((value.isDefault() ? 1 : 0) | (value.isExtensions() ? 2 : 0));
+            writeElement(value.getConfigurationElement());
+            writeList(value.getExecutions(), (out, each) -> {
+                out.writeString(each.getExecutionId());
+                out.writeString(each.getPhase());
+                out.writeStrings(each.getGoals());
+                out.writeElement(each.getConfigurationElement());
+            });
+            writeList(value.getDependencies(), Output::writeMavenId);
+        }
+
+        /**
+         * Plugin configurations are converted from Xpp3Dom: an element has either children or text, and no attributes.
+         */
+        void writeElement(@Nullable Element value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            List<Element> children = value.getChildren();
+            writeVarInt(children.size() + 1);
+            writeString(value.getName());
+            if (children.isEmpty()) {
+                writeString(value.getText());
+            }
+            else {
+                for (Element each : children) {
+                    writeElement(each);
+                }
+            }
+        }
+
+        void writeResource(@Nonnull MavenResource value) {
+            writeString(value.getDirectory());
+            writeBoolean(value.isFiltered());
+            writeString(value.getTargetPath());
+            writeStrings(value.getIncludes());
+            writeStrings(value.getExcludes());
+        }
+
+        void writeRemoteRepository(@Nonnull MavenRemoteRepository value) {
+            writeString(value.getId());
+            writeString(value.getName());
+            writeString(value.getUrl());
+            writeString(value.getLayout());
+            writePolicy(value.getReleasesPolicy());
+            writePolicy(value.getSnapshotsPolicy());
+        }
+
+        private void writePolicy(@Nullable MavenRemoteRepository.Policy value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(value.isEnabled() ? 2 : 1);
+            writeString(value.getUpdatePolicy());
+            writeString(value.getChecksumPolicy());
+        }
+
+        void writeProblem(@Nonnull MavenProjectProblem value, @Nullable File localRepository) {
+            writeString(value.getPath());
+            writeString(value.getDescription());
+            writeVarInt(value.getType().ordinal());
+            writeBoolean(value.isError());
+            writeArtifact(value.getMavenArtifact(), localRepository);
+        }
+
+        private int nullableStringId(@Nullable String value) {
+            return value == null ? 0 : stringId(value) + 1;
+        }
+
+        private int stringId(String value) {
+            Integer id = myStrings.get(value);
+            if (id == null) {
+                id = myStringList.size();
+                myStrings.put(value, id);
+                myStringList.add(value);
+            }
+            return id;
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            myBuffer[mySize++] = (byte)value;
+        }
+
+        private void writeFixedInt(int value) {
+            ensureCapacity(4);
+            myBuffer[mySize++] = (byte)(value >>> 24);
+            myBuffer[mySize++] = (byte)(value >>> 16);
+            myBuffer[mySize++] = (byte)(value >>> 8);
+            myBuffer[mySize++] = (byte)value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (mySize + extra > myBuffer.length) {
+                myBuffer = Arrays.copyOf(myBuffer, Math.max(mySize + extra, myBuffer.length * 2));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface ElementWriter<T> {
+        void write(@Nonnull Output out, T value);
+    }
+
+    @FunctionalInterface
+    interface ElementReader<T> {
+        T read(@Nonnull Input in) throws IOException;
+    }
+
+    static final class Input {
+        private final Dictionary myDictionary;
+        private final byte[] myBytes;
+        private final int myEnd;
+        private int myPosition;
+
+        private final List<MavenArtifact> myBlockArtifacts = new ArrayList<>();
+
+        private Input(Dictionary dictionary, byte[] bytes, int offset, int end) {
+            myDictionary = dictionary;
+            myBytes = bytes;
+            myPosition = offset;
+            myEnd = end;
+        }
+
+        /**
+         * Reads the dictionaries and the body written by {@link Output#writeTo}.
+         */
+        @Nonnull
+        static Input read(@Nonnull DataInputStream in) throws IOException {
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                strings[i] = MavenModelInterner.intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+            MavenId[] ids = new MavenId[in.readInt()];
+            for (int i = 0; i < ids.length; i++) {
+                String groupId = nullableString(strings, in.readInt());
+                String artifactId = nullableString(strings, in.readInt());
+                ids[i] = MavenModelInterner.intern(new MavenId(groupId, artifactId, nullableString(strings, in.readInt())));
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Input(new Dictionary(strings, ids), body, 0, body.length);
+        }
+
+        @Nullable
+        private static String nullableString(String[] strings, int id) throws IOException {
+            return id == 0 ? null : string(strings, id - 1);
+        }
+
+        private static String string(String[] strings, int id) throws IOException {
+            if (id < 0 || id >= strings.length) {
+                throw new IOException("Corrupted dictionary");
+            }
+            return strings[id];
+        }
+
+        @Nonnull
+        Dictionary getDictionary() {
+            return myDictionary;
+        }
+
+        /**
+         * Skips a block, the returned copy is decoded on demand and can be freed independently of the rest of the file.
+         */
+        @Nonnull
+        Block readBlock() throws IOException {
+            int length = readFixedInt();
+            if (length < 0 || myPosition + length > myEnd) {
+                throw new IOException("Corrupted block");
+            }
+            byte[] bytes = Arrays.copyOfRange(myBytes, myPosition, myPosition + length);
+            myPosition += length;
+            return new Block(myDictionary, bytes);
+        }
+
+        boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        int readVarInt() throws IOException {
+            long value = readVarLong();
+            if (value > 0xFFFFFFFFL) {
+                throw new IOException("Corrupted varint");
+            }
+            return (int)value;
+        }
+
+        long readVarLong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Corrupted varint");
+        }
+
+        long readLong() throws IOException {
+            return ((long)readFixedInt() << 32) | (readFixedInt() & 0xFFFFFFFFL);
+        }
+
+        @Nullable
+        String readString() throws IOException {
+            return nullableString(myDictionary.myStrings, readVarInt());
+        }
+
+        @Nullable
+        MavenId readMavenId() throws IOException {
+            int id = readVarInt();
+            if (id == 0) {
+                return null;
+            }
+            if (id > myDictionary.myIds.length) {
+                throw new IOException("Corrupted id reference");
+            }
+            return myDictionary.myIds[id - 1];
+        }
+
+        @Nullable
+        File readFile() throws IOException {
+            String path = readString();
+            return path == null ? null : new File(path);
+        }
+
+        @Nullable
+        <T extends Collection<String>> T readStrings(@Nonnull Supplier<T> factory) throws IOException {
+            int count = readVarInt();
+            if (count == 0) {
+                return null;
+            }
+            T result = factory.get();
+            while (--count > 0) {
+                result.add(readString());
+            }
+            return result;
+        }
+
+        @Nullable
+        Map<String, String> readStringMap() throws IOException {
+            int count = readVarInt();
+            if (count == 0) {
+                return null;
+            }
+            Map<String, String> result = new LinkedHashMap<>();
+            while (--count > 0) {
+                result.put(readString(), readString());
+            }
+            return result;
+        }
+
+        @Nullable
+        Properties readProperties() throws IOException {
+            int count = readVarInt();
+            if (count == 0) {
+                return null;
+            }
+            Properties result = new Properties();
+            while (--count > 0) {
+                result.setProperty(readString(), readString());
+            }
+            return result;
+        }
+
+        @Nullable
+        <T> List<T> readList(@Nonnull ElementReader<T> reader) throws IOException {
+            int count = readVarInt();
+            if (count == 0) {
+                return null;
+            }
+            List<T> result = new ArrayList<>(count - 1);
+            while (--count > 0) {
+                result.add(reader.read(this));
+            }
+            return result;
+        }
+
+        @Nullable
+        MavenArtifact readArtifact(@Nullable File localRepository) throws IOException {
+            int ref = readVarInt();
+            if (ref == 0) {
+                return null;
+            }
+            if (ref > 1) {
+                if (ref - 2 >= myBlockArtifacts.size()) {
+                    throw new IOException("Corrupted artifact reference");
+                }
+                return myBlockArtifacts.get(ref - 2);
+            }
+
+            String groupId = readString();
+            String artifactId = readString();
+            String version = readString();
+            String baseVersion = readString();
+            String type = readString();
+            String classifier = readString();
+            String scope = readString();
+            String extension = readString();
+            int flags = readByte();
+            File file = readFile();
+            MavenArtifact result = MavenModelInterner.intern(new MavenArtifact(
+                groupId,
+                artifactId,
+                version,
+                baseVersion,
+                type,
+                classifier,
+                scope,
+                (flags & 1) != 0,
+                extension,
+                file,
+                localRepository,
+                (flags & 2) != 0,
+                (flags & 4) != 0
+            ));
+            myBlockArtifacts.add(result);
+            return result;
+        }
+
+        @Nullable
+        List<MavenArtifactNode> readArtifactNodes(@Nullable MavenArtifactNode parent, @Nullable File localRepository) throws IOException {
+            MavenArtifactState[] states = MavenArtifactState.values();
+            return readList(in -> {
+                MavenArtifact artifact = in.readArtifact(localRepository);
+                int state = in.readVarInt();
+                if (state >= states.length) {
+                    throw new IOException("Corrupted artifact state");
+                }
+                MavenArtifactNode result = new MavenArtifactNode(
+                    parent,
+                    artifact,
+                    states[state],
+                    in.readArtifact(localRepository),
+                    in.readString(),
+                    in.readString(),
+                    in.readString()
+                );
+                List<MavenArtifactNode> dependencies = in.readArtifactNodes(result, localRepository);
+                if (dependencies != null) {
+                    result.setDependencies(dependencies);
+                }
+                return result;
+            });
+        }
+
+        @Nonnull
+        MavenPlugin readPlugin() throws IOException {
+            String groupId = readString();
+            String artifactId = readString();
+            String version = readString();
+            int flags = readByte();
+            Element configuration = readElement();
+            List<MavenPlugin.Execution> executions = readList(in -> new MavenPlugin.Execution(
+                in.readString(),
+                in.readString(),
+                in.readStrings(ArrayList::new),
+                in.readElement()
+            ));
+            List<MavenId> dependencies = readList(Input::readMavenId);
+            boolean isDefault = (flags & 1) != 0;
+            boolean extensions = (flags & 2) != 0;
+            return new MavenPlugin(groupId, artifactId, version, isDefault, extensions, configuration, executions, dependencies);
+        }
+
+        @Nullable
+        Element readElement() throws IOException {
+            int count = readVarInt();
+            if (count == 0) {
+                return null;
+            }
+            Element result = new Element(readString());
+            if (count == 1) {
+                String text = readString();
+                if (text != null) {
+                    result.setText(text);
+                }
+            }
+            else {
+                while (--count > 0) {
+                    result.addContent(readElement());
+                }
+            }
+            return result;
+        }
+
+        @Nonnull
+        MavenResource readResource() throws IOException {
+            return new MavenResource(
+                readString(),
+                readBoolean(),
+                readString(),
+                readStrings(ArrayList::new),
+                readStrings(ArrayList::new)
+            );
+        }
+
+        @Nonnull
+        MavenRemoteRepository readRemoteRepository() throws IOException {
+            return new MavenRemoteRepository(readString(), readString(), readString(), readString(), readPolicy(), readPolicy());
+        }
+
+        @Nullable
+        private MavenRemoteRepository.Policy readPolicy() throws IOException {
+            int enabled = readVarInt();
+            if (enabled == 0) {
+                return null;
+            }
+            return new MavenRemoteRepository.Policy(enabled == 2, readString(), readString());
+        }
+
+        @Nonnull
+        MavenProjectProblem readProblem(@Nullable File localRepository) throws IOException {
+            String path = readString();
+            String description = readString();
+            MavenProjectProblem.ProblemType[] types = MavenProjectProblem.ProblemType.values();
+            int type = readVarInt();
+            if (type >= types.length) {
+                throw new IOException("Corrupted problem type");
+            }
+            boolean error = readBoolean();
+            return new MavenProjectProblem(path, description, types[type], error, readArtifact(localRepository));
+        }
+
+        private int readByte() throws IOException {
+            if (myPosition >= myEnd) {
+                throw new IOException("Unexpected end of data");
+            }
+            return myBytes[myPosition++] & 0xFF;
+        }
+
+        private int readFixedInt() throws IOException {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.jetbrains.idea.maven.project;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.idea.maven.utils.MavenLog;
+import org.jetbrains.idea.maven.utils.MavenUtil;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parsed raw POM models kept in the plugin system directory, shared by all projects and kept between IDE sessions.
+ * <p>
+ * An entry is a file named by the hash of the POM path and contents, so a changed POM simply gets a new entry.
+ * Entries are used in last-modified order: a hit touches the file, and the oldest files are deleted
+ * once the entries take more than {@code idea.maven.raw.model.cache.size} megabytes.
+ */
+final class MavenRawModelCache {
+    private static final int VERSION = 1;
+    private static final long MAX_SIZE = Long.getLong("idea.maven.raw.model.cache.size", 64) << 20;
+
+    private static class Holder {
+        private static final MavenRawModelCache INSTANCE = new MavenRawModelCache(MavenUtil.getPluginSystemDir("RawModels"), MAX_SIZE);
+    }
+
+    private final File myDir;
+    private final long myMaxSize;
+    // -1 until the directory is scanned
+    private final AtomicLong mySize = new AtomicLong(-1);
+
+    MavenRawModelCache(@Nonnull File dir, long maxSize) {
+        myDir = dir;
+        myMaxSize = maxSize;
+    }
+
+    static MavenRawModelCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param contents contents of the POM and of the files its raw model is read from
+     */
+    @Nonnull
+    static String getKey(@Nonnull String path, @Nonnull byte[]... contents) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update((byte)VERSION);
+        digest.update(path.getBytes(StandardCharsets.UTF_8));
+        for (byte[] each : contents) {
+            digest.update(intBytes(each.length));
+            digest.update(each);
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (byte each : digest.digest()) {
+            result.append(Character.forDigit((each >> 4) & 0xF, 16)).append(Character.forDigit(each & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    private static byte[] intBytes(int value) {
+        return new byte[]{(byte)(value >>> 24), (byte)(value >>> 16), (byte)(value >>> 8), (byte)value};
+    }
+
+    @Nullable
+    <T extends Serializable> T get(@Nonnull String key, @Nonnull Class<T> type) {
+        File file = new File(myDir, key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            T result = type.cast(in.readObject());
+            file.setLastModified(System.currentTimeMillis());
+            return result;
+        }
+        catch (IOException | ClassNotFoundException | ClassCastException e) {
+            MavenLog.LOG.debug("Cannot read cached model " + file, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    void put(@Nonnull String key, @Nonnull Serializable value) {
+        File file = new File(myDir, key);
+        File temp = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+
+            ensureSizeKnown();
+            Files.createDirectories(myDir.toPath());
+            temp = Files.createTempFile(myDir.toPath(), key, ".tmp").toFile();
+            Files.write(temp.toPath(), bytes.toByteArray());
+            // another project may be storing the same entry, either copy will do
+            long replaced = file.length();
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+
+            if (mySize.addAndGet(bytes.size() - replaced) > myMaxSize) {
+                evict();
+            }
+        }
+        catch (IOException e) {
+            MavenLog.LOG.debug("Cannot cache model " + file, e);
+        }
+        finally {
+            if (temp != null) {
+                delete(temp);
+            }
+        }
+    }
+
+    private void ensureSizeKnown() {
+        if (mySize.get() < 0) {
+            long size = 0;
+            for (File each : listEntries()) {
+                size += each.length();
+            }
+            mySize.compareAndSet(-1, size);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache takes at most three quarters of its limit.
+     */
+    private synchronized void evict() {
+        if (mySize.get() <= myMaxSize) {
+            return;
+        }
+
+        File[] entries = listEntries();
+        long[] lastModified = new long[entries.length];
+        Integer[] order = new Integer[entries.length];
+        long size = 0;
+        for (int i = 0; i < entries.length; i++) {
+            lastModified[i] = entries[i].lastModified();
+            order[i] = i;
+            size += entries[i].length();
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastModified[i]));
+
+        long target = myMaxSize / 4 * 3;
+        for (int i = 0; i < order.length && size > target; i++) {
+            File each = entries[order[i]];
+            long length = each.length();
+            if (delete(each)) {
+                size -= length;
+            }
+        }
+        mySize.set(size);
+    }
+
+    @Nonnull
+    private File[] listEntries() {
+        File[] result = myDir.listFiles(f -> f.isFile() && !f.getName().endsWith(".tmp"));
+        return result == null ? new File[0] : result;
+    }
+
+    private static boolean delete(File file) {
+        return file.delete() || !file.exists();
+    }
+}
@@ -0,0 +1,131 @@
+package org.jetbrains.idea.maven.project;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Schedules the POM reads of a tree update, at most as many at a time as its executor runs.
+ * <p>
+ * No task blocks waiting for another one: a read schedules the modules of its POM once the POM is read and continues with
+ * reconnecting them when they are done. A file whose parent is read in the same update starts after it, so it is not read
+ * against the old parent and read again afterwards. Only reads scheduled earlier are waited for, so parent cycles in stale
+ * data cannot make reads wait for each other. Every file is read at most once per update, or once more if a later request
+ * forces it.
+ *
+ * @param <F> the files, e.g. {@code VirtualFile}s of the POMs
+ */
+final class MavenReadScheduler<F> {
+    interface Reader<F> {
+        /**
+         * Reads the file on the scheduler's executor and schedules what depends on it, e.g. its modules and inheritors.
+         *
+         * @param readDone to be run once the file itself is read, the reads of its inheritors wait for it
+         * @return future completed once everything the read scheduled is done
+         */
+        @Nonnull
+        CompletableFuture<Void> read(@Nonnull F file, boolean forceRead, @Nonnull Runnable readDone);
+    }
+
+    private final Executor myExecutor;
+    private final Function<F, F> myParents;
+    private final Reader<F> myReader;
+
+    // null = not scheduled, false = scheduled without force, true = scheduled with force
+    private final ConcurrentHashMap<F, Boolean> myScheduled = new ConcurrentHashMap<>();
+    private final Map<F, ScheduledRead> myReads = new ConcurrentHashMap<>();
+    private final AtomicInteger mySequence = new AtomicInteger();
+
+    /**
+     * @param parents the parent file of a file as the tree knew it before the update, null if there is none
+     */
+    MavenReadScheduler(@Nonnull Executor executor, @Nonnull Function<F, F> parents, @Nonnull Reader<F> reader) {
+        myExecutor = executor;
+        myParents = parents;
+        myReader = reader;
+    }
+
+    @Nonnull
+    Executor getExecutor() {
+        return myExecutor;
+    }
+
+    /**
+     * @return future completed once the files and everything their reads scheduled are done
+     */
+    @Nonnull
+    CompletableFuture<Void> schedule(@Nonnull Collection<F> files, boolean forceRead) {
+        if (files.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.allOf(files.stream().map(f -> schedule(f, forceRead)).toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> schedule(F file, boolean forceRead) {
+        if (!startRead(file, forceRead)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ScheduledRead read = new ScheduledRead(mySequence.incrementAndGet());
+        CompletableFuture<Void> parentRead = getParentRead(file, read.mySequence);
+        myReads.put(file, read);
+        return parentRead
+            .thenComposeAsync(ignored -> myReader.read(file, forceRead, () -> read.myDone.complete(null)), myExecutor)
+            .whenComplete((ignored, e) -> read.myDone.complete(null));
+    }
+
+    private CompletableFuture<Void> getParentRead(F file, int sequence) {
+        F parent = myParents.apply(file);
+        ScheduledRead parentRead = parent == null ? null : myReads.get(parent);
+        if (parentRead == null || parentRead.mySequence >= sequence) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return parentRead.myDone;
+    }
+
+    /**
+     * Puts the files other files of the list inherit from first, so that their inheritors are scheduled after them.
+     */
+    @Nonnull
+    List<F> parentsFirst(@Nonnull List<F> files) {
+        Set<F> parents = new HashSet<>();
+        for (F each : files) {
+            F parent = myParents.apply(each);
+            if (parent != null) {
+                parents.add(parent);
+            }
+        }
+        if (parents.isEmpty()) {
+            return files;
+        }
+        List<F> result = new ArrayList<>(files.size());
+        files.stream().filter(parents::contains).forEach(result::add);
+        files.stream().filter(each -> !parents.contains(each)).forEach(result::add);
+        return result;
+    }
+
+    private boolean startRead(F file, boolean forceRead) {
+        Boolean[] prev = {null};
+        myScheduled.compute(file, (k, v) -> {
+            prev[0] = v;
+            return Boolean.TRUE.equals(v) || forceRead;
+        });
+        Boolean previous = prev[0];
+        return !(previous != null && !forceRead) && !Boolean.TRUE.equals(previous);
+    }
+
+    private static class ScheduledRead {
+        private final int mySequence;
+        // completed once the file is read, before its modules are
+        private final CompletableFuture<Void> myDone = new CompletableFuture<>();
+
+        private ScheduledRead(int sequence) {
+            mySequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.jetbrains.idea.maven.project;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Values, e.g. projects, by the keys they refer to. Remembers the keys a value is registered with to drop them when it is
+ * registered again, so a lookup costs as much as its result rather than a scan of all values.
+ */
+final class MavenReverseIndex<K, V> {
+    private final Supplier<Map<K, Set<V>>> myMapFactory;
+    private final Map<K, Set<V>> myValues;
+    private final Map<V, Collection<? extends K>> myKeys = new HashMap<>();
+
+    /**
+     * @param mapFactory creates the key map, e.g. one with a hashing strategy
+     */
+    MavenReverseIndex(@Nonnull Supplier<Map<K, Set<V>>> mapFactory) {
+        myMapFactory = mapFactory;
+        myValues = mapFactory.get();
+    }
+
+    /**
+     * @return whether the keys of the value changed
+     */
+    boolean register(@Nonnull V value, @Nonnull Collection<? extends K> keys) {
+        Collection<? extends K> prevKeys = unregister(value);
+        if (keys.isEmpty()) {
+            return prevKeys != null;
+        }
+        // a copy, the value may change the collection it was registered with
+        List<K> keysCopy = new ArrayList<>(keys);
+        myKeys.put(value, keysCopy);
+        for (K each : keys) {
+            myValues.computeIfAbsent(each, k -> new LinkedHashSet<>()).add(value);
+        }
+        return !keysCopy.equals(prevKeys);
+    }
+
+    /**
+     * @return the keys the value was registered with, null if it was not
+     */
+    @Nullable
+    Collection<? extends K> unregister(@Nonnull V value) {
+        Collection<? extends K> keys = myKeys.remove(value);
+        if (keys == null) {
+            return null;
+        }
+        for (K each : keys) {
+            Set<V> values = myValues.get(each);
+            if (values != null && values.remove(value) && values.isEmpty()) {
+                myValues.remove(each);
+            }
+        }
+        return keys;
+    }
+
+    @Nonnull
+    Set<V> get(K key) {
+        Set<V> result = myValues.get(key);
+        return result == null ? Collections.emptySet() : result;
+    }
+
+    /**
+     * A copy to look values up in, it cannot be registered with.
+     */
+    @Nonnull
+    MavenReverseIndex<K, V> readOnlyCopy() {
+        MavenReverseIndex<K, V> result = new MavenReverseIndex<>(myMapFactory);
+        for (Map.Entry<K, Set<V>> each : myValues.entrySet()) {
+            result.myValues.put(each.getKey(), new LinkedHashSet<>(each.getValue()));
+        }
+        return result;
+    }
+}
@@ -78,6 +78,16 @@ public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServ
         });
     }
 
+    /**
+     * Starts the embedder in the Maven server unless it is running.
+     */
+    public void warmUp() {
+        perform((Retriable<Object>)() -> {
+            getOrCreateWrappee();
+            return null;
+        });
+    }
+
     public void customizeForGetVersions() {
         perform((Retriable<Object>)() -> {
             doCustomizeComponents();
@@ -112,6 +122,26 @@ public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServ
         ));
     }
 
+    /**
+     * @return the results in the order of the files
+     */
+    @Nonnull
+    public List<MavenServerExecutionResult> resolveProjects(
+        @Nonnull final List<VirtualFile> files,
+        @Nonnull final Collection<String> activeProfiles,
+        @Nonnull final Collection<String> inactiveProfiles
+    ) throws MavenProcessCanceledException {
+        List<File> ioFiles = new ArrayList<>(files.size());
+        for (VirtualFile each : files) {
+            ioFiles.add(new File(each.getPath()));
+        }
+        return perform((RetriableCancelable<List<MavenServerExecutionResult>>)() -> getOrCreateWrappee().resolveProjects(
+            ioFiles,
+            activeProfiles,
+            inactiveProfiles
+        ));
+    }
+
     @Nullable
     public String evaluateEffectivePom(
         @Nonnull final VirtualFile file,
@@ -21,6 +21,7 @@ import consulo.maven.rt.server.common.model.MavenId;
 import consulo.maven.rt.server.common.server.*;
 import consulo.util.collection.primitive.ints.IntMaps;
 import consulo.util.collection.primitive.ints.IntObjectMap;
+import consulo.util.io.FileUtil;
 import org.apache.lucene.search.Query;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.idea.maven.project.MavenGeneralSettings;
@@ -31,12 +32,21 @@ import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 public abstract class MavenIndexerWrapper extends RemoteObjectWrapper<MavenServerIndexer> {
+    /**
+     * Hits per search page, {@code idea.maven.indices.search.page.size}. A search can be canceled between pages, a larger page
+     * saves round trips for big results.
+     */
+    private static final int SEARCH_PAGE_SIZE = Math.max(1, Integer.getInteger("idea.maven.indices.search.page.size", 200));
+
     private final IntObjectMap<IndexData> myDataMap = IntMaps.newIntObjectHashMap();
 
     public MavenIndexerWrapper(@Nullable RemoteObjectWrapper<?> parent) {
@@ -136,12 +146,109 @@ public abstract class MavenIndexerWrapper extends RemoteObjectWrapper<MavenServe
         });
     }
 
+    /**
+     * Lets the server dump the index into {@code dumpFile} in one remote call and reads it back through a memory mapping.
+     *
+     * @param modifiedSince only the versions with records added, replaced or deleted after this time that still have records
+     *                      are reported, 0 to report all artifacts
+     */
+    public void exportArtifacts(
+        final int indexId,
+        @Nonnull final File dumpFile,
+        final long modifiedSince,
+        @Nonnull MavenIndexDump.Processor processor
+    ) throws MavenServerIndexerException, IOException {
+        readDump(dumpFile, processor, () -> getOrCreateWrappee().exportArtifacts(getRemoteId(indexId), dumpFile, modifiedSince));
+    }
+
+    /**
+     * Same as {@link #exportArtifacts} for the versions whose last record was deleted after {@code deletedSince}.
+     */
+    public void exportDeletedArtifacts(
+        final int indexId,
+        @Nonnull final File dumpFile,
+        final long deletedSince,
+        @Nonnull MavenIndexDump.Processor processor
+    ) throws MavenServerIndexerException, IOException {
+        readDump(dumpFile, processor, () -> getOrCreateWrappee().exportDeletedArtifacts(getRemoteId(indexId), dumpFile, deletedSince));
+    }
+
+    /**
+     * Same as {@link #exportArtifacts} for class names, the processor receives groupId, the
+     * {@code artifactId|version|classifier|packaging} of the containing artifact and class name.
+     *
+     * @param modifiedSince only the classes of the versions {@link #exportArtifacts} reports for it are reported, 0 to report all
+     */
+    public void exportClassNames(
+        final int indexId,
+        @Nonnull final File dumpFile,
+        final long modifiedSince,
+        @Nonnull MavenIndexDump.Processor processor
+    ) throws MavenServerIndexerException, IOException {
+        readDump(dumpFile, processor, () -> getOrCreateWrappee().exportClassNames(getRemoteId(indexId), dumpFile, modifiedSince));
+    }
+
+    private void readDump(File dumpFile, MavenIndexDump.Processor processor, RemoteExport export)
+        throws MavenServerIndexerException, IOException {
+        try {
+            perform((IndexRetriable<Object>)() -> {
+                export.run();
+                return null;
+            });
+            MavenIndexDump.read(dumpFile, processor);
+        }
+        finally {
+            FileUtil.delete(dumpFile);
+        }
+    }
+
+    private interface RemoteExport {
+        void run() throws RemoteException, MavenServerIndexerException;
+    }
+
     public MavenId addArtifact(final int localId, final File artifactFile) throws MavenServerIndexerException {
         return perform((IndexRetriable<MavenId>)() -> getOrCreateWrappee().addArtifact(getRemoteId(localId), artifactFile));
     }
 
     public Set<MavenArtifactInfo> search(final int localId, final Query query, final int maxResult) throws MavenServerIndexerException {
-        return perform((IndexRetriable<Set<MavenArtifactInfo>>)() -> getOrCreateWrappee().search(getRemoteId(localId), query, maxResult));
+        return search(localId, query, maxResult, true, () -> false);
+    }
+
+    /**
+     * Reads the results page by page in score order, {@link #SEARCH_PAGE_SIZE} hits per page. Stops early between pages,
+     * keeping the results read so far, once {@code canceled} returns true or the server has dropped the search.
+     */
+    public Set<MavenArtifactInfo> search(
+        final int localId,
+        final Query query,
+        final int maxResult,
+        final boolean withClassNames,
+        @Nonnull BooleanSupplier canceled
+    ) throws MavenServerIndexerException {
+        MavenIndexSearchPage page = perform((IndexRetriable<MavenIndexSearchPage>)() -> getOrCreateWrappee()
+            .search(getRemoteId(localId), query, maxResult, Math.min(maxResult, SEARCH_PAGE_SIZE), withClassNames));
+
+        Set<MavenArtifactInfo> result = new LinkedHashSet<>(page.getResults());
+        while (!page.isLast()) {
+            final int searchId = page.getSearchId();
+            if (canceled.getAsBoolean()) {
+                perform((Retriable<Object>)() -> {
+                    getOrCreateWrappee().cancelSearch(searchId);
+                    return null;
+                });
+                break;
+            }
+
+            try {
+                page = perform((IndexRetriable<MavenIndexSearchPage>)() -> getOrCreateWrappee().nextSearchPage(searchId));
+            }
+            catch (MavenServerIndexerException e) {
+                MavenLog.LOG.debug("Search " + searchId + " is no longer available", e);
+                break;
+            }
+            result.addAll(page.getResults());
+        }
+        return result;
     }
 
     private synchronized int getRemoteId(int localId) throws RemoteException, MavenServerIndexerException {
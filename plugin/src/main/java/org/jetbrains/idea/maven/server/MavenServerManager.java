@@ -81,6 +81,7 @@ import java.io.File;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 @State(name = "MavenVersion", storages = @Storage("mavenVersion.xml"))
@@ -93,14 +94,33 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
     private static final String MAIN_CLASS_V40 = "consulo.maven.rt.m40.server.RemoteMavenServer";
 
     private static final String DEFAULT_VM_OPTIONS = "-Xmx512m";
+    // modules whose dependencies the server resolves at the same time, 1 resolves them one by one
+    private static final int RESOLVE_PARALLELISM = Math.max(1, Integer.getInteger("idea.maven.server.resolve.threads", 1));
+    // Maven server processes the embedders of the projects are spread over, 1 keeps all work in one process
+    private static final int PROCESS_COUNT = Math.max(1, Integer.getInteger("idea.maven.server.processes", 1));
+    // heap limit of each of these processes, the VM options apply if not set
+    @Nullable
+    private static final String PROCESS_XMX = System.getProperty("idea.maven.server.process.xmx");
+    private static final String INDEXER_PROCESS = "indexer";
 
     private final RemoteProcessSupport<Object, MavenServer, Object> mySupport;
 
     private final RemoteMavenServerLogger myLogger = new RemoteMavenServerLogger();
     private final RemoteMavenServerDownloadListener myDownloadListener = new RemoteMavenServerDownloadListener();
+    private final Object myExportLock = new Object();
     private boolean myLoggerExported;
     private boolean myDownloadListenerExported;
 
+    // empty unless the projects have processes of their own
+    private final List<ServerProcess> myProcesses = new ArrayList<>();
+    @Nullable
+    private final ServerProcess myIndexerProcess;
+    // the process of each project by its location hash, so the caches of its embedders stay in one place;
+    // assigned under myProjectProcessesLock, entries are dropped without it when a process fails
+    private final Map<String, ServerProcess> myProjectProcesses = new ConcurrentHashMap<>();
+    // not the manager's monitor, which create() of the main process holds while that process starts
+    private final Object myProjectProcessesLock = new Object();
+
     private State myState = new State();
 
     static class State {
@@ -133,33 +153,58 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
 
             @Override
             protected RunProfileState getRunProfileState(Object target, Object configuration, Executor executor) throws ExecutionException {
-                return createRunProfileState();
+                return createRunProfileState((String)configuration);
             }
         };
 
+        if (PROCESS_COUNT > 1) {
+            for (int i = 0; i < PROCESS_COUNT; i++) {
+                myProcesses.add(new ServerProcess("projects-" + i));
+            }
+            myIndexerProcess = new ServerProcess(INDEXER_PROCESS);
+        }
+        else {
+            myIndexerProcess = null;
+        }
+
         ShutDownTracker.getInstance().registerShutdownTask(() -> shutdown(false));
     }
 
-    @SuppressWarnings("ConstantConditions")
     @Override
     @Nonnull
     protected synchronized MavenServer create() throws RemoteException {
+        return startServer("");
+    }
+
+    /**
+     * @param processId "" for the main process
+     */
+    @SuppressWarnings("ConstantConditions")
+    @Nonnull
+    private MavenServer startServer(@Nonnull String processId) throws RemoteException {
         MavenServer result;
         try {
-            result = mySupport.acquire(this, "");
+            result = mySupport.acquire(this, processId);
         }
         catch (Exception e) {
             throw new RemoteException("Cannot start maven service", e);
         }
 
-        myLoggerExported = UnicastRemoteObject.exportObject(myLogger, 0) != null;
-        if (!myLoggerExported) {
-            throw new RemoteException("Cannot export logger object");
-        }
+        // all the processes report to the same logger and listener
+        synchronized (myExportLock) {
+            if (!myLoggerExported) {
+                myLoggerExported = UnicastRemoteObject.exportObject(myLogger, 0) != null;
+                if (!myLoggerExported) {
+                    throw new RemoteException("Cannot export logger object");
+                }
+            }
 
-        myDownloadListenerExported = UnicastRemoteObject.exportObject(myDownloadListener, 0) != null;
-        if (!myDownloadListenerExported) {
-            throw new RemoteException("Cannot export download listener object");
+            if (!myDownloadListenerExported) {
+                myDownloadListenerExported = UnicastRemoteObject.exportObject(myDownloadListener, 0) != null;
+                if (!myDownloadListenerExported) {
+                    throw new RemoteException("Cannot export download listener object");
+                }
+            }
         }
 
         result.set(myLogger, myDownloadListener);
@@ -167,32 +212,71 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
         return result;
     }
 
+    /**
+     * The process the embedders of the project run in: the main one, or with several processes the one the project
+     * was first given, the one with the fewest projects at that time.
+     */
+    @Nonnull
+    private RemoteObjectWrapper<MavenServer> getServer(@Nonnull Project project) {
+        if (myProcesses.isEmpty()) {
+            return this;
+        }
+        synchronized (myProjectProcessesLock) {
+            ServerProcess result = myProjectProcesses.get(project.getLocationHash());
+            if (result == null) {
+                int fewest = Integer.MAX_VALUE;
+                for (ServerProcess each : myProcesses) {
+                    int count = Collections.frequency(myProjectProcesses.values(), each);
+                    if (count < fewest) {
+                        fewest = count;
+                        result = each;
+                    }
+                }
+                myProjectProcesses.put(project.getLocationHash(), result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Forgets the process of a closed project, so that it no longer counts when the next project is given one.
+     */
+    public void projectClosed(@Nonnull Project project) {
+        myProjectProcesses.remove(project.getLocationHash());
+    }
+
     public synchronized void shutdown(boolean wait) {
         mySupport.stopAll(wait);
+        for (ServerProcess each : myProcesses) {
+            each.cleanup();
+        }
+        if (myIndexerProcess != null) {
+            myIndexerProcess.cleanup();
+        }
         cleanup();
+        unexportListeners();
     }
 
-    @Override
-    protected synchronized void cleanup() {
-        super.cleanup();
-
-        if (myLoggerExported) {
-            try {
-                UnicastRemoteObject.unexportObject(myLogger, true);
-            }
-            catch (RemoteException e) {
-                MavenLog.LOG.error(e);
-            }
-            myLoggerExported = false;
-        }
-        if (myDownloadListenerExported) {
-            try {
-                UnicastRemoteObject.unexportObject(myDownloadListener, true);
+    private void unexportListeners() {
+        synchronized (myExportLock) {
+            if (myLoggerExported) {
+                try {
+                    UnicastRemoteObject.unexportObject(myLogger, true);
+                }
+                catch (RemoteException e) {
+                    MavenLog.LOG.error(e);
+                }
+                myLoggerExported = false;
             }
-            catch (RemoteException e) {
-                MavenLog.LOG.error(e);
+            if (myDownloadListenerExported) {
+                try {
+                    UnicastRemoteObject.unexportObject(myDownloadListener, true);
+                }
+                catch (RemoteException e) {
+                    MavenLog.LOG.error(e);
+                }
+                myDownloadListenerExported = false;
             }
-            myDownloadListenerExported = false;
         }
     }
 
@@ -207,7 +291,10 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
         return MavenJdkUtil.findSdkOfLevel(languageLevel, null);
     }
 
-    private RunProfileState createRunProfileState() throws ExecutionException {
+    /**
+     * @param processId "" for the main process
+     */
+    private RunProfileState createRunProfileState(@Nonnull String processId) throws ExecutionException {
         return new CommandLineState(null) {
             @Nonnull
             private OwnSimpleJavaParameters createJavaParameters() throws ExecutionException {
@@ -283,6 +370,10 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
                         params.getVMParametersList().add("-Xmx512m");
                     }
                 }
+                if (PROCESS_XMX != null && !processId.isEmpty()) {
+                    // the last option wins
+                    params.getVMParametersList().add("-Xmx" + PROCESS_XMX);
+                }
 
                 String mavenEmbedderDebugPort = System.getProperty("idea.maven.embedder.debug.port");
                 if (mavenEmbedderDebugPort != null) {
@@ -415,7 +506,8 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
     }
 
     public MavenEmbedderWrapper createEmbedder(final Project project, final boolean alwaysOnline) {
-        return new MavenEmbedderWrapper(this) {
+        RemoteObjectWrapper<MavenServer> server = getServer(project);
+        return new MavenEmbedderWrapper(server) {
             @Nonnull
             @Override
             protected MavenServerEmbedder create() throws RemoteException {
@@ -427,17 +519,19 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
 
                 //FIXME [VISTALL] settings.setProjectJdk(MavenUtil.getSdkPath(ProjectRootManager.getInstance(project).getProjectSdk()));
 
-                return MavenServerManager.this.getOrCreateWrappee().createEmbedder(settings);
+                return server.getOrCreateWrappee().createEmbedder(settings);
             }
         };
     }
 
     public MavenIndexerWrapper createIndexer() {
-        return new MavenIndexerWrapper(this) {
+        // with several processes the indices are updated in a process of their own
+        RemoteObjectWrapper<MavenServer> server = myIndexerProcess != null ? myIndexerProcess : this;
+        return new MavenIndexerWrapper(server) {
             @Nonnull
             @Override
             protected MavenServerIndexer create() throws RemoteException {
-                return MavenServerManager.this.getOrCreateWrappee().createIndexer();
+                return server.getOrCreateWrappee().createIndexer();
             }
         };
     }
@@ -464,6 +558,16 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
         ));
     }
 
+    public List<ProfileApplicationResult> buildEffectiveModels(
+        List<MavenEffectiveModelRequest> requests,
+        MavenExplicitProfiles explicitProfiles
+    ) {
+        return perform((Retriable<List<ProfileApplicationResult>>)() -> getOrCreateWrappee().buildEffectiveModels(
+            requests,
+            explicitProfiles
+        ));
+    }
+
     public void addDownloadListener(MavenServerDownloadListener listener) {
         myDownloadListener.myListeners.add(listener);
     }
@@ -486,6 +590,7 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
                 ? MavenServerSettings.UpdatePolicy.ALWAYS_UPDATE
                 : MavenServerSettings.UpdatePolicy.DO_NOT_UPDATE
         );
+        result.setResolveParallelism(RESOLVE_PARALLELISM);
         return result;
     }
 
@@ -584,6 +689,44 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
         myState = state;
     }
 
+    /**
+     * One more Maven server process, started on first use. The process is stopped only when it no longer answers a ping,
+     * so the next request starts a new one instead of reconnecting to it. A failed embedder or indexer alone leaves it running
+     * with the work of the other projects in it.
+     */
+    private final class ServerProcess extends RemoteObjectWrapper<MavenServer> {
+        private final String myId;
+
+        private ServerProcess(@Nonnull String id) {
+            super(null);
+            myId = id;
+        }
+
+        @Nonnull
+        @Override
+        protected MavenServer create() throws RemoteException {
+            return startServer(myId);
+        }
+
+        @Override
+        protected synchronized void onError() {
+            MavenServer server = getWrappee();
+            if (server != null) {
+                try {
+                    server.ping();
+                    return;
+                }
+                catch (RemoteException e) {
+                    MavenLog.LOG.debug("Maven server process " + myId + " does not answer", e);
+                }
+            }
+            super.onError();
+            mySupport.stop(MavenServerManager.this, myId);
+            // the projects of a failed process are spread over the processes again
+            myProjectProcesses.values().removeIf(each -> each == this);
+        }
+    }
+
     private static class RemoteMavenServerLogger extends MavenRemoteObject implements MavenServerLogger {
         @Override
         public void info(Throwable e) {
@@ -0,0 +1,45 @@
+package org.jetbrains.idea.maven.indices;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenBloomFilterTest {
+    @TempDir
+    File myDir;
+
+    @Test
+    void noFalseNegatives() throws IOException {
+        File file = new File(myDir, "filter.dat");
+        MavenBloomFilter filter = MavenBloomFilter.create(file, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("org.group" + i % 100 + ":artifact" + i + ":1." + i);
+        }
+        filter.force();
+
+        MavenBloomFilter reopened = MavenBloomFilter.open(file);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(reopened.mightContain("org.group" + i % 100 + ":artifact" + i + ":1." + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRate() throws IOException {
+        MavenBloomFilter filter = MavenBloomFilter.create(new File(myDir, "filter.dat"), 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("org.group:artifact" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("com.other:artifact" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,110 @@
+package org.jetbrains.idea.maven.indices;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds the index tables from a synthetic artifact stream and reports the time and the peak heap, next to the in-memory
+ * maps the tables replaced. Run with a bounded heap to compare, e.g.
+ * {@code mvn test -Dtest=MavenIndexDataBuilderBenchmark -Didea.maven.benchmark=true -DargLine=-Xmx256m}.
+ * <p>
+ * {@code idea.maven.benchmark.artifacts} (default 5M), {@code .groups} (default 40k) and {@code .artifactsPerGroup} (default 12)
+ * shape the stream, {@code idea.maven.benchmark.inMemory=false} skips the in-memory run.
+ */
+@EnabledIfSystemProperty(named = "idea.maven.benchmark", matches = "true")
+public class MavenIndexDataBuilderBenchmark {
+    private static final int ARTIFACTS = Integer.getInteger("idea.maven.benchmark.artifacts", 5_000_000);
+    private static final int GROUPS = Integer.getInteger("idea.maven.benchmark.groups", 40_000);
+    private static final int ARTIFACTS_PER_GROUP = Integer.getInteger("idea.maven.benchmark.artifactsPerGroup", 12);
+
+    @TempDir
+    File myDir;
+
+    @Test
+    void externalMerge() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(MavenIndexDataBuilder.PARALLELISM);
+        resetPeakHeap();
+        long start = System.nanoTime();
+        try (MavenIndexDataBuilder builder = new MavenIndexDataBuilder(new File(myDir, "merge"), executor)) {
+            for (int i = 0; i < ARTIFACTS; i++) {
+                builder.process(groupId(i), artifactId(i), version(i));
+            }
+            builder.build(new File(myDir, "artifactIds.dat"), new File(myDir, "versions.dat"), new File(myDir, "classNames.dat"));
+        }
+        finally {
+            executor.shutdown();
+        }
+        report("external merge", start);
+    }
+
+    @Test
+    void inMemoryMaps() {
+        if (!Boolean.parseBoolean(System.getProperty("idea.maven.benchmark.inMemory", "true"))) {
+            return;
+        }
+        resetPeakHeap();
+        long start = System.nanoTime();
+        try {
+            Map<String, Set<String>> artifactIds = new HashMap<>();
+            Map<String, Set<String>> versions = new HashMap<>();
+            for (int i = 0; i < ARTIFACTS; i++) {
+                artifactIds.computeIfAbsent(groupId(i), k -> new HashSet<>()).add(artifactId(i));
+                versions.computeIfAbsent(groupId(i) + ":" + artifactId(i), k -> new HashSet<>()).add(version(i));
+            }
+            report("in-memory maps (" + artifactIds.size() + " groups, " + versions.size() + " artifacts)", start);
+        }
+        catch (OutOfMemoryError e) {
+            System.out.println("in-memory maps: out of memory after " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    // every call returns a new string, as the server dump does
+    private static String groupId(int i) {
+        return "org.example.group" + i % GROUPS;
+    }
+
+    private static String artifactId(int i) {
+        return "artifact-" + i / GROUPS % ARTIFACTS_PER_GROUP;
+    }
+
+    private static String version(int i) {
+        return "1." + i / (GROUPS * ARTIFACTS_PER_GROUP);
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean each : ManagementFactory.getMemoryPoolMXBeans()) {
+            each.resetPeakUsage();
+        }
+    }
+
+    private static void report(String name, long start) {
+        long peak = 0;
+        for (MemoryPoolMXBean each : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (each.getType() == MemoryType.HEAP) {
+                peak += each.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf(
+            "%s: %d artifacts in %d ms, peak heap %d MB (max %d MB)%n",
+            name,
+            ARTIFACTS,
+            (System.nanoTime() - start) / 1_000_000,
+            peak >> 20,
+            Runtime.getRuntime().maxMemory() >> 20
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package org.jetbrains.idea.maven.indices;
+
+import consulo.maven.rt.server.common.server.IndexedMavenId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenIndexDataBuilderTest {
+    @TempDir
+    File myDir;
+
+    @Test
+    void mergesRuns() throws IOException {
+        Map<String, Set<String>> expectedArtifactIds = new TreeMap<>();
+        Map<String, Set<String>> expectedVersions = new TreeMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        File merge = new File(myDir, "merge");
+        try (MavenIndexDataBuilder builder = new MavenIndexDataBuilder(merge, executor, 7, 2)) {
+            Random random = new Random(0);
+            for (int chunk = 0; chunk < 20; chunk++) {
+                List<IndexedMavenId> artifacts = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    String groupId = "org.group" + random.nextInt(5);
+                    String artifactId = "artifact" + random.nextInt(4);
+                    String version = "1." + random.nextInt(6);
+                    artifacts.add(new IndexedMavenId(groupId, artifactId, version, "jar", null));
+
+                    expectedArtifactIds.computeIfAbsent(groupId, k -> new TreeSet<>()).add(artifactId);
+                    expectedVersions.computeIfAbsent(groupId + ":" + artifactId, k -> new TreeSet<>()).add(version);
+                }
+                builder.processArtifacts(artifacts);
+            }
+
+            builder.processClassName("org.group0", "artifact0|1.0||jar", "org.group0.Foo");
+            builder.processClassName("org.group0", "artifact0|1.0||jar", "org.group0.Foo");
+            builder.processClassName("org.group1", "artifact0|1.1||jar", "org.group1.Foo");
+            builder.processClassName("org.group1", "artifact0|1.1||jar", "org.group1.FooBar");
+
+            builder.build(new File(myDir, "artifactIds.dat"), new File(myDir, "versions.dat"), new File(myDir, "classNames.dat"));
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertThat(merge).doesNotExist();
+        assertTable(MavenStringTable.open(new File(myDir, "artifactIds.dat")), expectedArtifactIds);
+        assertTable(MavenStringTable.open(new File(myDir, "versions.dat")), expectedVersions);
+
+        Map<String, Set<String>> expectedClassNames = new TreeMap<>();
+        expectedClassNames.put(
+            "foo",
+            new TreeSet<>(List.of("org.group0.Foo|org.group0|artifact0|1.0||jar", "org.group1.Foo|org.group1|artifact0|1.1||jar"))
+        );
+        expectedClassNames.put("foobar", new TreeSet<>(List.of("org.group1.FooBar|org.group1|artifact0|1.1||jar")));
+        assertTable(MavenStringTable.open(new File(myDir, "classNames.dat")), expectedClassNames);
+    }
+
+    @Test
+    void empty() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (MavenIndexDataBuilder builder = new MavenIndexDataBuilder(new File(myDir, "merge"), executor)) {
+            builder.build(new File(myDir, "artifactIds.dat"), new File(myDir, "versions.dat"), new File(myDir, "classNames.dat"));
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertThat(MavenStringTable.open(new File(myDir, "artifactIds.dat")).keys()).isEmpty();
+        assertThat(MavenStringTable.open(new File(myDir, "versions.dat")).keys()).isEmpty();
+        assertThat(MavenStringTable.open(new File(myDir, "classNames.dat")).keys()).isEmpty();
+    }
+
+    private static void assertTable(MavenStringTable table, Map<String, Set<String>> expected) {
+        assertThat(table.keys()).containsExactlyElementsOf(expected.keySet());
+        for (Map.Entry<String, Set<String>> each : expected.entrySet()) {
+            assertThat(table.get(each.getKey())).containsExactlyElementsOf(each.getValue());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.jetbrains.idea.maven.indices;
+
+import consulo.maven.rt.server.common.server.IndexedMavenId;
+import consulo.maven.rt.server.common.server.MavenIndexDump;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves a synthetic index of {@code idea.maven.benchmark.artifacts} (default 5M) coordinates from the server to the IDE
+ * side both ways: as the Java-serialized 10k chunks the server used to send through RMI callbacks, and as a
+ * {@link MavenIndexDump} file. Prints the payload size and the time to write and read it, socket time is not included.
+ * Run with {@code mvn test -Dtest=MavenIndexDumpBenchmark -Didea.maven.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "idea.maven.benchmark", matches = "true")
+public class MavenIndexDumpBenchmark {
+    private static final int ARTIFACTS = Integer.getInteger("idea.maven.benchmark.artifacts", 5_000_000);
+    private static final int CHUNK_SIZE = 10_000;
+
+    @TempDir
+    File myDir;
+
+    @Test
+    void serializedChunks() throws Exception {
+        long bytes = 0;
+        long count = 0;
+        long start = System.nanoTime();
+        List<IndexedMavenId> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < ARTIFACTS; i++) {
+            chunk.add(new IndexedMavenId(groupId(i), artifactId(i), version(i), "jar", null));
+            if (chunk.size() == CHUNK_SIZE || i == ARTIFACTS - 1) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+                    stream.writeObject(chunk);
+                }
+                bytes += out.size();
+                try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                    count += ((List<?>)stream.readObject()).size();
+                }
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        System.out.printf(
+            "serialized chunks: %d rows, %d MB in %d callbacks, %d ms%n",
+            count,
+            bytes >> 20,
+            (ARTIFACTS + CHUNK_SIZE - 1) / CHUNK_SIZE,
+            (System.nanoTime() - start) / 1_000_000
+        );
+    }
+
+    @Test
+    void dumpFile() throws IOException {
+        File file = new File(myDir, "dump.dat");
+        long start = System.nanoTime();
+        try (MavenIndexDump.Writer writer = new MavenIndexDump.Writer(file)) {
+            for (int i = 0; i < ARTIFACTS; i++) {
+                writer.add(groupId(i), artifactId(i), version(i));
+            }
+        }
+        long written = System.nanoTime();
+
+        long[] count = new long[1];
+        MavenIndexDump.read(file, (groupId, artifactId, version) -> count[0]++);
+        System.out.printf(
+            "dump file: %d rows, %d MB, %d ms to write, %d ms to read%n",
+            count[0],
+            file.length() >> 20,
+            (written - start) / 1_000_000,
+            (System.nanoTime() - written) / 1_000_000
+        );
+    }
+
+    private static String groupId(int i) {
+        return "org.example.group" + i % 40_000;
+    }
+
+    private static String artifactId(int i) {
+        return "artifact-" + i / 40_000 % 12;
+    }
+
+    private static String version(int i) {
+        return "1." + i / 480_000;
+    }
+}
@@ -0,0 +1,58 @@
+package org.jetbrains.idea.maven.indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenIndexLookupCacheTest {
+    private final AtomicLong myTime = new AtomicLong();
+
+    @Test
+    void negativeResultsExpire() {
+        MavenIndexLookupCache cache = new MavenIndexLookupCache(100, 10, myTime::get);
+        cache.put("positive", true);
+        cache.put("negative", false);
+
+        assertThat(cache.get("positive")).isTrue();
+        assertThat(cache.get("negative")).isFalse();
+
+        myTime.set(10);
+        assertThat(cache.get("positive")).isTrue();
+        assertThat(cache.get("negative")).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void sizeIsBounded() {
+        MavenIndexLookupCache cache = new MavenIndexLookupCache(160, 10, myTime::get);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("key" + i, true);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(160);
+        assertThat(cache.getEvictionCount()).isEqualTo(10_000 - cache.size());
+    }
+
+    @Test
+    void putIfAbsentKeepsLiveEntry() {
+        MavenIndexLookupCache cache = new MavenIndexLookupCache(100, 10, myTime::get);
+        cache.put("key", true);
+
+        assertThat(cache.putIfAbsent("key", false)).isTrue();
+        assertThat(cache.putIfAbsent("other", false)).isFalse();
+        assertThat(cache.get("key")).isTrue();
+    }
+
+    @Test
+    void statistics() {
+        MavenIndexLookupCache cache = new MavenIndexLookupCache(100, 10, myTime::get);
+        assertThat(cache.get("key")).isNull();
+        cache.put("key", true);
+        assertThat(cache.get("key")).isTrue();
+
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,128 @@
+package org.jetbrains.idea.maven.indices;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MavenStringTableTest {
+    @TempDir
+    File myDir;
+
+    @Test
+    void lookups() throws IOException {
+        SortedMap<String, SortedSet<String>> data = new TreeMap<>(MavenStringTable.ORDER);
+        for (int g = 0; g < 100; g++) {
+            for (int a = 0; a < 5; a++) {
+                data.computeIfAbsent("org.group" + g, k -> new TreeSet<>(MavenStringTable.ORDER)).add("artifact" + a);
+            }
+        }
+        data.computeIfAbsent("org.group1.sub", k -> new TreeSet<>(MavenStringTable.ORDER)).add("été");
+
+        MavenStringTable table = write(data);
+
+        assertThat(table.getKeyCount()).isEqualTo(data.size());
+        assertThat(table.keys()).containsExactlyElementsOf(data.keySet());
+        for (Map.Entry<String, SortedSet<String>> each : data.entrySet()) {
+            assertThat(table.containsKey(each.getKey())).isTrue();
+            assertThat(table.get(each.getKey())).containsExactlyElementsOf(each.getValue());
+            for (String value : each.getValue()) {
+                assertThat(table.contains(each.getKey(), value)).isTrue();
+            }
+        }
+
+        assertThat(table.containsKey("org.group")).isFalse();
+        assertThat(table.containsKey("org.group100")).isFalse();
+        assertThat(table.containsKey("org.group1.")).isFalse();
+        assertThat(table.containsKey("a")).isFalse();
+        assertThat(table.containsKey("z")).isFalse();
+        assertThat(table.contains("org.group1", "artifact")).isFalse();
+        assertThat(table.contains("org.group1", "artifact5")).isFalse();
+        assertThat(table.get("unknown")).isEmpty();
+    }
+
+    @Test
+    void prefixScan() throws IOException {
+        SortedMap<String, SortedSet<String>> data = new TreeMap<>(MavenStringTable.ORDER);
+        for (int i = 0; i < 1000; i++) {
+            data.computeIfAbsent("key" + i, k -> new TreeSet<>(MavenStringTable.ORDER)).add("value" + i);
+        }
+        MavenStringTable table = write(data);
+
+        assertThat(collectPrefix(table, "key12")).containsExactlyElementsOf(data.subMap("key12", "key13").keySet());
+        assertThat(collectPrefix(table, "key999")).containsExactly("key999");
+        assertThat(collectPrefix(table, "")).hasSize(1000);
+        assertThat(collectPrefix(table, "kex")).isEmpty();
+        assertThat(collectPrefix(table, "kez")).isEmpty();
+
+        List<String> values = new ArrayList<>();
+        assertThat(table.processPrefix("key5", (key, keyValues) -> values.addAll(keyValues) && values.size() < 3)).isFalse();
+        assertThat(values).containsExactly("value5", "value50", "value500");
+    }
+
+    private static List<String> collectPrefix(MavenStringTable table, String prefix) {
+        List<String> result = new ArrayList<>();
+        table.processPrefix(prefix, (key, values) -> result.add(key));
+        return result;
+    }
+
+    @Test
+    void duplicatesAreSkipped() throws IOException {
+        File file = new File(myDir, "table.dat");
+        try (MavenStringTable.Writer writer = new MavenStringTable.Writer(file)) {
+            writer.add("g", "a");
+            writer.add("g", "a");
+            writer.add("g", "b");
+        }
+        assertThat(MavenStringTable.open(file).get("g")).containsExactly("a", "b");
+    }
+
+    @Test
+    void unsortedInputIsRejected() throws IOException {
+        File file = new File(myDir, "table.dat");
+        try (MavenStringTable.Writer writer = new MavenStringTable.Writer(file)) {
+            writer.add("b", "1");
+            assertThatThrownBy(() -> writer.add("a", "1")).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void loneSurrogatesAreOrderedAsEncoded() throws IOException {
+        // a lone surrogate is written as '?', which sorts between '>' and '@'
+        SortedMap<String, SortedSet<String>> data = new TreeMap<>(MavenStringTable.ORDER);
+        for (String each : List.of("a>", "a@", "a\uD800", "a\uDBFF\uDFFF")) {
+            data.computeIfAbsent(each, k -> new TreeSet<>(MavenStringTable.ORDER)).add(each);
+        }
+        MavenStringTable table = write(data);
+
+        for (String each : data.keySet()) {
+            assertThat(table.contains(each, each)).isTrue();
+        }
+        assertThat(table.containsKey("a?")).isTrue();
+        assertThat(table.containsKey("a=")).isFalse();
+    }
+
+    @Test
+    void empty() throws IOException {
+        MavenStringTable table = write(new TreeMap<>());
+        assertThat(table.keys()).isEmpty();
+        assertThat(table.containsKey("a")).isFalse();
+    }
+
+    private MavenStringTable write(SortedMap<String, SortedSet<String>> data) throws IOException {
+        File file = new File(myDir, "table.dat");
+        try (MavenStringTable.Writer writer = new MavenStringTable.Writer(file)) {
+            for (Map.Entry<String, SortedSet<String>> each : data.entrySet()) {
+                for (String value : each.getValue()) {
+                    writer.add(each.getKey(), value);
+                }
+            }
+        }
+        return MavenStringTable.open(file);
+    }
+}
@@ -0,0 +1,45 @@
+package org.jetbrains.idea.maven.indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenUnionSetTest {
+    @Test
+    void union() {
+        Set<String> union = MavenUnionSet.of(List.of(Set.of("a", "b"), Set.of(), Set.of("b", "c")));
+
+        assertThat(union).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(union).hasSize(3);
+        assertThat(union.contains("c")).isTrue();
+        assertThat(union.contains("d")).isFalse();
+    }
+
+    @Test
+    void singlePartIsNotWrapped() {
+        Set<String> part = Set.of("a");
+
+        assertThat(MavenUnionSet.of(List.of(Set.<String>of(), part))).isEqualTo(part);
+        assertThat(MavenUnionSet.of(List.of(Set.<String>of(), Set.<String>of()))).isEmpty();
+    }
+
+    @Test
+    void partsAreReadOnceForSizeAndIteration() {
+        int[] iterations = new int[1];
+        Set<String> part = new HashSet<>(List.of("b", "c")) {
+            @Override
+            public Iterator<String> iterator() {
+                iterations[0]++;
+                return super.iterator();
+            }
+        };
+        Set<String> union = MavenUnionSet.of(List.of(List.of("a", "b"), part));
+
+        assertThat(union.toArray()).containsExactly("a", "b", "c");
+        assertThat(union).hasSize(3);
+        assertThat(union).containsExactly("a", "b", "c");
+        assertThat(iterations[0]).isEqualTo(1);
+    }
+}
@@ -0,0 +1,174 @@
+package org.jetbrains.idea.maven.project;
+
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingResult;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.repository.LocalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds and resolves a synthetic reactor of {@code idea.maven.benchmark.modules} (default 500) modules that inherit from one
+ * parent managing {@code idea.maven.benchmark.libraries} (default 300) libraries, which are installed in a local repository
+ * and depend on each other. It does so the way the Maven server's {@code doResolveProjects} does, offline:
+ * <ul>
+ * <li>once with a {@link ProjectBuilder} call and a repository session per module, as the per-module resolve loop did;</li>
+ * <li>once with one call and one session, with a repository cache, for the whole batch, as a batch does.</li>
+ * </ul>
+ * The batch reads the parent and the library descriptors once rather than once per module. Prints the time of both and
+ * their ratio. All the projects of a batch are kept until it is done, so a small heap makes the batch pay in collections.
+ * Run with {@code mvn test -Dtest=MavenBatchResolveBenchmark -Didea.maven.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "idea.maven.benchmark", matches = "true")
+public class MavenBatchResolveBenchmark {
+    private static final int MODULES = Integer.getInteger("idea.maven.benchmark.modules", 500);
+    private static final int LIBRARIES = Integer.getInteger("idea.maven.benchmark.libraries", 300);
+    private static final int DEPENDENCIES = 20;
+    private static final int LIBRARY_DEPENDENCIES = 3;
+
+    @TempDir
+    File myDir;
+
+    @Test
+    void perModuleAndBatch() throws Exception {
+        List<File> modules = createReactor();
+
+        ContainerConfiguration configuration = new DefaultContainerConfiguration()
+            .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+            .setAutoWiring(true)
+            .setName("maven");
+        DefaultPlexusContainer container = new DefaultPlexusContainer(configuration);
+        try {
+            ProjectBuilder builder = container.lookup(ProjectBuilder.class);
+            RepositorySystem repositorySystem = container.lookup(RepositorySystem.class);
+
+            // warm-up runs, so that the first measured one does not pay for class loading and JIT
+            buildOneByOne(builder, repositorySystem, modules.subList(0, Math.min(50, modules.size())));
+            builder.build(modules.subList(0, Math.min(50, modules.size())), false, newRequest(repositorySystem, true));
+
+            long start = System.nanoTime();
+            buildOneByOne(builder, repositorySystem, modules);
+            long oneByOne = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<ProjectBuildingResult> results = builder.build(modules, false, newRequest(repositorySystem, true));
+            long batch = System.nanoTime() - start;
+            for (ProjectBuildingResult each : results) {
+                if (each.getDependencyResolutionResult().getCollectionErrors().size() > 0
+                    || each.getDependencyResolutionResult().getDependencies().size() < DEPENDENCIES) {
+                    throw new AssertionError("Dependencies of " + each.getPomFile() + " are not resolved");
+                }
+            }
+
+            System.out.printf(
+                "%d modules: %d ms with a call per module, %d ms with one call, %.1fx%n",
+                modules.size(),
+                oneByOne / 1_000_000,
+                batch / 1_000_000,
+                (double)oneByOne / batch
+            );
+        }
+        finally {
+            container.dispose();
+        }
+    }
+
+    // a request, and so a session, per module, as every resolveProject call to the server created one
+    private void buildOneByOne(ProjectBuilder builder, RepositorySystem repositorySystem, List<File> modules) throws Exception {
+        for (File each : modules) {
+            builder.build(Collections.singletonList(each), false, newRequest(repositorySystem, false));
+        }
+    }
+
+    private ProjectBuildingRequest newRequest(RepositorySystem repositorySystem, boolean cache) {
+        DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+        session.setOffline(true);
+        session.setLocalRepositoryManager(repositorySystem.newLocalRepositoryManager(session, new LocalRepository(getRepository())));
+        if (cache) {
+            // as doResolveProjects sets up the session of a batch
+            session.setCache(new DefaultRepositoryCache());
+        }
+
+        ProjectBuildingRequest result = new DefaultProjectBuildingRequest();
+        result.setRepositorySession(session);
+        result.setSystemProperties(System.getProperties());
+        result.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+        result.setProcessPlugins(false);
+        result.setResolveDependencies(true);
+        return result;
+    }
+
+    private File getRepository() {
+        return new File(myDir, "repository");
+    }
+
+    private List<File> createReactor() throws IOException {
+        for (int i = 0; i < LIBRARIES; i++) {
+            StringBuilder library = new StringBuilder();
+            library.append("<project><modelVersion>4.0.0</modelVersion>")
+                .append("<groupId>org.example.libraries</groupId><artifactId>library-").append(i)
+                .append("</artifactId><version>2.0</version><dependencies>");
+            for (int j = i + 1; j <= i + LIBRARY_DEPENDENCIES && j < LIBRARIES; j++) {
+                library.append("<dependency><groupId>org.example.libraries</groupId><artifactId>library-").append(j)
+                    .append("</artifactId><version>2.0</version></dependency>");
+            }
+            library.append("</dependencies></project>");
+            File dir = new File(getRepository(), "org/example/libraries/library-" + i + "/2.0");
+            write(new File(dir, "library-" + i + "-2.0.pom"), library);
+            write(new File(dir, "library-" + i + "-2.0.jar"), "");
+        }
+
+        StringBuilder parent = new StringBuilder();
+        parent.append("<project><modelVersion>4.0.0</modelVersion>")
+            .append("<groupId>org.example</groupId><artifactId>parent</artifactId><version>1.0</version><packaging>pom</packaging>")
+            .append("<properties><library.version>2.0</library.version></properties>")
+            .append("<dependencyManagement><dependencies>");
+        for (int i = 0; i < LIBRARIES; i++) {
+            parent.append("<dependency><groupId>org.example.libraries</groupId><artifactId>library-").append(i)
+                .append("</artifactId><version>${library.version}</version></dependency>");
+        }
+        parent.append("</dependencies></dependencyManagement></project>");
+        write(new File(myDir, "pom.xml"), parent);
+
+        List<File> result = new ArrayList<>(MODULES);
+        for (int i = 0; i < MODULES; i++) {
+            StringBuilder module = new StringBuilder();
+            module.append("<project><modelVersion>4.0.0</modelVersion>")
+                .append("<parent><groupId>org.example</groupId><artifactId>parent</artifactId><version>1.0</version></parent>")
+                .append("<artifactId>module-").append(i).append("</artifactId><dependencies>");
+            for (int j = 0; j < DEPENDENCIES; j++) {
+                module.append("<dependency><groupId>org.example.libraries</groupId><artifactId>library-")
+                    .append((i + j) % LIBRARIES).append("</artifactId></dependency>");
+            }
+            module.append("</dependencies></project>");
+            File file = new File(new File(myDir, "module-" + i), "pom.xml");
+            write(file, module);
+            result.add(file);
+        }
+        return result;
+    }
+
+    private static void write(File file, CharSequence text) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
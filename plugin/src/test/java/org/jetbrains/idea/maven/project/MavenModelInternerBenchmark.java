@@ -0,0 +1,85 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the dependency lists of a synthetic reactor of {@code idea.maven.benchmark.modules} (default 1,000) modules that all
+ * depend on the same {@code idea.maven.benchmark.libraries} (default 400) libraries, once as received, every artifact with
+ * its own strings and file as RMI deserialization creates them, and once passed through {@link MavenModelInterner}.
+ * Prints the heap the lists retain. Run with {@code mvn test -Dtest=MavenModelInternerBenchmark -Didea.maven.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "idea.maven.benchmark", matches = "true")
+public class MavenModelInternerBenchmark {
+    private static final int MODULES = Integer.getInteger("idea.maven.benchmark.modules", 1_000);
+    private static final int LIBRARIES = Integer.getInteger("idea.maven.benchmark.libraries", 400);
+
+    @Test
+    void received() {
+        long before = usedHeap();
+        List<List<MavenArtifact>> modules = new ArrayList<>(MODULES);
+        for (int i = 0; i < MODULES; i++) {
+            modules.add(dependencies());
+        }
+        report("received", modules, before);
+    }
+
+    @Test
+    void interned() {
+        long before = usedHeap();
+        List<List<MavenArtifact>> modules = new ArrayList<>(MODULES);
+        for (int i = 0; i < MODULES; i++) {
+            modules.add(MavenModelInterner.internArtifacts(dependencies()));
+        }
+        report("interned", modules, before);
+    }
+
+    // new strings and files for every module, as every module's resolve result is deserialized separately
+    private static List<MavenArtifact> dependencies() {
+        List<MavenArtifact> result = new ArrayList<>(LIBRARIES);
+        for (int i = 0; i < LIBRARIES; i++) {
+            String artifactId = "library-" + i;
+            String version = "1." + i;
+            result.add(new MavenArtifact(
+                new String("org.example.libraries"),
+                artifactId,
+                version,
+                new String(version),
+                new String("jar"),
+                null,
+                new String("compile"),
+                false,
+                new String("jar"),
+                new File("/home/user/.m2/repository/org/example/libraries/" + artifactId + "/" + version + "/" + artifactId + ".jar"),
+                null,
+                true,
+                false
+            ));
+        }
+        return result;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String name, List<List<MavenArtifact>> modules, long before) {
+        long retained = usedHeap() - before;
+        System.out.printf(
+            "%s: %d modules x %d dependencies retain %d MB%n",
+            name,
+            modules.size(),
+            modules.get(0).size(),
+            retained >> 20
+        );
+    }
+}
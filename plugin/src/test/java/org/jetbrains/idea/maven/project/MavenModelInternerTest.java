@@ -0,0 +1,49 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import consulo.maven.rt.server.common.model.MavenId;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenModelInternerTest {
+    @Test
+    void equalValuesAreShared() {
+        MavenArtifact artifact = MavenModelInterner.intern(artifact(false));
+
+        assertThat(MavenModelInterner.intern(artifact(false))).isSameAs(artifact);
+        assertThat(MavenModelInterner.intern(new MavenId("org.example", "lib", "1.0")))
+            .isSameAs(MavenModelInterner.intern(new MavenId("org.example", "lib", "1.0")));
+        assertThat(MavenModelInterner.intern(new MavenId("org.example", "lib", "1.0")).getGroupId()).isSameAs(artifact.getGroupId());
+    }
+
+    @Test
+    void flagsAreKept() {
+        MavenArtifact artifact = MavenModelInterner.intern(artifact(false));
+        MavenArtifact optional = MavenModelInterner.intern(artifact(true));
+
+        assertThat(optional).isNotSameAs(artifact);
+        assertThat(optional.isOptional()).isTrue();
+        assertThat(optional.getFile()).isSameAs(artifact.getFile());
+    }
+
+    private static MavenArtifact artifact(boolean optional) {
+        return new MavenArtifact(
+            new String("org.example"),
+            new String("lib"),
+            "1.0",
+            "1.0",
+            "jar",
+            null,
+            "compile",
+            optional,
+            "jar",
+            new File("/work/lib.jar"),
+            null,
+            true,
+            false
+        );
+    }
+}
@@ -0,0 +1,56 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenProjectChangesTest {
+    private static final MavenArtifact A = artifact("a");
+    private static final MavenArtifact B = artifact("b");
+    private static final MavenArtifact C = artifact("c");
+
+    @Test
+    void dependencyChanges() {
+        MavenProjectChanges changes = new MavenProjectChanges();
+        changes.setDependencies(List.of(A, B), List.of(B, C));
+
+        assertThat(changes.addedDependencies).containsExactly(C);
+        assertThat(changes.removedDependencies).containsExactly(A);
+    }
+
+    @Test
+    void mergedDependencyChangesCancelOut() {
+        MavenProjectChanges first = new MavenProjectChanges();
+        first.setDependencies(List.of(A), List.of(B));
+        MavenProjectChanges second = new MavenProjectChanges();
+        second.setDependencies(List.of(B), List.of(A, C));
+
+        MavenProjectChanges merged = first.mergedWith(second);
+
+        assertThat(merged.addedDependencies).containsExactly(C);
+        assertThat(merged.removedDependencies).isEmpty();
+        assertThat(merged.mergedWith(MavenProjectChanges.NONE).addedDependencies).containsExactly(C);
+    }
+
+    private static MavenArtifact artifact(String artifactId) {
+        return new MavenArtifact(
+            "org.example",
+            artifactId,
+            "1.0",
+            "1.0",
+            "jar",
+            null,
+            "compile",
+            false,
+            "jar",
+            null,
+            new File("/home/user/.m2/repository"),
+            false,
+            false
+        );
+    }
+}
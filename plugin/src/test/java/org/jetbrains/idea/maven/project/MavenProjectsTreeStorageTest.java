@@ -0,0 +1,175 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.*;
+import org.jdom.Element;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenProjectsTreeStorageTest {
+    private static final File LOCAL_REPOSITORY = new File("/home/user/.m2/repository");
+
+    @Test
+    void artifacts() throws IOException {
+        MavenArtifact inRepository = artifact("junit", "junit", "4.13", null);
+        MavenArtifact elsewhere = artifact("org.example", "lib", "1.0-SNAPSHOT", new File("/work/lib/target/lib.jar"));
+
+        MavenProjectsTreeStorage.Output out = new MavenProjectsTreeStorage.Output(null);
+        out.beginBlock();
+        out.writeList(Arrays.asList(inRepository, elsewhere, inRepository), (o, each) -> o.writeArtifact(each, LOCAL_REPOSITORY));
+        out.endBlock();
+
+        MavenProjectsTreeStorage.Input in = reread(out).readBlock().open();
+        List<MavenArtifact> artifacts = in.readList(i -> i.readArtifact(LOCAL_REPOSITORY));
+
+        assertThat(artifacts).containsExactly(inRepository, elsewhere, inRepository);
+        assertThat(artifacts.get(0)).isSameAs(artifacts.get(2));
+        assertThat(artifacts.get(1).getFile()).isEqualTo(elsewhere.getFile());
+        assertThat(artifacts.get(1).isOptional()).isTrue();
+        assertThat(artifacts.get(1).isMarkedResolved()).isTrue();
+        assertThat(artifacts.get(1).isStubbed()).isFalse();
+    }
+
+    @Test
+    void dependencyTree() throws IOException {
+        MavenArtifact rootArtifact = artifact("a", "a", "1", null);
+        MavenArtifactNode root = new MavenArtifactNode(null, rootArtifact, MavenArtifactState.ADDED, null, "compile", null, null);
+        MavenArtifactNode child = new MavenArtifactNode(
+            root,
+            artifact("b", "b", "2", null),
+            MavenArtifactState.CONFLICT,
+            artifact("b", "b", "3", null),
+            null,
+            "1",
+            "test"
+        );
+        root.setDependencies(Collections.singletonList(child));
+        child.setDependencies(Collections.emptyList());
+
+        MavenProjectsTreeStorage.Output out = new MavenProjectsTreeStorage.Output(null);
+        out.writeArtifactNodes(Collections.singletonList(root), LOCAL_REPOSITORY);
+
+        List<MavenArtifactNode> read = reread(out).readArtifactNodes(null, LOCAL_REPOSITORY);
+
+        assertThat(read).hasSize(1);
+        MavenArtifactNode readRoot = read.get(0);
+        assertThat(readRoot.getParent()).isNull();
+        assertThat(readRoot.getArtifact()).isEqualTo(root.getArtifact());
+        assertThat(readRoot.getOriginalScope()).isEqualTo("compile");
+
+        MavenArtifactNode readChild = readRoot.getDependencies().get(0);
+        assertThat(readChild.getParent()).isSameAs(readRoot);
+        assertThat(readChild.getState()).isEqualTo(MavenArtifactState.CONFLICT);
+        assertThat(readChild.getRelatedArtifact()).isEqualTo(child.getRelatedArtifact());
+        assertThat(readChild.getPremanagedVersion()).isEqualTo("1");
+        assertThat(readChild.getPremanagedScope()).isEqualTo("test");
+        assertThat(readChild.getDependencies()).isEmpty();
+    }
+
+    @Test
+    void pluginsAndModel() throws IOException {
+        Element configuration = new Element("configuration");
+        configuration.addContent(new Element("source").setText("17"));
+        Element excludes = new Element("excludes");
+        excludes.addContent(new Element("exclude").setText("**/*Test.java"));
+        configuration.addContent(excludes);
+
+        MavenPlugin plugin = new MavenPlugin(
+            "org.apache.maven.plugins",
+            "maven-compiler-plugin",
+            "3.11.0",
+            false,
+            true,
+            configuration,
+            Collections.singletonList(new MavenPlugin.Execution("default-compile", "compile", List.of("compile"), null)),
+            Collections.singletonList(new MavenId("org.example", "processor", "1.0"))
+        );
+        MavenResource resource = new MavenResource("src/main/resources", true, null, List.of("**/*.properties"), null);
+        MavenRemoteRepository repository = new MavenRemoteRepository(
+            "central",
+            null,
+            "https://repo.maven.apache.org/maven2",
+            "default",
+            new MavenRemoteRepository.Policy(true, "daily", "warn"),
+            null
+        );
+        Properties properties = new Properties();
+        properties.setProperty("project.build.sourceEncoding", "UTF-8");
+
+        MavenProjectsTreeStorage.Output out = new MavenProjectsTreeStorage.Output(null);
+        out.writePlugin(plugin);
+        out.writeResource(resource);
+        out.writeRemoteRepository(repository);
+        out.writeProperties(properties);
+        out.writeMavenId(new MavenId("org.example", null, null));
+
+        MavenProjectsTreeStorage.Input in = reread(out);
+        MavenPlugin readPlugin = in.readPlugin();
+        assertThat(readPlugin).isEqualTo(plugin);
+        assertThat(readPlugin.getConfigurationElement().getChild("excludes").getChildText("exclude")).isEqualTo("**/*Test.java");
+        assertThat(readPlugin.getExecutions().get(0).getPhase()).isEqualTo("compile");
+        assertThat(in.readResource()).isEqualTo(resource);
+
+        MavenRemoteRepository readRepository = in.readRemoteRepository();
+        assertThat(readRepository).isEqualTo(repository);
+        assertThat(readRepository.getReleasesPolicy().getUpdatePolicy()).isEqualTo("daily");
+        assertThat(readRepository.getSnapshotsPolicy()).isNull();
+
+        assertThat(in.readProperties()).isEqualTo(properties);
+        assertThat(in.readMavenId()).isEqualTo(new MavenId("org.example", null, null));
+    }
+
+    @Test
+    void blocksAreCopiedWithTheSeedDictionary() throws IOException {
+        MavenProjectsTreeStorage.Output out = new MavenProjectsTreeStorage.Output(null);
+        out.beginBlock();
+        out.writeString("org.example");
+        out.writeMavenId(new MavenId("org.example", "app", "1.0"));
+        out.endBlock();
+        MavenProjectsTreeStorage.Input first = reread(out);
+        MavenProjectsTreeStorage.Block block = first.readBlock();
+
+        MavenProjectsTreeStorage.Output copy = new MavenProjectsTreeStorage.Output(first.getDictionary());
+        copy.writeString("another");
+        assertThat(copy.copyBlock(block)).isTrue();
+        assertThat(new MavenProjectsTreeStorage.Output(null).copyBlock(block)).isFalse();
+
+        MavenProjectsTreeStorage.Input second = reread(copy);
+        assertThat(second.readString()).isEqualTo("another");
+        MavenProjectsTreeStorage.Input copied = second.readBlock().open();
+        assertThat(copied.readString()).isEqualTo("org.example");
+        assertThat(copied.readMavenId()).isEqualTo(new MavenId("org.example", "app", "1.0"));
+    }
+
+    private static MavenArtifact artifact(String groupId, String artifactId, String version, File file) {
+        return new MavenArtifact(
+            groupId,
+            artifactId,
+            version,
+            version,
+            "jar",
+            null,
+            "compile",
+            file != null,
+            "jar",
+            file,
+            LOCAL_REPOSITORY,
+            true,
+            false
+        );
+    }
+
+    private static MavenProjectsTreeStorage.Input reread(MavenProjectsTreeStorage.Output out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream data = new DataOutputStream(bytes)) {
+            out.writeTo(data);
+        }
+        return MavenProjectsTreeStorage.Input.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
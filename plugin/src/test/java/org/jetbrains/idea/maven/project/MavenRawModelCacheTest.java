@@ -0,0 +1,57 @@
+package org.jetbrains.idea.maven.project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenRawModelCacheTest {
+    @TempDir
+    File myDir;
+
+    @Test
+    void keyDependsOnPathAndContents() {
+        String key = MavenRawModelCache.getKey("/work/pom.xml", bytes("<project/>"), new byte[0]);
+
+        assertThat(MavenRawModelCache.getKey("/work/pom.xml", bytes("<project/>"), new byte[0])).isEqualTo(key);
+        assertThat(MavenRawModelCache.getKey("/other/pom.xml", bytes("<project/>"), new byte[0])).isNotEqualTo(key);
+        assertThat(MavenRawModelCache.getKey("/work/pom.xml", bytes("<project></project>"), new byte[0])).isNotEqualTo(key);
+        assertThat(MavenRawModelCache.getKey("/work/pom.xml", new byte[0], bytes("<project/>"))).isNotEqualTo(key);
+    }
+
+    @Test
+    void entriesSurviveNewInstances() {
+        new MavenRawModelCache(myDir, 1 << 20).put("a", "model");
+
+        MavenRawModelCache cache = new MavenRawModelCache(myDir, 1 << 20);
+        assertThat(cache.get("a", String.class)).isEqualTo("model");
+        assertThat(cache.get("b", String.class)).isNull();
+        assertThat(cache.get("a", ArrayList.class)).isNull();
+        assertThat(new File(myDir, "a")).doesNotExist();
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() {
+        MavenRawModelCache cache = new MavenRawModelCache(myDir, 3000);
+        String value = "x".repeat(1000);
+        cache.put("old", value);
+        cache.put("used", value);
+        new File(myDir, "old").setLastModified(1000);
+        new File(myDir, "used").setLastModified(2000);
+        assertThat(cache.get("used", String.class)).isEqualTo(value);
+
+        cache.put("new", value);
+
+        assertThat(cache.get("old", String.class)).isNull();
+        assertThat(cache.get("used", String.class)).isEqualTo(value);
+        assertThat(cache.get("new", String.class)).isEqualTo(value);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,125 @@
+package org.jetbrains.idea.maven.project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads a synthetic reactor, a root with {@code idea.maven.benchmark.aggregators} (default 50) aggregators of
+ * {@code idea.maven.benchmark.modules} (default 40) modules each that inherit from their aggregator, through
+ * {@link MavenReadScheduler} as a tree update does. Every read keeps a core busy for {@code idea.maven.benchmark.readMicros}
+ * (default 500) microseconds instead of parsing a POM, or with {@code idea.maven.benchmark.io=true} sleeps that long as if
+ * waiting for the disk. Prints the wall time for 1, 2, 4... up to {@code idea.maven.benchmark.threads} (default all cores)
+ * threads and the speedup over one thread.
+ * Run with {@code mvn test -Dtest=MavenReadSchedulerBenchmark -Didea.maven.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "idea.maven.benchmark", matches = "true")
+public class MavenReadSchedulerBenchmark {
+    private static final int AGGREGATORS = Integer.getInteger("idea.maven.benchmark.aggregators", 50);
+    private static final int MODULES = Integer.getInteger("idea.maven.benchmark.modules", 40);
+    private static final long READ_NANOS = Integer.getInteger("idea.maven.benchmark.readMicros", 500) * 1_000L;
+    private static final boolean IO = Boolean.getBoolean("idea.maven.benchmark.io");
+    private static final int FILES = 1 + AGGREGATORS + AGGREGATORS * MODULES;
+
+    @Test
+    void parallelReads() {
+        int cores = Integer.getInteger("idea.maven.benchmark.threads", Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newCachedThreadPool(r -> {
+            Thread result = new Thread(r);
+            result.setDaemon(true);
+            return result;
+        });
+        try {
+            // a warm-up run, so that the first measured one does not pay for class loading and JIT
+            read(pool, cores);
+            long single = 0;
+            for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+                long time = read(pool, threads);
+                if (threads == 1) {
+                    single = time;
+                }
+                System.out.printf(
+                    "%d threads: %d POMs in %d ms, %.1fx%n",
+                    threads,
+                    FILES,
+                    time / 1_000_000,
+                    (double)single / time
+                );
+                if (threads == cores) {
+                    break;
+                }
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long read(ExecutorService pool, int threads) {
+        AtomicIntegerArray read = new AtomicIntegerArray(FILES);
+        AtomicInteger count = new AtomicInteger();
+        AtomicInteger beforeParent = new AtomicInteger();
+        List<MavenReadScheduler<Integer>> scheduler = new ArrayList<>(1);
+        scheduler.add(new MavenReadScheduler<>(
+            new MavenBoundedExecutor(threads, pool),
+            MavenReadSchedulerBenchmark::parent,
+            (file, forceRead, readDone) -> {
+                Integer parent = parent(file);
+                if (parent != null && read.get(parent) == 0) {
+                    beforeParent.incrementAndGet();
+                }
+                if (IO) {
+                    LockSupport.parkNanos(READ_NANOS);
+                }
+                else {
+                    long end = System.nanoTime() + READ_NANOS;
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                }
+                read.set(file, 1);
+                count.incrementAndGet();
+                readDone.run();
+                return scheduler.get(0).schedule(scheduler.get(0).parentsFirst(modules(file)), false);
+            }
+        ));
+
+        long start = System.nanoTime();
+        scheduler.get(0).schedule(List.of(0), true).join();
+        long time = System.nanoTime() - start;
+        if (count.get() != FILES || beforeParent.get() != 0) {
+            throw new AssertionError(count + " of " + FILES + " POMs read, " + beforeParent + " before their parent");
+        }
+        return time;
+    }
+
+    private static Integer parent(Integer file) {
+        if (file == 0) {
+            return null;
+        }
+        return file <= AGGREGATORS ? 0 : 1 + (file - AGGREGATORS - 1) / MODULES;
+    }
+
+    private static List<Integer> modules(Integer file) {
+        List<Integer> result = new ArrayList<>();
+        if (file == 0) {
+            for (int i = 1; i <= AGGREGATORS; i++) {
+                result.add(i);
+            }
+        }
+        else if (file <= AGGREGATORS) {
+            int first = AGGREGATORS + 1 + (file - 1) * MODULES;
+            for (int i = first; i < first + MODULES; i++) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package org.jetbrains.idea.maven.project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.*;
+
+/**
+ * Looks up the inheritors and dependents of every module of a synthetic reactor of {@code idea.maven.benchmark.modules}
+ * (default 5k) modules, as an update touching all of them does: once by scanning all modules per lookup, as the projects
+ * tree used to, and once with {@link MavenReverseIndex}es that are built up front and re-registered per module.
+ * Run with {@code mvn test -Dtest=MavenReverseIndexBenchmark -Didea.maven.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "idea.maven.benchmark", matches = "true")
+public class MavenReverseIndexBenchmark {
+    private static final int MODULES = Integer.getInteger("idea.maven.benchmark.modules", 5_000);
+    private static final int PARENTS = 50;
+    private static final int LIBRARIES = 400;
+    private static final int LIBRARY_DEPENDENCIES = 30;
+    private static final int MODULE_DEPENDENCIES = 5;
+
+    private record Module(String id, String parentId, List<String> dependencies) {
+    }
+
+    @Test
+    void scan() {
+        List<Module> modules = createModules();
+        long start = System.nanoTime();
+        long found = 0;
+        for (Module module : modules) {
+            for (Module each : modules) {
+                if (each != module && module.id().equals(each.parentId())) {
+                    found++;
+                }
+            }
+            for (Module each : modules) {
+                if (each.dependencies().contains(module.id())) {
+                    found++;
+                }
+            }
+        }
+        report("scan", found, start);
+    }
+
+    @Test
+    void reverseIndex() {
+        List<Module> modules = createModules();
+        long start = System.nanoTime();
+        MavenReverseIndex<String, Module> inheritors = new MavenReverseIndex<>(HashMap::new);
+        MavenReverseIndex<String, Module> dependents = new MavenReverseIndex<>(HashMap::new);
+        for (Module each : modules) {
+            inheritors.register(each, List.of(each.parentId()));
+            dependents.register(each, each.dependencies());
+        }
+        long found = 0;
+        for (Module module : modules) {
+            // an update registers the module again before its inheritors and dependents are looked up
+            inheritors.register(module, List.of(module.parentId()));
+            dependents.register(module, module.dependencies());
+
+            Set<Module> moduleInheritors = inheritors.get(module.id());
+            found += moduleInheritors.size() - (moduleInheritors.contains(module) ? 1 : 0);
+            found += dependents.get(module.id()).size();
+        }
+        report("reverse index", found, start);
+    }
+
+    private static List<Module> createModules() {
+        Random random = new Random(0);
+        List<Module> result = new ArrayList<>(MODULES);
+        for (int i = 0; i < MODULES; i++) {
+            List<String> dependencies = new ArrayList<>(LIBRARY_DEPENDENCIES + MODULE_DEPENDENCIES);
+            for (int j = 0; j < LIBRARY_DEPENDENCIES; j++) {
+                dependencies.add("org.library:library-" + random.nextInt(LIBRARIES));
+            }
+            for (int j = 0; j < MODULE_DEPENDENCIES && i > 0; j++) {
+                dependencies.add(moduleId(random.nextInt(i)));
+            }
+            // the first modules are the parents of the others
+            result.add(new Module(moduleId(i), i < PARENTS ? "org.example:root" : moduleId(i % PARENTS), dependencies));
+        }
+        return result;
+    }
+
+    private static String moduleId(int i) {
+        return "org.example:module-" + i;
+    }
+
+    private static void report(String name, long found, long start) {
+        System.out.printf(
+            "%s: %d modules, %d inheritors and dependents found in %d ms%n",
+            name,
+            MODULES,
+            found,
+            (System.nanoTime() - start) / 1_000_000
+        );
+    }
+}